@@ -0,0 +1,30 @@
+package com.sayedbaladoh.ems.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Turns off the Hibernate Validator validation of entities on persist and
+ * update when employees are validated by the compiled employee validator, so
+ * a posted employee is validated once per request. Posted and updated
+ * employees are validated in <code>EmployeeController</code> and imported
+ * ones by <code>EmployeeImporter</code>. Enabled by
+ * <code>ems.validation.compiled</code>.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Configuration
+@ConditionalOnProperty(
+		name = "ems.validation.compiled",
+		havingValue = "true")
+public class CompiledValidationConfig {
+
+	@Bean
+	public HibernatePropertiesCustomizer compiledValidationCustomizer() {
+		return properties -> properties.put(AvailableSettings.JPA_VALIDATION_MODE, "none");
+	}
+}
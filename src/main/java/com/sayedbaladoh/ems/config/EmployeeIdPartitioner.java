@@ -0,0 +1,68 @@
+package com.sayedbaladoh.ems.config;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.kafka.clients.producer.Partitioner;
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.utils.Utils;
+
+/**
+ * Kafka partitioner for employee events keyed by employee Id.
+ * 
+ * Numeric keys are spread with <code>id mod partitions</code>, so consecutive
+ * employees land on consecutive partitions and every consumer of a group gets
+ * an even share. Other keys fall back to murmur2 like the default partitioner
+ * and records without a key go to a random available partition.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+public class EmployeeIdPartitioner implements Partitioner {
+
+	@Override
+	public int partition(String topic, Object key, byte[] keyBytes, Object value, byte[] valueBytes,
+			Cluster cluster) {
+
+		int numPartitions = cluster.partitionCountForTopic(topic);
+		if (keyBytes == null) {
+			List<PartitionInfo> available = cluster.availablePartitionsForTopic(topic);
+			return available.isEmpty() ? ThreadLocalRandom.current().nextInt(numPartitions)
+					: available.get(ThreadLocalRandom.current().nextInt(available.size())).partition();
+		}
+
+		long employeeId = parseId(keyBytes);
+		if (employeeId >= 0)
+			return (int) (employeeId % numPartitions);
+		return Utils.toPositive(Utils.murmur2(keyBytes)) % numPartitions;
+	}
+
+	@Override
+	public void configure(Map<String, ?> configs) {
+	}
+
+	@Override
+	public void close() {
+	}
+
+	/**
+	 * Parse a decimal key without allocating a String.
+	 * 
+	 * @return The Id, -1 if the key is not a non-negative decimal number.
+	 */
+	static long parseId(byte[] keyBytes) {
+
+		if (keyBytes.length == 0 || keyBytes.length > 18)
+			return -1;
+
+		long id = 0;
+		for (byte b : keyBytes) {
+			if (b < '0' || b > '9')
+				return -1;
+			id = id * 10 + (b - '0');
+		}
+		return id;
+	}
+}
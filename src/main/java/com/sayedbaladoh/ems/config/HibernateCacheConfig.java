@@ -0,0 +1,93 @@
+package com.sayedbaladoh.ems.config;
+
+import java.net.URI;
+import java.time.Duration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.sayedbaladoh.ems.model.Employee;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+
+/**
+ * Hibernate second-level cache of employees by Id and natural-id cache of
+ * employee Ids by phone number, held in bounded Ehcache heap caches with a
+ * time to live. Hibernate statistics are enabled so the Hibernate cache hit and
+ * miss counts are exported with the other metrics, and the Ehcache gets,
+ * puts, removals and evictions are exported as <code>cache.*</code>. Enabled
+ * by <code>ems.cache.enabled</code>.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Configuration
+@ConditionalOnProperty(
+		name = "ems.cache.enabled",
+		havingValue = "true")
+public class HibernateCacheConfig {
+
+	private static final String[] REGIONS = { Employee.CACHE_REGION, Employee.NATURAL_ID_CACHE_REGION };
+
+	@Value("${ems.cache.size:10000}")
+	private long size;
+
+	@Value("${ems.cache.ttl:600000}")
+	private long ttlMillis;
+
+	@Bean
+	public CacheManager employeeCacheManager() {
+
+		EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching
+				.getCachingProvider(EhcacheCachingProvider.class.getName());
+		CacheManager cacheManager = provider.getCacheManager(URI.create("urn:ems:employee-cache"),
+				new DefaultConfiguration(provider.getDefaultClassLoader()));
+		CacheConfiguration<Object, Object> configuration = CacheConfigurationBuilder
+				.newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(size))
+				.withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofMillis(ttlMillis)))
+				.build();
+		for (String region : REGIONS) {
+			if (cacheManager.getCache(region) == null)
+				cacheManager.createCache(region, Eh107Configuration.fromEhcacheCacheConfiguration(configuration));
+			cacheManager.enableStatistics(region, true);
+		}
+		return cacheManager;
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer employeeCacheCustomizer(CacheManager employeeCacheManager) {
+		return properties -> {
+			properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+			properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+			properties.put(ConfigSettings.CACHE_MANAGER, employeeCacheManager);
+			// Only the regions created above, never an unbounded default cache
+			properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+			properties.put(AvailableSettings.JPA_SHARED_CACHE_MODE, "ENABLE_SELECTIVE");
+			properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+		};
+	}
+
+	@Bean
+	public MeterBinder employeeCacheMetrics(CacheManager employeeCacheManager) {
+		return registry -> {
+			for (String region : REGIONS)
+				JCacheMetrics.monitor(registry, employeeCacheManager.getCache(region));
+		};
+	}
+}
@@ -0,0 +1,61 @@
+package com.sayedbaladoh.ems.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+
+/**
+ * Kafka consumer of the employee events feeding the read model. Every node
+ * consumes the whole topic with its own consumer group.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+@Configuration
+@ConditionalOnProperty(
+		name = "ems.read-model.enabled",
+		havingValue = "true")
+public class KafkaConsumerConfig {
+
+	@Value("${kafka.bootstrap.servers}")
+	private String bootstrapServers;
+
+	@Value("${ems.read-model.concurrency:1}")
+	private int concurrency;
+
+	@Bean
+	public Map<String, Object> readModelConsumerConfigs() {
+		Map<String, Object> configMap = new HashMap<>();
+		configMap.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+		configMap.put(ConsumerConfig.GROUP_ID_CONFIG, "ems-read-model-" + UUID.randomUUID());
+		configMap.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+		configMap.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+		configMap.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+		configMap.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+		return configMap;
+	}
+
+	@Bean
+	public ConsumerFactory<String, byte[]> readModelConsumerFactory() {
+		return new DefaultKafkaConsumerFactory<>(readModelConsumerConfigs());
+	}
+
+	@Bean
+	public ConcurrentKafkaListenerContainerFactory<String, byte[]> readModelContainerFactory() {
+		ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+		factory.setConsumerFactory(readModelConsumerFactory());
+		factory.setConcurrency(concurrency);
+		return factory;
+	}
+}
@@ -4,6 +4,7 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -14,6 +15,8 @@ import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeDeltaEvent;
+import com.sayedbaladoh.ems.service.EmployeeDeltaSerializer;
 
 @Configuration
 public class KafkaProducerConfig {
@@ -21,12 +24,68 @@ public class KafkaProducerConfig {
 	@Value("${kafka.bootstrap.servers}")
 	private String bootstrapServers;
 
+	@Value("${kafka.producer.partitioner:com.sayedbaladoh.ems.config.EmployeeIdPartitioner}")
+	private String partitionerClass;
+
+	@Value("${kafka.producer.profile:default}")
+	private String profile;
+
+	@Value("${ems.kafka.spill.enabled:false}")
+	private boolean spillEnabled;
+
+	@Value("${ems.kafka.spill.max-block:1000}")
+	private long spillMaxBlockMillis;
+
 	@Bean
 	public Map<String, Object> producerConfigs() {
 		Map<String, Object> configMap = new HashMap<>();
 		configMap.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
 		configMap.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
 		configMap.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+		configMap.put(ProducerConfig.PARTITIONER_CLASS_CONFIG, partitionerClass);
+		configMap.putAll(profileConfigs(profile));
+		// Fail fast on a full buffer or missing metadata, the event is spilled instead
+		if (spillEnabled)
+			configMap.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, spillMaxBlockMillis);
+		return configMap;
+	}
+
+	/**
+	 * Producer tuning of a profile.
+	 * 
+	 * <ul>
+	 * <li><b>throughput</b>: large lz4 compressed batches, idempotent with
+	 * <code>acks=all</code> and 5 requests in flight.</li>
+	 * <li><b>latency</b>: no linger or compression, leader only
+	 * acknowledgement.</li>
+	 * <li><b>default</b>: the Kafka client defaults.</li>
+	 * </ul>
+	 */
+	static Map<String, Object> profileConfigs(String profile) {
+
+		Map<String, Object> configMap = new HashMap<>();
+		switch (profile.toLowerCase()) {
+		case "throughput":
+			configMap.put(ProducerConfig.LINGER_MS_CONFIG, 20);
+			configMap.put(ProducerConfig.BATCH_SIZE_CONFIG, 128 * 1024);
+			configMap.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+			configMap.put(ProducerConfig.BUFFER_MEMORY_CONFIG, 64L * 1024 * 1024);
+			configMap.put(ProducerConfig.ACKS_CONFIG, "all");
+			configMap.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+			configMap.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+			break;
+		case "latency":
+			configMap.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+			configMap.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "none");
+			configMap.put(ProducerConfig.ACKS_CONFIG, "1");
+			configMap.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, false);
+			configMap.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 1);
+			break;
+		case "default":
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown Kafka producer profile: " + profile);
+		}
 		return configMap;
 	}
 
@@ -39,4 +98,28 @@ public class KafkaProducerConfig {
 	public KafkaTemplate<String, Employee> employeeKafkaTemplate() {
 		return new KafkaTemplate<>(employeeProducerFactory());
 	}
+
+	@Bean
+	public ProducerFactory<String, byte[]> rawProducerFactory() {
+		Map<String, Object> configMap = new HashMap<>(producerConfigs());
+		configMap.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+		return new DefaultKafkaProducerFactory<>(configMap);
+	}
+
+	@Bean
+	public KafkaTemplate<String, byte[]> rawKafkaTemplate() {
+		return new KafkaTemplate<>(rawProducerFactory());
+	}
+
+	@Bean
+	public ProducerFactory<String, EmployeeDeltaEvent> deltaProducerFactory() {
+		Map<String, Object> configMap = new HashMap<>(producerConfigs());
+		configMap.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, EmployeeDeltaSerializer.class);
+		return new DefaultKafkaProducerFactory<>(configMap);
+	}
+
+	@Bean
+	public KafkaTemplate<String, EmployeeDeltaEvent> deltaKafkaTemplate() {
+		return new KafkaTemplate<>(deltaProducerFactory());
+	}
 }
@@ -0,0 +1,59 @@
+package com.sayedbaladoh.ems.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.admin.AdminClientConfig;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.KafkaAdmin;
+
+/**
+ * Creates the log-compacted employee snapshot topic, which keeps the latest
+ * version of every employee keyed by Id. A deleted employee is published as a
+ * tombstone, so compaction drops it once <code>delete.retention.ms</code> has
+ * passed and a bootstrap removes it meanwhile. Enabled by
+ * <code>ems.snapshot.enabled</code>.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Configuration
+@ConditionalOnProperty(
+		name = "ems.snapshot.enabled",
+		havingValue = "true")
+public class KafkaTopicConfig {
+
+	@Value("${kafka.bootstrap.servers}")
+	private String bootstrapServers;
+
+	@Value("${kafka.topic.snapshot-name:ems-employee-snapshot}")
+	private String snapshotTopicName;
+
+	@Value("${ems.snapshot.partitions:6}")
+	private int partitions;
+
+	@Value("${ems.snapshot.replicas:1}")
+	private short replicas;
+
+	@Bean
+	public KafkaAdmin kafkaAdmin() {
+		Map<String, Object> configMap = new HashMap<>();
+		configMap.put(AdminClientConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+		return new KafkaAdmin(configMap);
+	}
+
+	@Bean
+	public NewTopic snapshotTopic() {
+		return TopicBuilder.name(snapshotTopicName)
+				.partitions(partitions)
+				.replicas(replicas)
+				.config(TopicConfig.CLEANUP_POLICY_CONFIG, TopicConfig.CLEANUP_POLICY_COMPACT)
+				.build();
+	}
+}
@@ -51,7 +51,8 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 				.permitAll()
 				.antMatchers("/api/employees/availabile/email/**", "/api/employees/availabile//phone/**")
 				.permitAll()
-				.antMatchers(HttpMethod.POST, "/api/employees")
+				.antMatchers(HttpMethod.POST, "/api/employees", "/api/employees/import",
+						"/api/employees/availability")
 				.permitAll()
 				.antMatchers(HttpMethod.PUT, url)
 				.permitAll()
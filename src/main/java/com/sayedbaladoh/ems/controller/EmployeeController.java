@@ -1,27 +1,71 @@
 package com.sayedbaladoh.ems.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.websocket.server.PathParam;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindException;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.InitBinder;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.sayedbaladoh.ems.errorhandler.BadRequestException;
 import com.sayedbaladoh.ems.errorhandler.ResourceNotFoundException;
+import com.sayedbaladoh.ems.errorhandler.ServiceUnavailableException;
+import com.sayedbaladoh.ems.model.AvailabilityCheck;
+import com.sayedbaladoh.ems.model.AvailabilityReport;
+import com.sayedbaladoh.ems.model.CursorPage;
 import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeFormat;
+import com.sayedbaladoh.ems.model.EmployeeSearch;
+import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.model.EmployeeSuggestion;
+import com.sayedbaladoh.ems.model.EmployeeSummary;
+import com.sayedbaladoh.ems.model.EmployeeView;
 import com.sayedbaladoh.ems.model.IdentityAvailability;
+import com.sayedbaladoh.ems.model.ImportReport;
+import com.sayedbaladoh.ems.model.StateChange;
+import com.sayedbaladoh.ems.model.StateChangeResult;
+import com.sayedbaladoh.ems.model.StateChangeTask;
 import com.sayedbaladoh.ems.model.StateEvent;
+import com.sayedbaladoh.ems.model.StateHistoryPage;
+import com.sayedbaladoh.ems.service.EmployeeReadModel;
 import com.sayedbaladoh.ems.service.EmployeeService;
+import com.sayedbaladoh.ems.service.EmployeeStateChangeLanes;
+import com.sayedbaladoh.ems.service.EmployeeSuggestIndex;
+import com.sayedbaladoh.ems.validator.CompiledEmployeeValidator;
 
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -40,9 +84,54 @@ import io.swagger.annotations.ApiOperation;
 @RestController
 public class EmployeeController {
 
+	private static final int EXPORT_GZIP_BUFFER_SIZE = 64 * 1024;
+
 	@Autowired
 	EmployeeService employeeService;
 
+	@Autowired(
+			required = false)
+	EmployeeStateChangeLanes stateChangeLanes;
+
+	@Autowired(
+			required = false)
+	EmployeeReadModel readModel;
+
+	@Autowired(
+			required = false)
+	EmployeeSuggestIndex suggestIndex;
+
+	@Autowired(
+			required = false)
+	CompiledEmployeeValidator compiledEmployeeValidator;
+
+	@Value("${ems.state-machine.compare-and-set:false}")
+	private boolean compareAndSet;
+
+	@Value("${ems.state-machine.bulk.max-size:1000}")
+	private int maxBulkSize;
+
+	@Value("${ems.state-history.max-page-size:100}")
+	private int maxHistoryPageSize;
+
+	@Value("${ems.listing.max-page-size:100}")
+	private int maxListingPageSize;
+
+	@Value("${ems.suggest.max-limit:50}")
+	private int maxSuggestLimit;
+
+	@Value("${ems.availability.max-size:1000}")
+	private int maxAvailabilitySize;
+
+	/**
+	 * Validate posted employees with the compiled validator when enabled.
+	 */
+	@InitBinder
+	public void initBinder(WebDataBinder binder) {
+		if (compiledEmployeeValidator != null && binder.getTarget() instanceof Employee)
+			binder.setValidator(compiledEmployeeValidator);
+	}
+
 	/**
 	 * Add a new employee.
 	 * 
@@ -59,6 +148,32 @@ public class EmployeeController {
 		return ResponseEntity.status(201).body(savedEmployee);
 	}
 
+	/**
+	 * Import employees streamed as NDJSON, one employee JSON per line, or as CSV
+	 * with a header row of the employee JSON property names. Valid rows are
+	 * inserted in batches, invalid ones are reported.
+	 * 
+	 * @param contentType
+	 *            <code>application/x-ndjson</code> or <code>text/csv</code>,
+	 *            UTF-8 unless a charset is given.
+	 * @param body
+	 *            The employee rows.
+	 * @return The number of imported and failed rows and the row errors.
+	 */
+	@ApiOperation(
+			value = "Import employees from NDJSON or CSV.",
+			response = ImportReport.class)
+	@PostMapping(
+			value = "/import",
+			consumes = { EmployeeFormat.NDJSON_VALUE, EmployeeFormat.CSV_VALUE })
+	public ImportReport importEmployees(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+			InputStream body) throws IOException {
+		MediaType mediaType = MediaType.parseMediaType(contentType);
+		InputStreamReader reader = new InputStreamReader(body,
+				mediaType.getCharset() != null ? mediaType.getCharset() : StandardCharsets.UTF_8);
+		return employeeService.importEmployees(reader, EmployeeFormat.of(mediaType));
+	}
+
 	/**
 	 * Update an existing employee.
 	 * 
@@ -67,6 +182,9 @@ public class EmployeeController {
 	 * @param employeeRequest
 	 *            A valid employee details.
 	 * @return Employee with updated details.
+	 * @throws BindException
+	 *             If the compiled validator is enabled and the employee is not
+	 *             valid, as Hibernate Validator fails the update otherwise.
 	 */
 	@ApiOperation(
 			value = "Update an existing employee.",
@@ -79,7 +197,13 @@ public class EmployeeController {
 	// dataType = "string",
 	// paramType = "header") })
 	@PutMapping("/{employeeId}")
-	public Employee editEmployee(@PathVariable Long employeeId, @RequestBody Employee employeeRequest) {
+	public Employee editEmployee(@PathVariable Long employeeId, @RequestBody Employee employeeRequest)
+			throws BindException {
+		if (compiledEmployeeValidator != null) {
+			BeanPropertyBindingResult errors = new BeanPropertyBindingResult(employeeRequest, "employee");
+			if (!compiledEmployeeValidator.validateConstraints(employeeRequest, errors))
+				throw new BindException(errors);
+		}
 		return employeeService.get(employeeId).map(employee -> {
 			employeeRequest.setId(employeeId);
 			return employeeService.edit(employeeRequest);
@@ -89,21 +213,121 @@ public class EmployeeController {
 	/**
 	 * Change the state of a given employee.
 	 * 
+	 * When asynchronous state changes are enabled, the change is queued and
+	 * <code>202 Accepted</code> is returned with the state change to poll.
+	 * 
 	 * @param employeeId
 	 *            The employee Id.
 	 * @param stateEvent
 	 *            The event to change employee state.
-	 * @return The updated employee.
+	 * @return The updated employee, or the queued state change.
 	 */
 	@ApiOperation(
 			value = "Change the state of a given employee.",
 			response = Employee.class)
 	@PatchMapping("/{employeeId}/state")
-	public Employee changeEmployeeState(@PathVariable Long employeeId, @RequestBody StateEvent stateEvent) {
-		return employeeService.get(employeeId).map(employee -> {
+	public ResponseEntity<?> changeEmployeeState(@PathVariable Long employeeId, @RequestBody StateEvent stateEvent) {
+		if (stateChangeLanes != null) {
+			if (!employeeService.exists(employeeId))
+				throw new ResourceNotFoundException("Employee", "Id", employeeId);
+
+			StateChangeTask task = stateChangeLanes.submit(employeeId, stateEvent.getEvent());
+			return ResponseEntity.accepted()
+					.location(ServletUriComponentsBuilder.fromCurrentContextPath()
+							.path("/api/employees/state-changes/{taskId}")
+							.buildAndExpand(task.getId())
+							.toUri())
+					.body(task);
+		}
+
+		if (compareAndSet)
+			return ResponseEntity.ok(employeeService.compareAndSetState(employeeId, stateEvent.getEvent())
+					.orElseThrow(() -> new ResourceNotFoundException("Employee", "Id", employeeId)));
+
+		return ResponseEntity.ok(employeeService.get(employeeId).map(employee -> {
 			employeeService.changeState(employeeId, stateEvent.getEvent());
 			return employeeService.get(employeeId).get();
-		}).orElseThrow(() -> new ResourceNotFoundException("Employee", "Id", employeeId));
+		}).orElseThrow(() -> new ResourceNotFoundException("Employee", "Id", employeeId)));
+	}
+
+	/**
+	 * Get an asynchronous state change.
+	 * 
+	 * @param taskId
+	 *            The state change Id.
+	 * @return The state change status and, once completed, the employee state.
+	 */
+	@ApiOperation(
+			value = "Get an asynchronous state change.",
+			response = StateChangeTask.class)
+	@GetMapping("/state-changes/{taskId}")
+	public StateChangeTask getStateChange(@PathVariable String taskId) {
+		return Optional.ofNullable(stateChangeLanes)
+				.flatMap(lanes -> lanes.get(taskId))
+				.orElseThrow(() -> new ResourceNotFoundException("State change", "Id", taskId));
+	}
+
+	/**
+	 * Get the state history of an employee.
+	 * 
+	 * @param employeeId
+	 *            The employee Id.
+	 * @param after
+	 *            The <code>next</code> value of the previous page, 0 for the
+	 *            first page.
+	 * @param size
+	 *            The page size.
+	 * @param asOf
+	 *            If given, only the state change in effect at this instant.
+	 * @return A page of the employee state changes, oldest first.
+	 */
+	@ApiOperation(
+			value = "Get the state history of an employee.",
+			response = StateHistoryPage.class)
+	@GetMapping("/{employeeId}/state-history")
+	public StateHistoryPage getEmployeeStateHistory(@PathVariable Long employeeId,
+			@RequestParam(
+					defaultValue = "0") Long after,
+			@RequestParam(
+					defaultValue = "20") int size,
+			@RequestParam(
+					name = "as_of",
+					required = false) @DateTimeFormat(
+							iso = ISO.DATE_TIME) Instant asOf) {
+		if (!employeeService.exists(employeeId))
+			throw new ResourceNotFoundException("Employee", "Id", employeeId);
+		if (size < 1 || size > maxHistoryPageSize)
+			throw new BadRequestException(
+					String.format("Page size must be between 1 and %d.", maxHistoryPageSize));
+
+		if (asOf != null)
+			return new StateHistoryPage(employeeService.getStateAsOf(employeeId, asOf)
+					.map(Collections::singletonList)
+					.orElseGet(Collections::emptyList), null);
+
+		return employeeService.getStateHistory(employeeId, after, size);
+	}
+
+	/**
+	 * Change the state of a list of employees.
+	 * 
+	 * @param stateChanges
+	 *            The employees Ids with the event to change each employee state.
+	 * @return The outcome of each state change.
+	 */
+	@ApiOperation(
+			value = "Change the state of a list of employees.",
+			response = StateChangeResult.class,
+			responseContainer = "List")
+	@PatchMapping("/state")
+	public List<StateChangeResult> changeEmployeesState(@RequestBody List<StateChange> stateChanges) {
+		if (stateChanges.size() > maxBulkSize)
+			throw new BadRequestException(
+					String.format("At most %d state changes are allowed per request.", maxBulkSize));
+		if (stateChanges.contains(null))
+			throw new BadRequestException("State changes must not be null.");
+
+		return employeeService.changeStates(stateChanges);
 	}
 
 	/**
@@ -135,6 +359,8 @@ public class EmployeeController {
 	 * 
 	 * @param pageable
 	 *            Query page and sort options.
+	 * @param view
+	 *            <code>full</code> employees or their <code>summary</code>.
 	 * @return A page contains list of available employees.
 	 */
 	@ApiOperation(
@@ -148,8 +374,201 @@ public class EmployeeController {
 	// dataType = "string",
 	// paramType = "header") })
 	@GetMapping()
-	public Page<Employee> getEmployees(Pageable pageable) {
-		return employeeService.getAll(pageable);
+	public Page<?> getEmployees(Pageable pageable,
+			@RequestParam(
+					defaultValue = "full") String view,
+			HttpServletResponse response) {
+		boolean summary = toView(view) == EmployeeView.SUMMARY;
+		if (readModel != null && readModel.supports(pageable.getSort())) {
+			response.setHeader(EmployeeReadModel.LAG_HEADER, String.valueOf(readModel.getLagMillis()));
+			Page<Employee> page = readModel.getAll(pageable);
+			return summary ? page.map(EmployeeSummary::of) : page;
+		}
+		return summary ? employeeService.getAllSummaries(pageable) : employeeService.getAll(pageable);
+	}
+
+	/**
+	 * Get a page of employees by cursor, in creation order. Unlike the page
+	 * listing, deep pages cost the same as the first one and no count query is
+	 * run.
+	 * 
+	 * @param after
+	 *            The <code>next</code> cursor of the previous page, empty for the
+	 *            first page.
+	 * @param size
+	 *            The page size.
+	 * @param total
+	 *            Whether to include the approximate total of employees.
+	 * @param view
+	 *            <code>full</code> employees or their <code>summary</code>.
+	 * @return A page of employees with the cursor of the next page.
+	 */
+	@ApiOperation(
+			value = "View a page of employees by cursor, in creation order.",
+			response = CursorPage.class)
+	@GetMapping(
+			params = "after")
+	public CursorPage<?> getEmployeesAfter(@RequestParam String after,
+			@RequestParam(
+					defaultValue = "20") int size,
+			@RequestParam(
+					defaultValue = "false") boolean total,
+			@RequestParam(
+					defaultValue = "full") String view) {
+		if (size < 1 || size > maxListingPageSize)
+			throw new BadRequestException(
+					String.format("Page size must be between 1 and %d.", maxListingPageSize));
+		return toView(view) == EmployeeView.SUMMARY ? employeeService.getSummariesAfter(after, size, total)
+				: employeeService.getAllAfter(after, size, total);
+	}
+
+	/**
+	 * Search the employees by state, country, position, gender and creation or
+	 * update time, in creation order. At least one filter is required; ranges
+	 * are inclusive from and exclusive to.
+	 * 
+	 * @param after
+	 *            The <code>next</code> cursor of the previous page, empty for the
+	 *            first page.
+	 * @param size
+	 *            The page size.
+	 * @return A page of the matching employees with the cursor of the next page.
+	 */
+	@ApiOperation(
+			value = "Search the employees by state, country, position, gender and creation or update time.",
+			response = CursorPage.class)
+	@GetMapping("/search")
+	public CursorPage<Employee> searchEmployees(
+			@RequestParam(
+					required = false) EmployeeState state,
+			@RequestParam(
+					name = "country_code",
+					required = false) String countryCode,
+			@RequestParam(
+					required = false) String position,
+			@RequestParam(
+					required = false) String gender,
+			@RequestParam(
+					name = "created_from",
+					required = false) @DateTimeFormat(
+							iso = ISO.DATE_TIME) Instant createdFrom,
+			@RequestParam(
+					name = "created_to",
+					required = false) @DateTimeFormat(
+							iso = ISO.DATE_TIME) Instant createdTo,
+			@RequestParam(
+					name = "updated_from",
+					required = false) @DateTimeFormat(
+							iso = ISO.DATE_TIME) Instant updatedFrom,
+			@RequestParam(
+					name = "updated_to",
+					required = false) @DateTimeFormat(
+							iso = ISO.DATE_TIME) Instant updatedTo,
+			@RequestParam(
+					defaultValue = "") String after,
+			@RequestParam(
+					defaultValue = "20") int size) {
+		if (size < 1 || size > maxListingPageSize)
+			throw new BadRequestException(
+					String.format("Page size must be between 1 and %d.", maxListingPageSize));
+
+		EmployeeSearch search = new EmployeeSearch(state, countryCode, position, gender, createdFrom, createdTo,
+				updatedFrom, updatedTo);
+		if (!search.hasFilter())
+			throw new BadRequestException("At least one search filter is required.");
+		return employeeService.search(search, after, size);
+	}
+
+	/**
+	 * Export the employees as NDJSON or CSV, in creation order. Rows are streamed
+	 * from one database cursor as they are read, so the export runs in constant
+	 * memory whatever the number of employees. The optional filters are those of
+	 * the search; the body is gzip compressed when the client accepts it.
+	 * 
+	 * @param format
+	 *            <code>ndjson</code> or <code>csv</code>.
+	 * @param view
+	 *            <code>full</code> employees or their <code>summary</code>.
+	 * @param acceptEncoding
+	 *            The encodings the client accepts.
+	 * @return The streamed employee rows.
+	 */
+	@ApiOperation(
+			value = "Export the employees as NDJSON or CSV.")
+	@GetMapping("/export")
+	public ResponseEntity<StreamingResponseBody> exportEmployees(
+			@RequestParam(
+					defaultValue = "ndjson") String format,
+			@RequestParam(
+					defaultValue = "full") String view,
+			@RequestParam(
+					required = false) EmployeeState state,
+			@RequestParam(
+					name = "country_code",
+					required = false) String countryCode,
+			@RequestParam(
+					required = false) String position,
+			@RequestParam(
+					required = false) String gender,
+			@RequestParam(
+					name = "created_from",
+					required = false) @DateTimeFormat(
+							iso = ISO.DATE_TIME) Instant createdFrom,
+			@RequestParam(
+					name = "created_to",
+					required = false) @DateTimeFormat(
+							iso = ISO.DATE_TIME) Instant createdTo,
+			@RequestParam(
+					name = "updated_from",
+					required = false) @DateTimeFormat(
+							iso = ISO.DATE_TIME) Instant updatedFrom,
+			@RequestParam(
+					name = "updated_to",
+					required = false) @DateTimeFormat(
+							iso = ISO.DATE_TIME) Instant updatedTo,
+			@RequestHeader(
+					value = HttpHeaders.ACCEPT_ENCODING,
+					required = false) String acceptEncoding) {
+		EmployeeFormat exportFormat = toFormat(format);
+		EmployeeView exportView = toView(view);
+		EmployeeSearch search = new EmployeeSearch(state, countryCode, position, gender, createdFrom, createdTo,
+				updatedFrom, updatedTo);
+		boolean gzip = acceptsGzip(acceptEncoding);
+
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+				.contentType(exportFormat.getMediaType())
+				.header(HttpHeaders.CONTENT_DISPOSITION,
+						"attachment; filename=\"employees." + exportFormat.getExtension() + "\"")
+				.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (gzip)
+			response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+		return response.body(output -> employeeService.exportEmployees(search, exportView, exportFormat,
+				gzip ? new GZIPOutputStream(output, EXPORT_GZIP_BUFFER_SIZE) : output));
+	}
+
+	/**
+	 * Suggest the employees whose first name, last name, position or email
+	 * contain every term of a partial query.
+	 * 
+	 * @param q
+	 *            The partial names, positions or emails.
+	 * @param limit
+	 *            The maximum number of employees.
+	 * @return The matching employees, term prefix matches first.
+	 */
+	@ApiOperation(
+			value = "Suggest the employees matching a partial name, position or email.",
+			response = EmployeeSuggestion.class)
+	@GetMapping("/suggest")
+	public List<EmployeeSuggestion> suggestEmployees(@RequestParam String q,
+			@RequestParam(
+					defaultValue = "10") int limit) {
+		if (suggestIndex == null)
+			throw new ServiceUnavailableException("Employee suggestions are not enabled.");
+		if (limit < 1 || limit > maxSuggestLimit)
+			throw new BadRequestException(
+					String.format("Limit must be between 1 and %d.", maxSuggestLimit));
+		return suggestIndex.suggest(q, limit);
 	}
 
 	/**
@@ -157,14 +576,29 @@ public class EmployeeController {
 	 * 
 	 * @param id
 	 *            The employee Id.
+	 * @param view
+	 *            The <code>full</code> employee or its <code>summary</code>.
 	 * @return The employee profile details.
 	 */
 	@ApiOperation(
 			value = "Get the employee profile by Id.",
 			response = Employee.class)
 	@GetMapping("/{id}")
-	public Employee getEmployeeProfile(@PathVariable(
-			value = "id") Long id) {
+	public Object getEmployeeProfile(@PathVariable(
+			value = "id") Long id,
+			@RequestParam(
+					defaultValue = "full") String view,
+			HttpServletResponse response) {
+		boolean summary = toView(view) == EmployeeView.SUMMARY;
+		if (readModel != null) {
+			response.setHeader(EmployeeReadModel.LAG_HEADER, String.valueOf(readModel.getLagMillis()));
+			Employee employee = readModel.get(id)
+					.orElseThrow(() -> new ResourceNotFoundException("Employee", "Id", id));
+			return summary ? EmployeeSummary.of(employee) : employee;
+		}
+		if (summary)
+			return employeeService.getSummary(id)
+					.orElseThrow(() -> new ResourceNotFoundException("Employee", "Id", id));
 		return employeeService.get(id)
 				.orElseThrow(() -> new ResourceNotFoundException("Employee", "Id",
 						id));
@@ -204,4 +638,79 @@ public class EmployeeController {
 		return new IdentityAvailability(isAvailable);
 	}
 
+	/**
+	 * Check the availability of many emails and phone numbers at once, with a
+	 * few <code>IN</code> queries instead of one query per value.
+	 * 
+	 * @param check
+	 *            The emails and phone numbers.
+	 * @return Whether each email and phone number is available.
+	 */
+	@ApiOperation(
+			value = "Check the availability of emails and phone numbers for new employees.",
+			response = AvailabilityReport.class)
+	@PostMapping("/availability")
+	public AvailabilityReport checkAvailability(@RequestBody AvailabilityCheck check) {
+		List<String> emails = check.getEmails() != null ? check.getEmails() : Collections.emptyList();
+		List<String> phoneNumbers = check.getPhoneNumbers() != null ? check.getPhoneNumbers()
+				: Collections.emptyList();
+		if (emails.size() + phoneNumbers.size() > maxAvailabilitySize)
+			throw new BadRequestException(
+					String.format("At most %d emails and phone numbers can be checked at once.",
+							maxAvailabilitySize));
+		if (emails.contains(null) || phoneNumbers.contains(null))
+			throw new BadRequestException("Emails and phone numbers must not be null.");
+		return employeeService.checkAvailability(emails, phoneNumbers);
+	}
+
+	/**
+	 * Whether an <code>Accept-Encoding</code> header accepts gzip: a
+	 * <code>gzip</code> coding, or else <code>*</code>, with a non-zero
+	 * q-value.
+	 */
+	static boolean acceptsGzip(String acceptEncoding) {
+
+		if (acceptEncoding == null)
+			return false;
+		Boolean any = null;
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parameters = coding.split(";");
+			String name = parameters[0].trim();
+			boolean accepted = true;
+			for (int i = 1; i < parameters.length; i++) {
+				String[] parameter = parameters[i].split("=", 2);
+				if (parameter.length == 2 && parameter[0].trim().equalsIgnoreCase("q"))
+					accepted = isPositiveQuality(parameter[1].trim());
+			}
+			if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip"))
+				return accepted;
+			if (name.equals("*"))
+				any = accepted;
+		}
+		return Boolean.TRUE.equals(any);
+	}
+
+	private static boolean isPositiveQuality(String quality) {
+		try {
+			return Double.parseDouble(quality) > 0;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	private EmployeeFormat toFormat(String format) {
+		try {
+			return EmployeeFormat.of(format);
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Unknown format: " + format + ". Use ndjson or csv.");
+		}
+	}
+
+	private EmployeeView toView(String view) {
+		try {
+			return EmployeeView.of(view);
+		} catch (IllegalArgumentException e) {
+			throw new BadRequestException("Unknown view: " + view + ". Use summary or full.");
+		}
+	}
 }
@@ -286,6 +286,15 @@ public class GlobalRestExceptionHandler extends ResponseEntityExceptionHandler {
 		if (ex instanceof ResourceNotFoundException)
 			apiError = new ApiError(HttpStatus.NOT_FOUND, ex.getLocalizedMessage(),
 					ex.getMessage());
+		else if (ex instanceof BadRequestException)
+			apiError = new ApiError(HttpStatus.BAD_REQUEST, ex.getLocalizedMessage(),
+					ex.getMessage());
+		else if (ex instanceof ConflictException)
+			apiError = new ApiError(HttpStatus.CONFLICT, ex.getLocalizedMessage(),
+					ex.getMessage());
+		else if (ex instanceof ServiceUnavailableException)
+			apiError = new ApiError(HttpStatus.SERVICE_UNAVAILABLE, ex.getLocalizedMessage(),
+					ex.getMessage());
 		else
 			apiError = new ApiError(HttpStatus.INTERNAL_SERVER_ERROR, ex.getLocalizedMessage(),
 					ex.getMessage());
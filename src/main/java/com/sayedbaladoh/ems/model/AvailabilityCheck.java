@@ -0,0 +1,30 @@
+package com.sayedbaladoh.ems.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * The emails and phone numbers to check in one availability request.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Getter
+@Setter
+public class AvailabilityCheck {
+
+	@ApiModelProperty(
+			notes = "The emails to check.")
+	private List<String> emails = new ArrayList<>();
+
+	@ApiModelProperty(
+			notes = "The phone numbers to check.")
+	@JsonProperty("phone_numbers")
+	private List<String> phoneNumbers = new ArrayList<>();
+}
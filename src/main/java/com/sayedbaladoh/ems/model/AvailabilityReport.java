@@ -0,0 +1,30 @@
+package com.sayedbaladoh.ems.model;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Whether each checked email and phone number is available for a new
+ * employee, in the order they were checked.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Getter
+@AllArgsConstructor
+public class AvailabilityReport {
+
+	@ApiModelProperty(
+			notes = "The availability of each email.")
+	private Map<String, Boolean> emails;
+
+	@ApiModelProperty(
+			notes = "The availability of each phone number.")
+	@JsonProperty("phone_numbers")
+	private Map<String, Boolean> phoneNumbers;
+}
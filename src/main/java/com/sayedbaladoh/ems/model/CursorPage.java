@@ -0,0 +1,46 @@
+package com.sayedbaladoh.ems.model;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A page of a cursor listing.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@ApiModel(
+		description = "A page of a cursor listing.")
+@Getter
+@AllArgsConstructor
+public class CursorPage<T> {
+
+	/**
+	 * The page content.
+	 */
+	@ApiModelProperty(
+			notes = "The page content.")
+	private List<T> content;
+
+	/**
+	 * The opaque <code>after</code> cursor of the next page, empty on the last
+	 * page.
+	 */
+	@ApiModelProperty(
+			notes = "The after cursor of the next page, empty on the last page.")
+	private String next;
+
+	/**
+	 * The approximate total, only when requested.
+	 */
+	@ApiModelProperty(
+			notes = "The approximate total, only when requested.")
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	private Long total;
+}
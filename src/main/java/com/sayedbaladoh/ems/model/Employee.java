@@ -2,6 +2,7 @@ package com.sayedbaladoh.ems.model;
 
 import java.util.Date;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
@@ -9,33 +10,42 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Past;
-import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Size;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.format.annotation.DateTimeFormat;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonProperty.Access;
 import com.sayedbaladoh.ems.validator.Country;
 import com.sayedbaladoh.ems.validator.EmailTaken;
 import com.sayedbaladoh.ems.validator.Gender;
 import com.sayedbaladoh.ems.validator.Number;
+import com.sayedbaladoh.ems.validator.Phone;
+import com.sayedbaladoh.ems.validator.PhoneNumbers;
 import com.sayedbaladoh.ems.validator.PhoneTaken;
 
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import io.swagger.annotations.ApiModelProperty.AccessMode;
+import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
 
 /**
  * The Employee entity. All details about the Employee.
@@ -51,17 +61,34 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "employees", uniqueConstraints = { @UniqueConstraint(columnNames = { "phone_number" }),
-		@UniqueConstraint(columnNames = { "email" }) })
+@Table(name = "employees", uniqueConstraints = { @UniqueConstraint(columnNames = { "phone_canonical" }),
+		@UniqueConstraint(columnNames = { "email" }) }, indexes = {
+				@Index(name = "idx_employees_created_at_id", columnList = "created_at, id"),
+				@Index(name = "idx_employees_state_country_created", columnList = "state, country_code, created_at"),
+				@Index(name = "idx_employees_country_created", columnList = "country_code, created_at"),
+				@Index(name = "idx_employees_position_created", columnList = "position, created_at"),
+				@Index(name = "idx_employees_gender_state", columnList = "gender, state"),
+				@Index(name = "idx_employees_updated_at", columnList = "updated_at") })
 @DynamicUpdate(true)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Employee.CACHE_REGION)
+@NaturalIdCache(region = Employee.NATURAL_ID_CACHE_REGION)
 public class Employee extends DateAudit {
 
+	/**
+	 * Second-level cache regions of employees by Id and of employee Ids by
+	 * canonical phone number, used when <code>ems.cache.enabled</code>.
+	 */
+	public static final String CACHE_REGION = "employees";
+	public static final String NATURAL_ID_CACHE_REGION = "employees-by-phone-number";
+
 	/**
 	 * The employee Id.
 	 */
 	@ApiModelProperty(notes = "The generated employee Id.", hidden = true, accessMode = AccessMode.READ_ONLY)
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employees_seq")
+	@SequenceGenerator(name = "employees_seq", sequenceName = "employees_seq", allocationSize = 50)
 	private Long id;
 
 	/**
@@ -84,41 +111,14 @@ public class Employee extends DateAudit {
 	@Column(name = "last_name", length = 255, nullable = false)
 	private String lastName;
 
-	/*
-	 * Validate International Phone Numbers.
-	 * 
-	 * To validate international phone numbers. The numbers should start with a plus
-	 * sign, followed by the country code and national number.
-	 * 
-	 * ^ # Assert position at the beginning of the string.
-	 * 
-	 * \+ # Match a literal "+" character.
-	 * 
-	 * (?: # Group but don't capture:
-	 * 
-	 * [0-9] # Match a digit.
-	 * 
-	 * \\s # Match a space character
-	 * 
-	 * ? # between zero and one time.
-	 * 
-	 * ) # End the noncapturing group.
-	 * 
-	 * {6,14} # Repeat the group between 6 and 14 times.
-	 * 
-	 * [0-9] # Match a digit.
-	 * 
-	 * $ # Assert position at the end of the string.
-	 * 
-	 */
 	/**
-	 * The employee phone number.
+	 * The employee phone number, as entered: an optional <code>+</code>
+	 * followed by digits, 10 to 15 characters long.
 	 */
 	@ApiModelProperty(notes = "The employee phone number.")
-	@NaturalId
 	@NotBlank(message = "{required}")
 	@Number
-	@Pattern(regexp = "^\\+?(?:[0-9]\\s?){6,14}[0-9]$", message = "{phone.invalid}")
+	@Phone
 	@Size(min = 10, message = "{min}")
 	@Size(max = 15, message = "{max}")
 	@PhoneTaken
@@ -126,6 +126,17 @@ public class Employee extends DateAudit {
 	@JsonProperty("phone_number")
 	private String phoneNumber;
 
+	/**
+	 * The employee phone number in canonical form, see {@link PhoneNumbers}.
+	 * Set with the phone number; phone numbers are looked up and unique by it.
+	 */
+	@ApiModelProperty(hidden = true)
+	@NaturalId
+	@JsonIgnore
+	@Setter(AccessLevel.NONE)
+	@Column(name = "phone_canonical", length = 16, nullable = false)
+	private String phoneCanonical;
+
 	/**
 	 * The employee email.
 	 */
@@ -197,6 +208,11 @@ public class Employee extends DateAudit {
 	@Enumerated(EnumType.STRING)
 	private EmployeeState state;
 
+	public void setPhoneNumber(String phoneNumber) {
+		this.phoneNumber = phoneNumber;
+		this.phoneCanonical = PhoneNumbers.canonicalize(phoneNumber);
+	}
+
 	@Override
 	public String toString() {
 		return "Employee [id=" + id + ", firstName=" + firstName + ", lastName=" + lastName + ", phoneNumber="
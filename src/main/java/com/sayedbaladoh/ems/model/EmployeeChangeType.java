@@ -0,0 +1,28 @@
+package com.sayedbaladoh.ems.model;
+
+/**
+ * Employee change types, sent as the event type header of the employee
+ * events. A <code>DELETED</code> event is a tombstone: a <code>null</code>
+ * value keyed by the employee Id.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+public enum EmployeeChangeType {
+	ADDED, UPDATED, STATE_CHANGED, DELETED;
+
+	/**
+	 * Get the change that led an employee to the given state.
+	 * 
+	 * @param state
+	 *            The employee state after the change.
+	 * @return The change type.
+	 */
+	public static EmployeeChangeType of(EmployeeState state) {
+		if (state == EmployeeState.ADDED)
+			return ADDED;
+		if (state == EmployeeState.UPDATED)
+			return UPDATED;
+		return STATE_CHANGED;
+	}
+}
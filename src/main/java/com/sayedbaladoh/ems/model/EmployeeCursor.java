@@ -0,0 +1,54 @@
+package com.sayedbaladoh.ems.model;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Position of an employee in the <code>(created_at, id)</code> order of the
+ * cursor listing, encoded as an opaque URL-safe string.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Getter
+@AllArgsConstructor
+public class EmployeeCursor {
+
+	// seconds + nanos + id
+	private static final int SIZE = 8 + 4 + 8;
+
+	private final Instant createdAt;
+	private final Long id;
+
+	public static EmployeeCursor of(Employee employee) {
+		return new EmployeeCursor(employee.getCreatedAt(), employee.getId());
+	}
+
+	public static EmployeeCursor of(EmployeeSummary summary) {
+		return new EmployeeCursor(summary.getCreatedAt(), summary.getId());
+	}
+
+	public String encode() {
+		ByteBuffer buffer = ByteBuffer.allocate(SIZE)
+				.putLong(createdAt.getEpochSecond())
+				.putInt(createdAt.getNano())
+				.putLong(id);
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             If the cursor is malformed.
+	 */
+	public static EmployeeCursor decode(String cursor) {
+		byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+		if (bytes.length != SIZE)
+			throw new IllegalArgumentException("Invalid cursor length: " + bytes.length);
+		ByteBuffer buffer = ByteBuffer.wrap(bytes);
+		return new EmployeeCursor(Instant.ofEpochSecond(buffer.getLong(), buffer.getInt()), buffer.getLong());
+	}
+}
@@ -0,0 +1,48 @@
+package com.sayedbaladoh.ems.model;
+
+import java.util.Collections;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * A compact employee event carrying the employee Id, the change type, the new
+ * state and only the fields that changed.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class EmployeeDeltaEvent {
+
+	public static final int VERSION = 1;
+
+	private final Long employeeId;
+	private final EmployeeChangeType type;
+	private final EmployeeState state;
+	private final long timestamp;
+	private final Map<EmployeeField, String> changes;
+
+	/**
+	 * Build the delta event of an employee change.
+	 * 
+	 * @param employee
+	 *            The employee after the change.
+	 * @param before
+	 *            The field values before the change, <code>null</code> to send
+	 *            every field of an added or updated employee.
+	 * @return The delta event, without fields for a state change.
+	 */
+	public static EmployeeDeltaEvent of(Employee employee, Map<EmployeeField, String> before) {
+
+		EmployeeChangeType type = EmployeeChangeType.of(employee.getState());
+		Map<EmployeeField, String> changes = type == EmployeeChangeType.STATE_CHANGED ? Collections.emptyMap()
+				: EmployeeField.changes(before, employee);
+		return new EmployeeDeltaEvent(employee.getId(), type, employee.getState(), System.currentTimeMillis(),
+				changes);
+	}
+}
@@ -0,0 +1,91 @@
+package com.sayedbaladoh.ems.model;
+
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Employee fields carried by the delta events. The ordinal is the field tag in
+ * the binary encoding, so new fields must only be appended.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+public enum EmployeeField {
+	FIRST_NAME(Employee::getFirstName, Employee::setFirstName),
+	LAST_NAME(Employee::getLastName, Employee::setLastName),
+	PHONE_NUMBER(Employee::getPhoneNumber, Employee::setPhoneNumber),
+	EMAIL(Employee::getEmail, Employee::setEmail),
+	BIRTH_DATE(employee -> employee.getBirthDate() == null ? null
+			: String.valueOf(employee.getBirthDate().getTime()),
+			(employee, value) -> employee.setBirthDate(value == null ? null : new Date(Long.parseLong(value)))),
+	GENDER(Employee::getGender, Employee::setGender),
+	COUNTRY_CODE(Employee::getCountryCode, Employee::setCountryCode),
+	POSITION(Employee::getPosition, Employee::setPosition),
+	CONTRACT_INFORMATION(Employee::getContractInformation, Employee::setContractInformation);
+
+	private static final EmployeeField[] VALUES = values();
+
+	private final Function<Employee, String> accessor;
+	private final BiConsumer<Employee, String> mutator;
+
+	EmployeeField(Function<Employee, String> accessor, BiConsumer<Employee, String> mutator) {
+		this.accessor = accessor;
+		this.mutator = mutator;
+	}
+
+	/**
+	 * Get the field value of an employee, dates as epoch milliseconds.
+	 */
+	public String get(Employee employee) {
+		return accessor.apply(employee);
+	}
+
+	/**
+	 * Set the field value of an employee, dates as epoch milliseconds.
+	 */
+	public void set(Employee employee, String value) {
+		mutator.accept(employee, value);
+	}
+
+	/**
+	 * Get the field with the given tag.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             If the tag is unknown.
+	 */
+	public static EmployeeField ofTag(int tag) {
+		if (tag < 0 || tag >= VALUES.length)
+			throw new IllegalArgumentException("Unknown employee field tag: " + tag);
+		return VALUES[tag];
+	}
+
+	/**
+	 * Snapshot the field values of an employee.
+	 */
+	public static Map<EmployeeField, String> valuesOf(Employee employee) {
+
+		Map<EmployeeField, String> values = new EnumMap<>(EmployeeField.class);
+		for (EmployeeField field : VALUES)
+			values.put(field, field.get(employee));
+		return values;
+	}
+
+	/**
+	 * Get the fields of an employee that differ from a previous snapshot. Without
+	 * a snapshot every non-null field is returned.
+	 */
+	public static Map<EmployeeField, String> changes(Map<EmployeeField, String> before, Employee after) {
+
+		Map<EmployeeField, String> changes = new EnumMap<>(EmployeeField.class);
+		for (EmployeeField field : VALUES) {
+			String value = field.get(after);
+			if (before == null ? value != null : !Objects.equals(before.get(field), value))
+				changes.put(field, value);
+		}
+		return changes;
+	}
+}
@@ -0,0 +1,62 @@
+package com.sayedbaladoh.ems.model;
+
+import org.springframework.http.MediaType;
+
+/**
+ * The formats accepted by the employee import and written by the export.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+public enum EmployeeFormat {
+
+	/**
+	 * One employee JSON object per line, as accepted by
+	 * <code>POST /api/employees</code>.
+	 */
+	NDJSON(EmployeeFormat.NDJSON_VALUE),
+	/**
+	 * Comma-separated values with a header row of the employee JSON property
+	 * names, such as <code>first_name</code> and <code>phone_number</code>.
+	 */
+	CSV(EmployeeFormat.CSV_VALUE);
+
+	public static final String NDJSON_VALUE = "application/x-ndjson";
+	public static final String CSV_VALUE = "text/csv";
+
+	private final MediaType mediaType;
+
+	EmployeeFormat(String mediaType) {
+		this.mediaType = MediaType.parseMediaType(mediaType);
+	}
+
+	public MediaType getMediaType() {
+		return mediaType;
+	}
+
+	/**
+	 * The file name extension, <code>ndjson</code> or <code>csv</code>.
+	 */
+	public String getExtension() {
+		return name().toLowerCase();
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             If there is no such format.
+	 */
+	public static EmployeeFormat of(String format) {
+		return valueOf(format.trim().toUpperCase());
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             If no format has this media type.
+	 */
+	public static EmployeeFormat of(MediaType mediaType) {
+		for (EmployeeFormat format : values())
+			if (format.mediaType.isCompatibleWith(mediaType))
+				return format;
+		throw new IllegalArgumentException("Unsupported media type: " + mediaType);
+	}
+}
@@ -0,0 +1,29 @@
+package com.sayedbaladoh.ems.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The employee columns that must be unique, as loaded into the uniqueness
+ * index.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Getter
+@AllArgsConstructor
+public class EmployeeIdentity {
+
+	/**
+	 * The JPQL select clause of the identity, with <code>e</code> as the
+	 * employee alias.
+	 */
+	public static final String SELECT = "select new com.sayedbaladoh.ems.model.EmployeeIdentity("
+			+ "e.id, e.email, e.phoneCanonical)";
+
+	private Long id;
+
+	private String email;
+
+	private String phoneCanonical;
+}
@@ -0,0 +1,48 @@
+package com.sayedbaladoh.ems.model;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Employee search filters. Unset filters are not applied; range bounds are
+ * inclusive from and exclusive to.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeSearch {
+
+	private EmployeeState state;
+
+	private String countryCode;
+
+	private String position;
+
+	private String gender;
+
+	private Instant createdFrom;
+
+	private Instant createdTo;
+
+	private Instant updatedFrom;
+
+	private Instant updatedTo;
+
+	/**
+	 * Whether at least one filter is set.
+	 */
+	public boolean hasFilter() {
+		return state != null || countryCode != null || position != null || gender != null || createdFrom != null
+				|| createdTo != null || updatedFrom != null || updatedTo != null;
+	}
+}
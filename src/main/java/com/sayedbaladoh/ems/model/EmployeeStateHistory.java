@@ -0,0 +1,121 @@
+package com.sayedbaladoh.ems.model;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.Immutable;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The Employee State History entity. One append-only row per employee state
+ * change.
+ * 
+ * Indexed by employee and Id for keyset paging, and by employee and change
+ * time for as-of-date lookups.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+@ApiModel(
+		description = "An employee state change.")
+@Entity
+@Immutable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+		name = "employee_state_history",
+		indexes = {
+				@Index(
+						name = "idx_state_history_employee_id",
+						columnList = "employee_id, id"),
+				@Index(
+						name = "idx_state_history_employee_changed_at",
+						columnList = "employee_id, changed_at") })
+public class EmployeeStateHistory {
+
+	/**
+	 * The state change Id.
+	 */
+	@ApiModelProperty(
+			notes = "The state change Id.")
+	@Id
+	@GeneratedValue(
+			strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	/**
+	 * The employee Id.
+	 */
+	@ApiModelProperty(
+			notes = "The employee Id.")
+	@JsonProperty("employee_id")
+	@Column(
+			name = "employee_id",
+			nullable = false)
+	private Long employeeId;
+
+	/**
+	 * The employee state before the change, empty when the employee is added or
+	 * the previous state is unknown.
+	 */
+	@ApiModelProperty(
+			notes = "The employee state before the change.")
+	@JsonProperty("from_state")
+	@Enumerated(EnumType.STRING)
+	@Column(
+			name = "from_state",
+			length = 15)
+	private EmployeeState fromState;
+
+	/**
+	 * The employee state after the change.
+	 */
+	@ApiModelProperty(
+			notes = "The employee state after the change.")
+	@JsonProperty("to_state")
+	@Enumerated(EnumType.STRING)
+	@Column(
+			name = "to_state",
+			length = 15,
+			nullable = false)
+	private EmployeeState toState;
+
+	/**
+	 * The event that changed the state, empty for add and edit.
+	 */
+	@ApiModelProperty(
+			notes = "The event that changed the state.")
+	@Enumerated(EnumType.STRING)
+	@Column(length = 15)
+	private EmployeeEvent event;
+
+	/**
+	 * When the state is changed.
+	 */
+	@ApiModelProperty(
+			notes = "When the state is changed.")
+	@JsonProperty("changed_at")
+	@Column(
+			name = "changed_at",
+			nullable = false)
+	private Instant changedAt;
+}
@@ -0,0 +1,56 @@
+package com.sayedbaladoh.ems.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The searchable employee columns, as kept by the suggestion index and
+ * returned by <code>GET /api/employees/suggest</code>.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@ApiModel(
+		description = "Employee suggestion.")
+@Getter
+@AllArgsConstructor
+public class EmployeeSuggestion {
+
+	/**
+	 * The JPQL select clause of the suggestion, with <code>e</code> as the
+	 * employee alias.
+	 */
+	public static final String SELECT = "select new com.sayedbaladoh.ems.model.EmployeeSuggestion("
+			+ "e.id, e.firstName, e.lastName, e.email, e.position)";
+
+	@ApiModelProperty(
+			notes = "The employee Id.")
+	private Long id;
+
+	@ApiModelProperty(
+			notes = "The employee first name.")
+	@JsonProperty("first_name")
+	private String firstName;
+
+	@ApiModelProperty(
+			notes = "The employee last name.")
+	@JsonProperty("last_name")
+	private String lastName;
+
+	@ApiModelProperty(
+			notes = "The employee email.")
+	private String email;
+
+	@ApiModelProperty(
+			notes = "The employee position.")
+	private String position;
+
+	public static EmployeeSuggestion of(Employee employee) {
+		return new EmployeeSuggestion(employee.getId(), employee.getFirstName(), employee.getLastName(),
+				employee.getEmail(), employee.getPosition());
+	}
+}
@@ -0,0 +1,73 @@
+package com.sayedbaladoh.ems.model;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The employee columns a listing needs, selected by a JPQL constructor
+ * expression. Summaries are plain values, never managed by the persistence
+ * context.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@ApiModel(
+		description = "Employee summary.")
+@Getter
+@AllArgsConstructor
+public class EmployeeSummary {
+
+	/**
+	 * The JPQL select clause of the summary, with <code>e</code> as the employee
+	 * alias.
+	 */
+	public static final String SELECT = "select new com.sayedbaladoh.ems.model.EmployeeSummary("
+			+ "e.id, e.firstName, e.lastName, e.email, e.phoneNumber, e.position, e.state, e.createdAt)";
+
+	@ApiModelProperty(
+			notes = "The employee Id.")
+	private Long id;
+
+	@ApiModelProperty(
+			notes = "The employee first name.")
+	@JsonProperty("first_name")
+	private String firstName;
+
+	@ApiModelProperty(
+			notes = "The employee last name.")
+	@JsonProperty("last_name")
+	private String lastName;
+
+	@ApiModelProperty(
+			notes = "The employee email.")
+	private String email;
+
+	@ApiModelProperty(
+			notes = "The employee phone number.")
+	@JsonProperty("phone_number")
+	private String phoneNumber;
+
+	@ApiModelProperty(
+			notes = "The employee position.")
+	private String position;
+
+	@ApiModelProperty(
+			notes = "The employee current state.")
+	private EmployeeState state;
+
+	@ApiModelProperty(
+			notes = "When the employee was added.")
+	private Instant createdAt;
+
+	public static EmployeeSummary of(Employee employee) {
+		return new EmployeeSummary(employee.getId(), employee.getFirstName(), employee.getLastName(),
+				employee.getEmail(), employee.getPhoneNumber(), employee.getPosition(), employee.getState(),
+				employee.getCreatedAt());
+	}
+}
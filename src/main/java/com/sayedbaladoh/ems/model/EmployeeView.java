@@ -0,0 +1,31 @@
+package com.sayedbaladoh.ems.model;
+
+import io.swagger.annotations.ApiModel;
+
+/**
+ * Employee views of the read endpoints.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@ApiModel(
+		description = "Employee views.")
+public enum EmployeeView {
+
+	/**
+	 * The {@link EmployeeSummary} columns only.
+	 */
+	SUMMARY,
+	/**
+	 * The whole employee.
+	 */
+	FULL;
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             If there is no such view.
+	 */
+	public static EmployeeView of(String view) {
+		return valueOf(view.trim().toUpperCase());
+	}
+}
@@ -0,0 +1,69 @@
+package com.sayedbaladoh.ems.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The outcome of an employee import. Rows are numbered from 1, not counting
+ * the CSV header.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Getter
+public class ImportReport {
+
+	private long rows;
+
+	private long imported;
+
+	private long failed;
+
+	private long elapsedMillis;
+
+	/**
+	 * The errors of the failed rows, at most <code>ems.import.max-errors</code>.
+	 */
+	private final List<RowError> errors = new ArrayList<>();
+
+	public void imported(int count) {
+		rows += count;
+		imported += count;
+	}
+
+	/**
+	 * Record a failed row with all its errors.
+	 */
+	public void failed(List<RowError> rowErrors, int maxErrors) {
+		rows++;
+		failed++;
+		for (RowError error : rowErrors)
+			if (errors.size() < maxErrors)
+				errors.add(error);
+	}
+
+	public void setElapsedMillis(long elapsedMillis) {
+		this.elapsedMillis = elapsedMillis;
+	}
+
+	/**
+	 * An error of an imported row.
+	 */
+	@Getter
+	@AllArgsConstructor
+	public static class RowError {
+
+		private long row;
+
+		/**
+		 * The JSON property name of the invalid field, <code>null</code> if the
+		 * error is not about one field.
+		 */
+		private String field;
+
+		private String message;
+	}
+}
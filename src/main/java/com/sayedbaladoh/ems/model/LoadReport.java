@@ -0,0 +1,67 @@
+package com.sayedbaladoh.ems.model;
+
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Throughput and latency of a load generator run.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Getter
+@AllArgsConstructor
+public class LoadReport {
+
+	/**
+	 * Whether the run is still in progress.
+	 */
+	private boolean running;
+
+	/**
+	 * The target rate, in operations per second.
+	 */
+	private int rate;
+
+	private int threads;
+
+	private long elapsedMillis;
+
+	/**
+	 * The achieved rate of all operations, in operations per second.
+	 */
+	private double throughput;
+
+	/**
+	 * The statistics by operation.
+	 */
+	private Map<String, OperationReport> operations;
+
+	/**
+	 * Statistics of one operation. Latencies are in milliseconds, measured from
+	 * the time the operation was due, so a slow service shows as latency rather
+	 * than as a lower rate.
+	 */
+	@Getter
+	@AllArgsConstructor
+	public static class OperationReport {
+
+		private long count;
+
+		private long errors;
+
+		private double throughput;
+
+		private double mean;
+
+		private double p50;
+
+		private double p90;
+
+		private double p99;
+
+		private double max;
+	}
+}
@@ -0,0 +1,83 @@
+package com.sayedbaladoh.ems.model;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.Immutable;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The Outbox Event entity. An employee event written in the same transaction
+ * as the employee row and deleted once relayed to Kafka.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+@Entity
+@Immutable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+		name = "outbox_events")
+public class OutboxEvent {
+
+	/**
+	 * Allocated from a pooled sequence, so outbox rows are inserted in JDBC
+	 * batches with their employees and the relay still reads them in Id order.
+	 */
+	@Id
+	@GeneratedValue(
+			strategy = GenerationType.SEQUENCE,
+			generator = "outbox_events_seq")
+	@SequenceGenerator(
+			name = "outbox_events_seq",
+			sequenceName = "outbox_events_seq",
+			allocationSize = 50)
+	private Long id;
+
+	@Column(
+			name = "aggregate_id")
+	private Long aggregateId;
+
+	@Column(
+			nullable = false)
+	private String topic;
+
+	@Enumerated(EnumType.STRING)
+	@Column(
+			name = "event_type")
+	private EmployeeChangeType eventType;
+
+	/**
+	 * Whether the payload is the employee JSON, rather than a delta event.
+	 */
+	@Column(
+			nullable = false)
+	private boolean json;
+
+	@Lob
+	@Column(
+			nullable = false)
+	private byte[] payload;
+
+	@Column(
+			name = "created_at",
+			nullable = false)
+	private Instant createdAt;
+}
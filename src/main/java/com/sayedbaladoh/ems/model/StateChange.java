@@ -0,0 +1,24 @@
+package com.sayedbaladoh.ems.model;
+
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class StateChange {
+
+	/**
+	 * The employee Id.
+	 */
+	@ApiModelProperty(
+			notes = "The employee Id.")
+	private Long id;
+
+	/**
+	 * The event to change the employee state.
+	 */
+	@ApiModelProperty(
+			notes = "The event to change the employee state.")
+	private EmployeeEvent event;
+}
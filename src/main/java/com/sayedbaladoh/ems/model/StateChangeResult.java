@@ -0,0 +1,83 @@
+package com.sayedbaladoh.ems.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The outcome of one item of a bulk state change.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+@ApiModel(
+		description = "The outcome of one item of a bulk state change.")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StateChangeResult {
+
+	/**
+	 * The employee Id.
+	 */
+	@ApiModelProperty(
+			notes = "The employee Id.")
+	private Long id;
+
+	/**
+	 * The requested event.
+	 */
+	@ApiModelProperty(
+			notes = "The requested event.")
+	private EmployeeEvent event;
+
+	/**
+	 * The employee state before the event.
+	 */
+	@ApiModelProperty(
+			notes = "The employee state before the event.")
+	@JsonProperty("previous_state")
+	private EmployeeState previousState;
+
+	/**
+	 * The employee state after the event.
+	 */
+	@ApiModelProperty(
+			notes = "The employee state after the event.")
+	private EmployeeState state;
+
+	/**
+	 * The outcome of the state change.
+	 */
+	@ApiModelProperty(
+			notes = "The outcome of the state change.")
+	private Outcome outcome;
+
+	/**
+	 * Bulk state change outcomes.
+	 */
+	public enum Outcome {
+		/**
+		 * The state is changed.
+		 */
+		APPLIED,
+		/**
+		 * No employee with the given Id.
+		 */
+		NOT_FOUND,
+		/**
+		 * The event is not accepted in the employee current state.
+		 */
+		INVALID_TRANSITION,
+		/**
+		 * The employee state was changed concurrently.
+		 */
+		CONFLICT
+	}
+}
@@ -0,0 +1,113 @@
+package com.sayedbaladoh.ems.model;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Getter;
+
+/**
+ * An asynchronous employee state change, polled by its Id until it is
+ * completed or failed.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+@ApiModel(
+		description = "An asynchronous employee state change.")
+@Getter
+public class StateChangeTask {
+
+	/**
+	 * The state change Id.
+	 */
+	@ApiModelProperty(
+			notes = "The state change Id.")
+	private final String id;
+
+	/**
+	 * The employee Id.
+	 */
+	@ApiModelProperty(
+			notes = "The employee Id.")
+	@JsonProperty("employee_id")
+	private final Long employeeId;
+
+	/**
+	 * The event to change the employee state.
+	 */
+	@ApiModelProperty(
+			notes = "The event to change the employee state.")
+	private final EmployeeEvent event;
+
+	/**
+	 * When the state change is accepted.
+	 */
+	@ApiModelProperty(
+			notes = "When the state change is accepted.")
+	@JsonProperty("submitted_at")
+	private final Instant submittedAt;
+
+	/**
+	 * The processing status.
+	 */
+	@ApiModelProperty(
+			notes = "The processing status.")
+	private volatile Status status;
+
+	/**
+	 * The employee state after the event, once completed.
+	 */
+	@ApiModelProperty(
+			notes = "The employee state after the event, once completed.")
+	private volatile EmployeeState state;
+
+	/**
+	 * The failure reason, once failed.
+	 */
+	@ApiModelProperty(
+			notes = "The failure reason, once failed.")
+	private volatile String error;
+
+	/**
+	 * When the state change is completed or failed.
+	 */
+	@ApiModelProperty(
+			notes = "When the state change is completed or failed.")
+	@JsonProperty("completed_at")
+	private volatile Instant completedAt;
+
+	public StateChangeTask(Long employeeId, EmployeeEvent event) {
+		this.id = UUID.randomUUID().toString();
+		this.employeeId = employeeId;
+		this.event = event;
+		this.submittedAt = Instant.now();
+		this.status = Status.PENDING;
+	}
+
+	public void running() {
+		status = Status.RUNNING;
+	}
+
+	public void completed(EmployeeState state) {
+		this.state = state;
+		this.completedAt = Instant.now();
+		this.status = Status.COMPLETED;
+	}
+
+	public void failed(String error) {
+		this.error = error;
+		this.completedAt = Instant.now();
+		this.status = Status.FAILED;
+	}
+
+	/**
+	 * State change processing status.
+	 */
+	public enum Status {
+		PENDING, RUNNING, COMPLETED, FAILED
+	}
+}
@@ -0,0 +1,35 @@
+package com.sayedbaladoh.ems.model;
+
+import java.util.List;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * A page of employee state changes.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+@ApiModel(
+		description = "A page of employee state changes.")
+@Getter
+@AllArgsConstructor
+public class StateHistoryPage {
+
+	/**
+	 * The state changes, oldest first.
+	 */
+	@ApiModelProperty(
+			notes = "The state changes, oldest first.")
+	private List<EmployeeStateHistory> content;
+
+	/**
+	 * The <code>after</code> value of the next page, empty on the last page.
+	 */
+	@ApiModelProperty(
+			notes = "The after value of the next page, empty on the last page.")
+	private Long next;
+}
@@ -0,0 +1,117 @@
+package com.sayedbaladoh.ems.repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeSearch;
+import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.model.EmployeeSummary;
+import com.sayedbaladoh.ems.repository.EmployeeSearchRepository.SearchSql;
+
+/**
+ * Employee Export Repository reads every employee matching the search filters
+ * through one forward-only JDBC cursor, in <code>(created_at, id)</code>
+ * order. Rows are fetched <code>ems.export.fetch-size</code> at a time and
+ * handed over one by one, never collected, and are not managed by the
+ * persistence context. The read runs in a read-only transaction so drivers
+ * that only stream inside a transaction, such as PostgreSQL, honour the fetch
+ * size.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Repository
+public class EmployeeExportRepository {
+
+	private static final String EMPLOYEE_COLUMNS = "id, first_name, last_name, email, phone_number, birth_date, "
+			+ "gender, country_code, position, contract_information, state, created_at, updated_at";
+	private static final String SUMMARY_COLUMNS = "id, first_name, last_name, email, phone_number, position, "
+			+ "state, created_at";
+
+	private final NamedParameterJdbcTemplate jdbcTemplate;
+
+	public EmployeeExportRepository(DataSource dataSource,
+			@Value("${ems.export.fetch-size:1000}") int fetchSize) {
+
+		JdbcTemplate template = new JdbcTemplate(dataSource);
+		template.setFetchSize(fetchSize);
+		this.jdbcTemplate = new NamedParameterJdbcTemplate(template);
+	}
+
+	/**
+	 * Read the employees matching the filters, without their passwords.
+	 *
+	 * @param search
+	 *            The filters, none set for all employees.
+	 * @param consumer
+	 *            Receives the employees in <code>(created_at, id)</code> order.
+	 */
+	@Transactional(
+			readOnly = true)
+	public void export(EmployeeSearch search, Consumer<Employee> consumer) {
+
+		SearchSql sql = EmployeeSearchRepository.toSql(EMPLOYEE_COLUMNS, search, null);
+		jdbcTemplate.query(sql.getSql(), sql.getParameters(),
+				(RowCallbackHandler) rs -> consumer.accept(toEmployee(rs)));
+	}
+
+	/**
+	 * Read the summaries of the employees matching the filters.
+	 *
+	 * @param search
+	 *            The filters, none set for all employees.
+	 * @param consumer
+	 *            Receives the summaries in <code>(created_at, id)</code> order.
+	 */
+	@Transactional(
+			readOnly = true)
+	public void exportSummaries(EmployeeSearch search, Consumer<EmployeeSummary> consumer) {
+
+		SearchSql sql = EmployeeSearchRepository.toSql(SUMMARY_COLUMNS, search, null);
+		jdbcTemplate.query(sql.getSql(), sql.getParameters(),
+				(RowCallbackHandler) rs -> consumer.accept(toSummary(rs)));
+	}
+
+	private static EmployeeSummary toSummary(ResultSet rs) throws SQLException {
+		return new EmployeeSummary(rs.getLong("id"), rs.getString("first_name"), rs.getString("last_name"),
+				rs.getString("email"), rs.getString("phone_number"), rs.getString("position"),
+				toState(rs), rs.getTimestamp("created_at").toInstant());
+	}
+
+	private static Employee toEmployee(ResultSet rs) throws SQLException {
+
+		Employee employee = new Employee();
+		employee.setId(rs.getLong("id"));
+		employee.setFirstName(rs.getString("first_name"));
+		employee.setLastName(rs.getString("last_name"));
+		employee.setEmail(rs.getString("email"));
+		employee.setPhoneNumber(rs.getString("phone_number"));
+		employee.setBirthDate(rs.getTimestamp("birth_date"));
+		employee.setGender(rs.getString("gender"));
+		employee.setCountryCode(rs.getString("country_code"));
+		employee.setPosition(rs.getString("position"));
+		employee.setContractInformation(rs.getString("contract_information"));
+		employee.setState(toState(rs));
+		employee.setCreatedAt(rs.getTimestamp("created_at").toInstant());
+		Timestamp updatedAt = rs.getTimestamp("updated_at");
+		employee.setUpdatedAt(updatedAt == null ? null : updatedAt.toInstant());
+		return employee;
+	}
+
+	private static EmployeeState toState(ResultSet rs) throws SQLException {
+		String state = rs.getString("state");
+		return state == null ? null : EmployeeState.valueOf(state);
+	}
+}
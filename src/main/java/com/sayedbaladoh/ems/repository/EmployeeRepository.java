@@ -1,11 +1,21 @@
 package com.sayedbaladoh.ems.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeIdentity;
+import com.sayedbaladoh.ems.model.EmployeeSuggestion;
+import com.sayedbaladoh.ems.model.EmployeeSummary;
 
 /**
  * Employee Repository extends <code>JpaRepository</code> provides JPA related
@@ -22,4 +32,72 @@ public interface EmployeeRepository extends JpaRepository<Employee, Long> {
 	Boolean existsByEmail(String email);
 
 	public Optional<Employee> findByEmail(String email);
+
+	/**
+	 * The given emails that employees have.
+	 */
+	@Query("select e.email from Employee e where e.email in :emails")
+	List<String> findEmailsIn(@Param("emails") Collection<String> emails);
+
+	/**
+	 * The given canonical phone numbers that employees have.
+	 */
+	@Query("select e.phoneCanonical from Employee e where e.phoneCanonical in :phoneCanonicals")
+	List<String> findPhoneCanonicalsIn(@Param("phoneCanonicals") Collection<String> phoneCanonicals);
+
+	/**
+	 * First page of the cursor listing, in <code>(created_at, id)</code> order.
+	 * Returns a list, so no count query is run.
+	 */
+	List<Employee> findByOrderByCreatedAtAscIdAsc(Pageable pageable);
+
+	/**
+	 * Next page of the cursor listing: the employees after the given
+	 * <code>(created_at, id)</code> position. The leading
+	 * <code>created_at &gt;=</code> bound lets the database seek on the
+	 * <code>(created_at, id)</code> index instead of scanning.
+	 */
+	@Query("select e from Employee e where e.createdAt >= :createdAt"
+			+ " and (e.createdAt > :createdAt or e.id > :id) order by e.createdAt asc, e.id asc")
+	List<Employee> findPageAfter(@Param("createdAt") Instant createdAt, @Param("id") Long id, Pageable pageable);
+
+	/**
+	 * Page of employee summaries, selecting only the summary columns.
+	 */
+	@Query(
+			value = EmployeeSummary.SELECT + " from Employee e",
+			countQuery = "select count(e) from Employee e")
+	Page<EmployeeSummary> findSummaries(Pageable pageable);
+
+	@Query(EmployeeSummary.SELECT + " from Employee e where e.id = :id")
+	Optional<EmployeeSummary> findSummaryById(@Param("id") Long id);
+
+	/**
+	 * First page of the cursor listing of employee summaries.
+	 */
+	@Query(EmployeeSummary.SELECT + " from Employee e order by e.createdAt asc, e.id asc")
+	List<EmployeeSummary> findSummaryPage(Pageable pageable);
+
+	/**
+	 * Next page of the cursor listing of employee summaries, see
+	 * {@link #findPageAfter(Instant, Long, Pageable)}.
+	 */
+	@Query(EmployeeSummary.SELECT + " from Employee e where e.createdAt >= :createdAt"
+			+ " and (e.createdAt > :createdAt or e.id > :id) order by e.createdAt asc, e.id asc")
+	List<EmployeeSummary> findSummaryPageAfter(@Param("createdAt") Instant createdAt, @Param("id") Long id,
+			Pageable pageable);
+
+	/**
+	 * Page of the searchable employee columns after the given Id, in Id order,
+	 * to load the suggestion index.
+	 */
+	@Query(EmployeeSuggestion.SELECT + " from Employee e where e.id > :id order by e.id asc")
+	List<EmployeeSuggestion> findSuggestionsAfter(@Param("id") Long id, Pageable pageable);
+
+	/**
+	 * Page of the unique employee columns after the given Id, in Id order, to
+	 * load the uniqueness index.
+	 */
+	@Query(EmployeeIdentity.SELECT + " from Employee e where e.id > :id order by e.id asc")
+	List<EmployeeIdentity> findIdentitiesAfter(@Param("id") Long id, Pageable pageable);
 }
@@ -0,0 +1,121 @@
+package com.sayedbaladoh.ems.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+
+import org.springframework.stereotype.Repository;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeCursor;
+import com.sayedbaladoh.ems.model.EmployeeSearch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Employee Search Repository runs the filtered employee search as SQL built
+ * from the set filters only, so every filter combination is a plain
+ * conjunction the database can answer from the composite indexes of the
+ * <code>employees</code> table. Results are paged by a
+ * <code>(created_at, id)</code> cursor.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Repository
+public class EmployeeSearchRepository {
+
+	private static final String ALL_COLUMNS = "*";
+	private static final String ORDER_BY = " ORDER BY created_at, id";
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	/**
+	 * Find the employees matching the filters.
+	 *
+	 * @param search
+	 *            The filters.
+	 * @param after
+	 *            The position to continue after, <code>null</code> for the first
+	 *            page.
+	 * @param size
+	 *            The maximum number of employees.
+	 * @return The employees in <code>(created_at, id)</code> order.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<Employee> search(EmployeeSearch search, EmployeeCursor after, int size) {
+
+		SearchSql sql = toSql(search, after);
+		Query query = entityManager.createNativeQuery(sql.getSql(), Employee.class);
+		sql.getParameters().forEach(query::setParameter);
+		return query.setMaxResults(size).getResultList();
+	}
+
+	/**
+	 * Build the search SQL with named parameters.
+	 */
+	static SearchSql toSql(EmployeeSearch search, EmployeeCursor after) {
+		return toSql(ALL_COLUMNS, search, after);
+	}
+
+	/**
+	 * Build the search SQL of some columns with named parameters.
+	 */
+	static SearchSql toSql(String columns, EmployeeSearch search, EmployeeCursor after) {
+
+		StringBuilder where = new StringBuilder();
+		Map<String, Object> parameters = new LinkedHashMap<>();
+		if (search.getState() != null)
+			and(where, parameters, "state = :state", "state", search.getState().name());
+		if (search.getCountryCode() != null)
+			and(where, parameters, "country_code = :countryCode", "countryCode", search.getCountryCode());
+		if (search.getPosition() != null)
+			and(where, parameters, "position = :position", "position", search.getPosition());
+		if (search.getGender() != null)
+			and(where, parameters, "gender = :gender", "gender", search.getGender());
+		if (search.getCreatedFrom() != null)
+			and(where, parameters, "created_at >= :createdFrom", "createdFrom", timestamp(search.getCreatedFrom()));
+		if (search.getCreatedTo() != null)
+			and(where, parameters, "created_at < :createdTo", "createdTo", timestamp(search.getCreatedTo()));
+		if (search.getUpdatedFrom() != null)
+			and(where, parameters, "updated_at >= :updatedFrom", "updatedFrom", timestamp(search.getUpdatedFrom()));
+		if (search.getUpdatedTo() != null)
+			and(where, parameters, "updated_at < :updatedTo", "updatedTo", timestamp(search.getUpdatedTo()));
+		if (after != null) {
+			and(where, parameters, "created_at >= :afterCreatedAt AND (created_at > :afterCreatedAt OR id > :afterId)",
+					"afterCreatedAt", timestamp(after.getCreatedAt()));
+			parameters.put("afterId", after.getId());
+		}
+
+		return new SearchSql("SELECT " + columns + " FROM employees" + where + ORDER_BY, parameters);
+	}
+
+	private static void and(StringBuilder where, Map<String, Object> parameters, String condition, String name,
+			Object value) {
+		where.append(where.length() == 0 ? " WHERE " : " AND ").append(condition);
+		parameters.put(name, value);
+	}
+
+	private static Timestamp timestamp(Instant instant) {
+		return Timestamp.from(instant);
+	}
+
+	/**
+	 * A search statement and its named parameters.
+	 */
+	@Getter
+	@AllArgsConstructor
+	static class SearchSql {
+
+		private final String sql;
+		private final Map<String, Object> parameters;
+	}
+}
@@ -0,0 +1,28 @@
+package com.sayedbaladoh.ems.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.sayedbaladoh.ems.model.EmployeeStateHistory;
+
+/**
+ * Employee State History Repository provides keyset paged and as-of-date
+ * queries over the employee state changes.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+@Repository
+public interface EmployeeStateHistoryRepository extends JpaRepository<EmployeeStateHistory, Long> {
+
+	List<EmployeeStateHistory> findByEmployeeIdAndIdGreaterThanOrderByIdAsc(Long employeeId, Long afterId,
+			Pageable pageable);
+
+	Optional<EmployeeStateHistory> findFirstByEmployeeIdAndChangedAtLessThanEqualOrderByChangedAtDescIdDesc(
+			Long employeeId, Instant asOf);
+}
@@ -0,0 +1,194 @@
+package com.sayedbaladoh.ems.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.model.EmployeeStateHistory;
+import com.sayedbaladoh.ems.model.StateChangeResult;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Employee State Repository provides plain JDBC access to the employees state
+ * column, for state changes that do not need to load the whole entity.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+@Repository
+@RequiredArgsConstructor
+public class EmployeeStateJdbcRepository {
+
+	private static final String SELECT_STATES = "SELECT id, state FROM employees WHERE id IN (:ids)";
+	private static final String COMPARE_AND_SET_STATE = "UPDATE employees SET state = ?, updated_at = ? WHERE id = ? AND state = ?";
+	private static final String INSERT_STATE_HISTORY = "INSERT INTO employee_state_history (employee_id, from_state, to_state, event, changed_at) VALUES (?, ?, ?, ?, ?)";
+	private static final int IN_CHUNK_SIZE = 500;
+
+	private final JdbcTemplate jdbcTemplate;
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+	private final EntityManagerFactory entityManagerFactory;
+
+	/**
+	 * Find the current state of the given employees.
+	 * 
+	 * @param ids
+	 *            The employees Ids.
+	 * @return The current state by employee Id, missing employees are not
+	 *         included.
+	 */
+	public Map<Long, EmployeeState> findStates(Collection<Long> ids) {
+
+		Map<Long, EmployeeState> states = new HashMap<>();
+		List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+		distinctIds.remove(null);
+		for (int from = 0; from < distinctIds.size(); from += IN_CHUNK_SIZE) {
+			List<Long> chunk = distinctIds.subList(from, Math.min(from + IN_CHUNK_SIZE, distinctIds.size()));
+			namedParameterJdbcTemplate.query(SELECT_STATES, Collections.singletonMap("ids", chunk),
+					(RowCallbackHandler) rs -> {
+						String state = rs.getString("state");
+						states.put(rs.getLong("id"), state == null ? null : EmployeeState.valueOf(state));
+					});
+		}
+		return states;
+	}
+
+	/**
+	 * Change the state of an employee only if it is still in the expected state.
+	 * 
+	 * @param id
+	 *            The employee Id.
+	 * @param expected
+	 *            The state the employee is expected to be in.
+	 * @param target
+	 *            The new state.
+	 * @param updatedAt
+	 *            The update time.
+	 * @return <code>true</code> if the state is changed, <code>false</code> if
+	 *         the employee is missing or its state was changed concurrently.
+	 */
+	public boolean compareAndSetState(Long id, EmployeeState expected, EmployeeState target, Instant updatedAt) {
+		boolean changed = jdbcTemplate.update(COMPARE_AND_SET_STATE, target.name(), Timestamp.from(updatedAt), id,
+				expected.name()) == 1;
+		if (changed)
+			evict(Collections.singletonList(id));
+		return changed;
+	}
+
+	/**
+	 * Change the state of the given employees in one JDBC batch. Each row is only
+	 * updated if it is still in the expected previous state.
+	 * 
+	 * @param changes
+	 *            The state changes, with the expected previous state and the new
+	 *            state.
+	 * @param updatedAt
+	 *            The update time.
+	 * @return The update count of each change, <code>0</code> if the employee
+	 *         state was changed concurrently.
+	 */
+	public int[] compareAndSetStates(List<StateChangeResult> changes, Instant updatedAt) {
+
+		if (changes.isEmpty())
+			return new int[0];
+
+		Timestamp timestamp = Timestamp.from(updatedAt);
+		int[] updateCounts = jdbcTemplate.batchUpdate(COMPARE_AND_SET_STATE, new BatchPreparedStatementSetter() {
+
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				StateChangeResult change = changes.get(i);
+				ps.setString(1, change.getState().name());
+				ps.setTimestamp(2, timestamp);
+				ps.setLong(3, change.getId());
+				ps.setString(4, change.getPreviousState().name());
+			}
+
+			@Override
+			public int getBatchSize() {
+				return changes.size();
+			}
+		});
+		List<Long> ids = new ArrayList<>(changes.size());
+		changes.forEach(change -> ids.add(change.getId()));
+		evict(ids);
+		return updateCounts;
+	}
+
+	/**
+	 * Append state changes to the employee state history in one JDBC batch.
+	 * 
+	 * @param history
+	 *            The state changes to append.
+	 */
+	public void appendHistory(List<EmployeeStateHistory> history) {
+
+		if (history.isEmpty())
+			return;
+
+		jdbcTemplate.batchUpdate(INSERT_STATE_HISTORY, new BatchPreparedStatementSetter() {
+
+			@Override
+			public void setValues(PreparedStatement ps, int i) throws SQLException {
+				EmployeeStateHistory change = history.get(i);
+				ps.setLong(1, change.getEmployeeId());
+				if (change.getFromState() == null)
+					ps.setNull(2, Types.VARCHAR);
+				else
+					ps.setString(2, change.getFromState().name());
+				ps.setString(3, change.getToState().name());
+				if (change.getEvent() == null)
+					ps.setNull(4, Types.VARCHAR);
+				else
+					ps.setString(4, change.getEvent().name());
+				ps.setTimestamp(5, Timestamp.from(change.getChangedAt()));
+			}
+
+			@Override
+			public int getBatchSize() {
+				return history.size();
+			}
+		});
+	}
+
+	/**
+	 * Evict employees changed behind Hibernate's back from the second-level
+	 * cache, now so the current transaction reloads them, and again on commit so
+	 * a concurrent load of the previous row does not stay cached.
+	 */
+	private void evict(List<Long> ids) {
+
+		Cache cache = entityManagerFactory.getCache();
+		ids.forEach(id -> cache.evict(Employee.class, id));
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					ids.forEach(id -> cache.evict(Employee.class, id));
+				}
+			});
+		}
+	}
+}
@@ -0,0 +1,21 @@
+package com.sayedbaladoh.ems.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.sayedbaladoh.ems.model.OutboxEvent;
+
+/**
+ * Outbox Event Repository reads the pending outbox events in insertion order.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+	List<OutboxEvent> findByOrderByIdAsc(Pageable pageable);
+}
@@ -0,0 +1,120 @@
+package com.sayedbaladoh.ems.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter of strings.
+ *
+ * A value sets <code>k</code> bits of a bit array, chosen by double hashing of
+ * one 64-bit hash of its characters; bits are set with a CAS on their word, so
+ * values can be added concurrently with lookups. A value whose bits are not
+ * all set was never added; a value whose bits are all set probably was. Values
+ * cannot be removed.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+class BloomFilter {
+
+	private static final double LN2 = Math.log(2);
+
+	private final AtomicLongArray words;
+	private final long bits;
+	private final int hashes;
+	private final AtomicLong setBits = new AtomicLong();
+
+	/**
+	 * @param expectedInsertions
+	 *            The number of values the filter is sized for.
+	 * @param falsePositiveProbability
+	 *            The probability that a value never added is reported as
+	 *            possibly added once the expected number of values is added.
+	 */
+	BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+
+		if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1)
+			throw new IllegalArgumentException("Invalid false positive probability: " + falsePositiveProbability);
+		long insertions = Math.max(1, expectedInsertions);
+		long size = (long) Math.ceil(-insertions * Math.log(falsePositiveProbability) / (LN2 * LN2));
+		long wordCount = Math.max(1, (size + 63) >>> 6);
+		if (wordCount > Integer.MAX_VALUE)
+			throw new IllegalArgumentException("Bloom filter too large for " + expectedInsertions + " values");
+
+		this.words = new AtomicLongArray((int) wordCount);
+		this.bits = wordCount << 6;
+		this.hashes = Math.max(1, (int) Math.round((double) bits / insertions * LN2));
+	}
+
+	void put(CharSequence value) {
+
+		long hash = hash(value);
+		long step = mix(hash) | 1;
+		for (int i = 0; i < hashes; i++, hash += step) {
+			long bit = Math.floorMod(hash, bits);
+			int word = (int) (bit >>> 6);
+			long mask = 1L << bit;
+			long current;
+			do {
+				current = words.get(word);
+				if ((current & mask) != 0)
+					break;
+			} while (!words.compareAndSet(word, current, current | mask));
+			if ((current & mask) == 0)
+				setBits.incrementAndGet();
+		}
+	}
+
+	/**
+	 * @return <code>false</code> if the value was never added,
+	 *         <code>true</code> if it probably was.
+	 */
+	boolean mightContain(CharSequence value) {
+
+		long hash = hash(value);
+		long step = mix(hash) | 1;
+		for (int i = 0; i < hashes; i++, hash += step) {
+			long bit = Math.floorMod(hash, bits);
+			if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * The probability that a value never added is reported as possibly added,
+	 * estimated from the share of set bits.
+	 */
+	double getExpectedFalsePositiveProbability() {
+		return Math.pow((double) setBits.get() / bits, hashes);
+	}
+
+	long getSizeInBytes() {
+		return (long) words.length() * Long.BYTES;
+	}
+
+	int getHashes() {
+		return hashes;
+	}
+
+	/**
+	 * FNV-1a over the characters, finished by the MurmurHash3 64-bit mix.
+	 */
+	private static long hash(CharSequence value) {
+		long hash = 0xcbf29ce484222325L;
+		for (int i = 0; i < value.length(); i++) {
+			hash ^= value.charAt(i);
+			hash *= 0x100000001b3L;
+		}
+		return mix(hash);
+	}
+
+	private static long mix(long hash) {
+		hash ^= hash >>> 33;
+		hash *= 0xff51afd7ed558ccdL;
+		hash ^= hash >>> 33;
+		hash *= 0xc4ceb9fe1a85ec53L;
+		hash ^= hash >>> 33;
+		return hash;
+	}
+}
@@ -0,0 +1,183 @@
+package com.sayedbaladoh.ems.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+import com.sayedbaladoh.ems.model.EmployeeChangeType;
+import com.sayedbaladoh.ems.model.EmployeeDeltaEvent;
+import com.sayedbaladoh.ems.model.EmployeeField;
+import com.sayedbaladoh.ems.model.EmployeeState;
+
+/**
+ * Binary codec of the employee delta events.
+ * 
+ * <pre>
+ * version        1 byte
+ * employee Id    varlong, Id + 1 (0 if none)
+ * change type    1 byte, ordinal
+ * state          1 byte, ordinal + 1 (0 if none)
+ * timestamp      varlong, epoch milliseconds
+ * field count    varint
+ * fields         tag (1 byte), varint length + 1 (0 if null), UTF-8 bytes
+ * </pre>
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+public final class EmployeeDeltaCodec {
+
+	private static final EmployeeChangeType[] CHANGE_TYPES = EmployeeChangeType.values();
+	private static final EmployeeState[] STATES = EmployeeState.values();
+
+	private EmployeeDeltaCodec() {
+	}
+
+	/**
+	 * Encode a delta event.
+	 * 
+	 * @param event
+	 *            The delta event.
+	 * @return The encoded event.
+	 */
+	public static byte[] encode(EmployeeDeltaEvent event) {
+
+		int capacity = 1 + 10 + 1 + 1 + 10 + 5;
+		for (String value : event.getChanges().values())
+			capacity += 1 + 5 + (value == null ? 0 : value.length() * 3);
+
+		byte[] buffer = new byte[capacity];
+		int position = 0;
+		buffer[position++] = (byte) EmployeeDeltaEvent.VERSION;
+		position = writeVarLong(buffer, position, event.getEmployeeId() == null ? 0 : event.getEmployeeId() + 1);
+		buffer[position++] = (byte) event.getType().ordinal();
+		buffer[position++] = (byte) (event.getState() == null ? 0 : event.getState().ordinal() + 1);
+		position = writeVarLong(buffer, position, event.getTimestamp());
+		position = writeVarLong(buffer, position, event.getChanges().size());
+		for (Map.Entry<EmployeeField, String> change : event.getChanges().entrySet()) {
+			buffer[position++] = (byte) change.getKey().ordinal();
+			position = writeString(buffer, position, change.getValue());
+		}
+		return position == buffer.length ? buffer : Arrays.copyOf(buffer, position);
+	}
+
+	/**
+	 * Decode a delta event.
+	 * 
+	 * @param data
+	 *            The encoded event.
+	 * @return The delta event.
+	 * @throws IllegalArgumentException
+	 *             If the data is not a supported delta event.
+	 */
+	public static EmployeeDeltaEvent decode(byte[] data) {
+
+		try {
+			int[] position = { 0 };
+			int version = data[position[0]++];
+			if (version != EmployeeDeltaEvent.VERSION)
+				throw new IllegalArgumentException("Unsupported delta event version: " + version);
+
+			long id = readVarLong(data, position);
+			EmployeeChangeType type = CHANGE_TYPES[data[position[0]++]];
+			int state = data[position[0]++];
+			long timestamp = readVarLong(data, position);
+			int count = (int) readVarLong(data, position);
+
+			Map<EmployeeField, String> changes = count == 0 ? Collections.emptyMap()
+					: new EnumMap<>(EmployeeField.class);
+			for (int i = 0; i < count; i++) {
+				EmployeeField field = EmployeeField.ofTag(data[position[0]++]);
+				int length = (int) readVarLong(data, position);
+				String value = null;
+				if (length > 0) {
+					value = new String(data, position[0], length - 1, StandardCharsets.UTF_8);
+					position[0] += length - 1;
+				}
+				changes.put(field, value);
+			}
+			return new EmployeeDeltaEvent(id == 0 ? null : id - 1, type, state == 0 ? null : STATES[state - 1],
+					timestamp, changes);
+		} catch (ArrayIndexOutOfBoundsException e) {
+			throw new IllegalArgumentException("Truncated or corrupt delta event.", e);
+		}
+	}
+
+	private static int writeVarLong(byte[] buffer, int position, long value) {
+		while ((value & ~0x7FL) != 0) {
+			buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		buffer[position++] = (byte) value;
+		return position;
+	}
+
+	private static long readVarLong(byte[] data, int[] position) {
+		long value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = data[position[0]++];
+			value |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+		return value;
+	}
+
+	/**
+	 * Write a length prefixed UTF-8 string. The length is written after the
+	 * bytes are known, so the string is encoded in place without a copy.
+	 */
+	private static int writeString(byte[] buffer, int position, String value) {
+
+		if (value == null) {
+			buffer[position++] = 0;
+			return position;
+		}
+
+		int maxLength = value.length() * 3;
+		int prefix = varLongSize(maxLength + 1);
+		int start = position + prefix;
+		int end = start;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c < 0x80) {
+				buffer[end++] = (byte) c;
+			} else if (c < 0x800) {
+				buffer[end++] = (byte) (0xC0 | (c >> 6));
+				buffer[end++] = (byte) (0x80 | (c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+					&& Character.isLowSurrogate(value.charAt(i + 1))) {
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				buffer[end++] = (byte) (0xF0 | (codePoint >> 18));
+				buffer[end++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+				buffer[end++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+				buffer[end++] = (byte) (0x80 | (codePoint & 0x3F));
+			} else if (Character.isSurrogate(c)) {
+				buffer[end++] = '?';
+			} else {
+				buffer[end++] = (byte) (0xE0 | (c >> 12));
+				buffer[end++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+				buffer[end++] = (byte) (0x80 | (c & 0x3F));
+			}
+		}
+
+		int length = end - start;
+		int actualPrefix = varLongSize(length + 1);
+		if (actualPrefix < prefix)
+			System.arraycopy(buffer, start, buffer, position + actualPrefix, length);
+		writeVarLong(buffer, position, length + 1);
+		return position + actualPrefix + length;
+	}
+
+	private static int varLongSize(long value) {
+		int size = 1;
+		while ((value & ~0x7FL) != 0) {
+			size++;
+			value >>>= 7;
+		}
+		return size;
+	}
+}
@@ -0,0 +1,19 @@
+package com.sayedbaladoh.ems.service;
+
+import org.apache.kafka.common.serialization.Deserializer;
+
+import com.sayedbaladoh.ems.model.EmployeeDeltaEvent;
+
+/**
+ * Kafka deserializer of the employee delta events.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+public class EmployeeDeltaDeserializer implements Deserializer<EmployeeDeltaEvent> {
+
+	@Override
+	public EmployeeDeltaEvent deserialize(String topic, byte[] data) {
+		return data == null ? null : EmployeeDeltaCodec.decode(data);
+	}
+}
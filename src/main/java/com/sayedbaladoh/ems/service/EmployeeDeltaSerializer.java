@@ -0,0 +1,19 @@
+package com.sayedbaladoh.ems.service;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+import com.sayedbaladoh.ems.model.EmployeeDeltaEvent;
+
+/**
+ * Kafka serializer of the employee delta events.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+public class EmployeeDeltaSerializer implements Serializer<EmployeeDeltaEvent> {
+
+	@Override
+	public byte[] serialize(String topic, EmployeeDeltaEvent data) {
+		return data == null ? null : EmployeeDeltaCodec.encode(data);
+	}
+}
@@ -0,0 +1,22 @@
+package com.sayedbaladoh.ems.service;
+
+/**
+ * Receives the employee events published by the
+ * {@link InProcessEventPublisher}, on its dispatcher thread.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@FunctionalInterface
+public interface EmployeeEventListener {
+
+	/**
+	 * @param topicName
+	 *            The topic the event was published to.
+	 * @param event
+	 *            An {@link com.sayedbaladoh.ems.model.Employee}, an
+	 *            {@link com.sayedbaladoh.ems.model.EmployeeDeltaEvent}, or the
+	 *            <code>Long</code> Id of a deleted employee.
+	 */
+	void onEvent(String topicName, Object event);
+}
@@ -0,0 +1,54 @@
+package com.sayedbaladoh.ems.service;
+
+import java.util.List;
+
+import org.springframework.util.concurrent.ListenableFuture;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeChangeType;
+import com.sayedbaladoh.ems.model.EmployeeDeltaEvent;
+
+/**
+ * Publishes the employee events handed over by the {@link EmployeeOutbox}, and
+ * the already serialized ones relayed by the {@link OutboxRelay} and the
+ * {@link KafkaSpillReplayer}.
+ *
+ * Selected by <code>ems.events.publisher</code>: <code>kafka</code> (the
+ * {@link KafkaProducerService}) or <code>in-process</code> (the
+ * {@link InProcessEventPublisher}, to exercise the write path without a
+ * broker).
+ *
+ * A deleted employee is published as a tombstone, see
+ * {@link com.sayedbaladoh.ems.model.EmployeeChangeType#DELETED}.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+public interface EmployeeEventPublisher {
+
+	void publish(Employee employee, String topicName);
+
+	void publishAll(List<Employee> employees, String topicName);
+
+	void publishDelta(EmployeeDeltaEvent event, String topicName);
+
+	void publishDeltas(List<EmployeeDeltaEvent> events, String topicName);
+
+	void publishDelete(Long employeeId, String topicName);
+
+	/**
+	 * Publish an already serialized employee event.
+	 * 
+	 * @param json
+	 *            Whether the payload is the employee JSON, rather than a delta
+	 *            event. Ignored for a deleted employee, sent as a tombstone.
+	 * @return Completed once the event is delivered.
+	 */
+	ListenableFuture<?> publishRaw(Long employeeId, EmployeeChangeType changeType, byte[] payload,
+			String topicName, boolean json);
+
+	/**
+	 * Deliver the events published so far, blocking until sent.
+	 */
+	void flush();
+}
@@ -0,0 +1,264 @@
+package com.sayedbaladoh.ems.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeFormat;
+import com.sayedbaladoh.ems.model.EmployeeSearch;
+import com.sayedbaladoh.ems.model.EmployeeSummary;
+import com.sayedbaladoh.ems.model.EmployeeView;
+import com.sayedbaladoh.ems.repository.EmployeeExportRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exports employees as NDJSON or CSV.
+ *
+ * Employees are read through one database cursor and written one at a time to
+ * a buffered stream, so the memory used does not depend on the number of
+ * employees. NDJSON lines are the employee JSON of the read endpoints; CSV
+ * columns are named after the same JSON properties. Passwords are never
+ * exported, and the import requires one, so a <code>password</code> column or
+ * property must be added to an export before it is imported again.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Slf4j
+@Component
+public class EmployeeExporter {
+
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	private static final Map<String, Function<Employee, Object>> EMPLOYEE_COLUMNS = new LinkedHashMap<>();
+	private static final Map<String, Function<EmployeeSummary, Object>> SUMMARY_COLUMNS = new LinkedHashMap<>();
+
+	static {
+		EMPLOYEE_COLUMNS.put("id", Employee::getId);
+		EMPLOYEE_COLUMNS.put("first_name", Employee::getFirstName);
+		EMPLOYEE_COLUMNS.put("last_name", Employee::getLastName);
+		EMPLOYEE_COLUMNS.put("email", Employee::getEmail);
+		EMPLOYEE_COLUMNS.put("phone_number", Employee::getPhoneNumber);
+		EMPLOYEE_COLUMNS.put("birth_date", Employee::getBirthDate);
+		EMPLOYEE_COLUMNS.put("gender", Employee::getGender);
+		EMPLOYEE_COLUMNS.put("country_code", Employee::getCountryCode);
+		EMPLOYEE_COLUMNS.put("position", Employee::getPosition);
+		EMPLOYEE_COLUMNS.put("contract_information", Employee::getContractInformation);
+		EMPLOYEE_COLUMNS.put("state", Employee::getState);
+		EMPLOYEE_COLUMNS.put("createdAt", Employee::getCreatedAt);
+		EMPLOYEE_COLUMNS.put("updatedAt", Employee::getUpdatedAt);
+
+		SUMMARY_COLUMNS.put("id", EmployeeSummary::getId);
+		SUMMARY_COLUMNS.put("first_name", EmployeeSummary::getFirstName);
+		SUMMARY_COLUMNS.put("last_name", EmployeeSummary::getLastName);
+		SUMMARY_COLUMNS.put("email", EmployeeSummary::getEmail);
+		SUMMARY_COLUMNS.put("phone_number", EmployeeSummary::getPhoneNumber);
+		SUMMARY_COLUMNS.put("position", EmployeeSummary::getPosition);
+		SUMMARY_COLUMNS.put("state", EmployeeSummary::getState);
+		SUMMARY_COLUMNS.put("createdAt", EmployeeSummary::getCreatedAt);
+	}
+
+	@Autowired
+	private EmployeeExportRepository exportRepository;
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	/**
+	 * Export the employees matching the filters, in creation order.
+	 *
+	 * @param search
+	 *            The filters, none set for all employees.
+	 * @param view
+	 *            <code>full</code> employees or their <code>summary</code>.
+	 * @param format
+	 *            The format of the rows.
+	 * @param output
+	 *            Receives the rows, UTF-8 encoded; closed at the end.
+	 * @return The number of exported employees.
+	 * @throws IOException
+	 *             If the rows cannot be written.
+	 */
+	public long exportEmployees(EmployeeSearch search, EmployeeView view, EmployeeFormat format,
+			OutputStream output) throws IOException {
+
+		long startedAt = System.currentTimeMillis();
+		long exported;
+		try (Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8),
+				BUFFER_SIZE)) {
+			if (view == EmployeeView.SUMMARY) {
+				RowWriter<EmployeeSummary> rowWriter = format == EmployeeFormat.CSV
+						? new CsvRowWriter<>(writer, SUMMARY_COLUMNS)
+						: new NdjsonRowWriter<>(writer);
+				exported = export(rowWriter, rows -> exportRepository.exportSummaries(search, rows));
+			} else {
+				RowWriter<Employee> rowWriter = format == EmployeeFormat.CSV
+						? new CsvRowWriter<>(writer, EMPLOYEE_COLUMNS)
+						: new NdjsonRowWriter<>(writer);
+				exported = export(rowWriter, rows -> exportRepository.export(search, rows));
+			}
+		}
+
+		log.info("Exported {} employees as {} in {} ms", exported, format, System.currentTimeMillis() - startedAt);
+		return exported;
+	}
+
+	private <T> long export(RowWriter<T> rowWriter, RowSource<T> source) throws IOException {
+
+		long[] exported = { 0 };
+		rowWriter.start();
+		try {
+			source.read(row -> {
+				try {
+					rowWriter.write(row);
+					exported[0]++;
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		rowWriter.finish();
+		return exported[0];
+	}
+
+	/**
+	 * Reads the rows of an export.
+	 */
+	private interface RowSource<T> {
+
+		void read(Consumer<T> rows);
+	}
+
+	/**
+	 * Writes the rows of an export one at a time.
+	 */
+	private interface RowWriter<T> {
+
+		void start() throws IOException;
+
+		void write(T row) throws IOException;
+
+		void finish() throws IOException;
+	}
+
+	/**
+	 * One JSON object per line, written by the application object mapper.
+	 * Values are not flushed one by one; the buffered writer flushes when full.
+	 */
+	private final class NdjsonRowWriter<T> implements RowWriter<T> {
+
+		private final JsonGenerator generator;
+		private final ObjectWriter json;
+
+		NdjsonRowWriter(Writer writer) throws IOException {
+			this.generator = objectMapper.getFactory().createGenerator(writer);
+			this.generator.setRootValueSeparator(null);
+			this.json = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		}
+
+		@Override
+		public void start() {
+		}
+
+		@Override
+		public void write(T row) throws IOException {
+			json.writeValue(generator, row);
+			generator.writeRaw('\n');
+		}
+
+		@Override
+		public void finish() throws IOException {
+			generator.flush();
+		}
+	}
+
+	/**
+	 * RFC 4180 CSV with a header row of the JSON property names. Fields holding
+	 * commas, quotes or line breaks are double-quoted, dates are ISO-8601 and
+	 * birth dates are <code>yyyy-MM-dd</code>, as the import reads them.
+	 */
+	private static final class CsvRowWriter<T> implements RowWriter<T> {
+
+		private final Writer writer;
+		private final Map<String, Function<T, Object>> columns;
+
+		CsvRowWriter(Writer writer, Map<String, Function<T, Object>> columns) {
+			this.writer = writer;
+			this.columns = columns;
+		}
+
+		@Override
+		public void start() throws IOException {
+			writeRecord(columns.keySet(), name -> name);
+		}
+
+		@Override
+		public void write(T row) throws IOException {
+			writeRecord(columns.values(), value -> value.apply(row));
+		}
+
+		@Override
+		public void finish() {
+		}
+
+		private <C> void writeRecord(Iterable<C> fields, Function<C, Object> value) throws IOException {
+			boolean first = true;
+			for (C field : fields) {
+				if (!first)
+					writer.write(',');
+				first = false;
+				writeField(value.apply(field));
+			}
+			writer.write("\r\n");
+		}
+
+		private void writeField(Object value) throws IOException {
+			if (value == null)
+				return;
+			String text = value instanceof Date
+					? ((Date) value).toInstant().atOffset(ZoneOffset.UTC).toLocalDate().toString()
+					: value.toString();
+			if (!needsQuotes(text)) {
+				writer.write(text);
+				return;
+			}
+			writer.write('"');
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				if (c == '"')
+					writer.write('"');
+				writer.write(c);
+			}
+			writer.write('"');
+		}
+
+		private static boolean needsQuotes(String text) {
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				if (c == ',' || c == '"' || c == '\n' || c == '\r')
+					return true;
+			}
+			return false;
+		}
+	}
+}
@@ -0,0 +1,465 @@
+package com.sayedbaladoh.ems.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorFactory;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeFormat;
+import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.model.ImportReport;
+import com.sayedbaladoh.ems.model.ImportReport.RowError;
+import com.sayedbaladoh.ems.repository.EmployeeRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Imports employees streamed as NDJSON or CSV.
+ *
+ * Rows are read one at a time, validated like <code>POST /api/employees</code>
+ * and checked for phone numbers and emails repeated within the import. The
+ * <code>@EmailTaken</code> and <code>@PhoneTaken</code> checks are left out of
+ * the row validation: the emails and phone numbers of a chunk are looked up
+ * together by two IN queries instead of two queries per row. Valid rows are
+ * inserted in chunks of <code>ems.import.batch-size</code>, one
+ * transaction per chunk: the passwords of a chunk are hashed in parallel, then
+ * the employees are persisted, which Hibernate sends as JDBC batches of
+ * <code>hibernate.jdbc.batch_size</code> inserts, and published as one batch
+ * of events. If a chunk fails, its rows are retried one per transaction so
+ * only the failing rows are reported.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Slf4j
+@Component
+public class EmployeeImporter {
+
+	@PersistenceContext
+	private EntityManager entityManager;
+	@Autowired
+	private ValidatorFactory validatorFactory;
+	@Autowired
+	private MessageSource messageSource;
+	@Autowired
+	private EmployeeRepository employeeRepository;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private PasswordEncoder crypt;
+	@Autowired
+	private EmployeeOutbox employeeOutbox;
+	@Autowired
+	private EmployeeStateHistoryWriter stateHistoryWriter;
+	@Autowired(
+			required = false)
+	private EmployeeSuggestIndex suggestIndex;
+	@Autowired(
+			required = false)
+	private EmployeeUniquenessIndex uniquenessIndex;
+
+	private final TransactionTemplate transactionTemplate;
+	private Validator validator;
+	private final ExecutorService hashExecutor;
+	private final int batchSize;
+	private final int maxErrors;
+
+	public EmployeeImporter(PlatformTransactionManager transactionManager,
+			@Value("${ems.import.batch-size:500}") int batchSize,
+			@Value("${ems.import.max-errors:1000}") int maxErrors,
+			@Value("${ems.import.hash-threads:0}") int hashThreads) {
+
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.batchSize = batchSize;
+		this.maxErrors = maxErrors;
+		this.hashExecutor = Executors.newFixedThreadPool(
+				hashThreads > 0 ? hashThreads : Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * A validator whose constraint validators are not Spring wired, so the
+	 * uniqueness ones, without their service, accept every value.
+	 */
+	@PostConstruct
+	public void init() {
+		validator = validatorFactory.usingContext()
+				.constraintValidatorFactory(new ConstraintValidatorFactory() {
+					@Override
+					public <T extends ConstraintValidator<?, ?>> T getInstance(Class<T> key) {
+						return BeanUtils.instantiateClass(key);
+					}
+
+					@Override
+					public void releaseInstance(ConstraintValidator<?, ?> instance) {
+					}
+				})
+				.getValidator();
+	}
+
+	@PreDestroy
+	public void close() {
+		hashExecutor.shutdownNow();
+	}
+
+	/**
+	 * Import the employees of a stream.
+	 *
+	 * @param reader
+	 *            The NDJSON or CSV rows.
+	 * @param format
+	 *            The format of the rows.
+	 * @return The number of imported and failed rows and the row errors.
+	 * @throws IOException
+	 *             If the rows cannot be read.
+	 */
+	public ImportReport importEmployees(Reader reader, EmployeeFormat format) throws IOException {
+
+		long startedAt = System.currentTimeMillis();
+		ImportReport report = new ImportReport();
+		Set<String> phoneNumbers = new HashSet<>();
+		Set<String> emails = new HashSet<>();
+		List<Row> chunk = new ArrayList<>(batchSize);
+
+		RowReader rows = format == EmployeeFormat.CSV ? new CsvRowReader(reader) : new NdjsonRowReader(reader);
+		long number = 0;
+		for (String[] values = rows.next(); values != null; values = rows.next()) {
+			number++;
+			Row row = new Row(number);
+			row.employee = parse(rows, values, row);
+			if (row.employee != null)
+				validate(row, phoneNumbers, emails);
+			if (!row.errors.isEmpty()) {
+				report.failed(row.errors, maxErrors);
+				continue;
+			}
+			chunk.add(row);
+			if (chunk.size() == batchSize) {
+				insert(chunk, report);
+				chunk.clear();
+			}
+		}
+		insert(chunk, report);
+
+		report.setElapsedMillis(System.currentTimeMillis() - startedAt);
+		log.info("Imported {} of {} employees in {} ms", report.getImported(), report.getRows(),
+				report.getElapsedMillis());
+		return report;
+	}
+
+	private Employee parse(RowReader rows, String[] values, Row row) {
+
+		try {
+			JsonNode json = rows.toJson(values, objectMapper);
+			if (json == null || !json.isObject()) {
+				row.errors.add(new RowError(row.number, null, "Malformed row: not a JSON object"));
+				return null;
+			}
+			Employee employee = objectMapper.treeToValue(json, Employee.class);
+			employee.setId(null);
+			employee.setState(EmployeeState.ADDED);
+			return employee;
+		} catch (JsonProcessingException e) {
+			row.errors.add(new RowError(row.number, null, "Malformed row: " + e.getOriginalMessage()));
+		} catch (IllegalArgumentException e) {
+			row.errors.add(new RowError(row.number, null, "Malformed row: " + e.getMessage()));
+		}
+		return null;
+	}
+
+	private void validate(Row row, Set<String> phoneNumbers, Set<String> emails) {
+
+		for (ConstraintViolation<Employee> violation : validator.validate(row.employee))
+			row.errors.add(new RowError(row.number, toJsonName(violation.getPropertyPath().toString()),
+					violation.getMessage()));
+		if (row.employee.getPhoneCanonical() != null && !phoneNumbers.add(row.employee.getPhoneCanonical()))
+			row.errors.add(new RowError(row.number, "phone_number", "Repeated in this import."));
+		if (row.employee.getEmail() != null && !emails.add(row.employee.getEmail()))
+			row.errors.add(new RowError(row.number, "email", "Repeated in this import."));
+	}
+
+	private void insert(List<Row> rows, ImportReport report) {
+
+		List<Row> chunk = rejectTaken(rows, report);
+		if (chunk.isEmpty())
+			return;
+		hashPasswords(chunk);
+		try {
+			persist(chunk);
+			report.imported(chunk.size());
+		} catch (RuntimeException e) {
+			log.warn("Import chunk of {} rows failed, retrying row by row: {}", chunk.size(), e.getMessage());
+			for (Row row : chunk) {
+				try {
+					row.employee.setId(null);
+					persist(Collections.singletonList(row));
+					report.imported(1);
+				} catch (RuntimeException rowFailure) {
+					report.failed(Collections.singletonList(new RowError(row.number, null,
+							rootCause(rowFailure).getMessage())), maxErrors);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Report the rows whose email or phone number an employee already has.
+	 * 
+	 * @return The other rows.
+	 */
+	private List<Row> rejectTaken(List<Row> chunk, ImportReport report) {
+
+		if (chunk.isEmpty())
+			return chunk;
+		Set<String> emails = new HashSet<>();
+		Set<String> phoneCanonicals = new HashSet<>();
+		for (Row row : chunk) {
+			if (row.employee.getEmail() != null)
+				emails.add(row.employee.getEmail());
+			if (row.employee.getPhoneCanonical() != null)
+				phoneCanonicals.add(row.employee.getPhoneCanonical());
+		}
+		Set<String> takenEmails = emails.isEmpty() ? Collections.emptySet()
+				: new HashSet<>(employeeRepository.findEmailsIn(emails));
+		Set<String> takenPhoneCanonicals = phoneCanonicals.isEmpty() ? Collections.emptySet()
+				: new HashSet<>(employeeRepository.findPhoneCanonicalsIn(phoneCanonicals));
+		if (takenEmails.isEmpty() && takenPhoneCanonicals.isEmpty())
+			return chunk;
+
+		String taken = messageSource.getMessage("taken", null, LocaleContextHolder.getLocale());
+		List<Row> free = new ArrayList<>(chunk.size());
+		for (Row row : chunk) {
+			if (takenPhoneCanonicals.contains(row.employee.getPhoneCanonical()))
+				row.errors.add(new RowError(row.number, "phone_number", taken));
+			if (takenEmails.contains(row.employee.getEmail()))
+				row.errors.add(new RowError(row.number, "email", taken));
+			if (row.errors.isEmpty())
+				free.add(row);
+			else
+				report.failed(row.errors, maxErrors);
+		}
+		return free;
+	}
+
+	private void persist(List<Row> rows) {
+
+		transactionTemplate.executeWithoutResult(status -> {
+			List<Employee> employees = rows.stream()
+					.map(row -> row.employee)
+					.collect(Collectors.toList());
+			employees.forEach(entityManager::persist);
+			employeeOutbox.publishAll(employees);
+			employees.forEach(employee -> {
+				stateHistoryWriter.record(employee.getId(), null, EmployeeState.ADDED, null);
+				if (suggestIndex != null)
+					suggestIndex.put(employee);
+				if (uniquenessIndex != null)
+					uniquenessIndex.put(employee);
+			});
+		});
+	}
+
+	private void hashPasswords(List<Row> chunk) {
+
+		List<Callable<Void>> tasks = chunk.stream()
+				.map(row -> (Callable<Void>) () -> {
+					row.employee.setPassword(crypt.encode(row.employee.getPassword()));
+					return null;
+				})
+				.collect(Collectors.toList());
+		try {
+			for (Future<Void> hashed : hashExecutor.invokeAll(tasks))
+				hashed.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while hashing passwords", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Failed to hash passwords", e.getCause());
+		}
+	}
+
+	private static Throwable rootCause(Throwable e) {
+		Throwable cause = e;
+		while (cause.getCause() != null && cause.getCause() != cause)
+			cause = cause.getCause();
+		return cause;
+	}
+
+	/**
+	 * The JSON property name of an employee field, <code>phoneNumber</code> is
+	 * <code>phone_number</code>.
+	 */
+	private static String toJsonName(String field) {
+		StringBuilder name = new StringBuilder(field.length() + 4);
+		for (char c : field.toCharArray()) {
+			if (Character.isUpperCase(c))
+				name.append('_').append(Character.toLowerCase(c));
+			else
+				name.append(c);
+		}
+		return name.toString();
+	}
+
+	/**
+	 * A parsed row, its number and errors.
+	 */
+	private static final class Row {
+
+		private final long number;
+		private final List<RowError> errors = new ArrayList<>(0);
+		private Employee employee;
+
+		Row(long number) {
+			this.number = number;
+		}
+	}
+
+	/**
+	 * Reads the rows of an import one at a time.
+	 */
+	private interface RowReader {
+
+		/**
+		 * @return The values of the next row, <code>null</code> at the end.
+		 */
+		String[] next() throws IOException;
+
+		JsonNode toJson(String[] values, ObjectMapper objectMapper) throws JsonProcessingException;
+	}
+
+	/**
+	 * One JSON object per non-blank line.
+	 */
+	private static final class NdjsonRowReader implements RowReader {
+
+		private final BufferedReader reader;
+
+		NdjsonRowReader(Reader reader) {
+			this.reader = new BufferedReader(reader);
+		}
+
+		@Override
+		public String[] next() throws IOException {
+			String line;
+			do {
+				line = reader.readLine();
+			} while (line != null && line.trim().isEmpty());
+			return line == null ? null : new String[] { line };
+		}
+
+		@Override
+		public JsonNode toJson(String[] values, ObjectMapper objectMapper) throws JsonProcessingException {
+			return objectMapper.readTree(values[0]);
+		}
+	}
+
+	/**
+	 * RFC 4180 CSV: comma separated, fields optionally double-quoted, quotes
+	 * escaped by doubling, quoted fields may span lines. The first row names
+	 * the columns; blank rows are skipped and empty values are not set.
+	 */
+	private static final class CsvRowReader implements RowReader {
+
+		private final BufferedReader reader;
+		private final String[] columns;
+
+		CsvRowReader(Reader reader) throws IOException {
+			this.reader = new BufferedReader(reader);
+			String[] header = nextRecord();
+			this.columns = header == null ? new String[0] : header;
+			for (int i = 0; i < columns.length; i++)
+				columns[i] = columns[i].trim();
+		}
+
+		@Override
+		public String[] next() throws IOException {
+			String[] record;
+			do {
+				record = nextRecord();
+			} while (record != null && record.length == 1 && record[0].isEmpty());
+			return record;
+		}
+
+		@Override
+		public JsonNode toJson(String[] values, ObjectMapper objectMapper) {
+			if (values.length != columns.length)
+				throw new IllegalArgumentException(
+						String.format("%d values for %d columns", values.length, columns.length));
+			ObjectNode node = objectMapper.createObjectNode();
+			for (int i = 0; i < columns.length; i++)
+				if (!values[i].isEmpty())
+					node.put(columns[i], values[i]);
+			return node;
+		}
+
+		private String[] nextRecord() throws IOException {
+
+			int c = reader.read();
+			if (c == -1)
+				return null;
+			List<String> fields = new ArrayList<>();
+			StringBuilder field = new StringBuilder();
+			boolean quoted = false;
+			for (; c != -1; c = reader.read()) {
+				if (quoted) {
+					if (c != '"') {
+						field.append((char) c);
+						continue;
+					}
+					reader.mark(1);
+					if (reader.read() == '"') {
+						field.append('"');
+					} else {
+						reader.reset();
+						quoted = false;
+					}
+				} else if (c == '"') {
+					quoted = true;
+				} else if (c == ',') {
+					fields.add(field.toString());
+					field.setLength(0);
+				} else if (c == '\n') {
+					break;
+				} else if (c != '\r') {
+					field.append((char) c);
+				}
+			}
+			fields.add(field.toString());
+			return fields.toArray(new String[0]);
+		}
+	}
+}
@@ -0,0 +1,372 @@
+package com.sayedbaladoh.ems.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeEvent;
+import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.model.LoadReport;
+import com.sayedbaladoh.ems.model.LoadReport.OperationReport;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drives <code>add</code>, <code>edit</code> and <code>changeState</code> on
+ * the {@link EmployeeService} at a fixed rate and reports the throughput and
+ * latency percentiles, as the <code>/actuator/loadgenerator</code> endpoint.
+ *
+ * <code>POST</code> starts a run (optional <code>rate</code>,
+ * <code>duration</code> in seconds and <code>threads</code>), <code>GET</code>
+ * reports the current or last run and <code>DELETE</code> stops it. Every
+ * worker adds its own employees and walks them through the state machine, so
+ * the workers never contend on an employee. The operation mix is set by
+ * <code>ems.load-generator.mix</code>. Combine with
+ * <code>ems.events.publisher=in-process</code> to profile the service layer
+ * without a broker. Enabled by <code>ems.load-generator.enabled</code>.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Slf4j
+@Component
+@Endpoint(
+		id = "loadgenerator")
+@ConditionalOnProperty(
+		name = "ems.load-generator.enabled",
+		havingValue = "true")
+public class EmployeeLoadGenerator {
+
+	private static final double[] PERCENTILES = { 0.5, 0.9, 0.99 };
+	private static final AtomicInteger RUNS = new AtomicInteger();
+	private static final String PASSWORD = "load-generator";
+
+	/**
+	 * The generated operations.
+	 */
+	enum Operation {
+		ADD, EDIT, CHANGE_STATE
+	}
+
+	private final EmployeeService employeeService;
+	private final int defaultRate;
+	private final int defaultDuration;
+	private final int defaultThreads;
+	private final int[] mix;
+
+	private LoadRun run;
+
+	public EmployeeLoadGenerator(EmployeeService employeeService,
+			@Value("${ems.load-generator.rate:200}") int rate,
+			@Value("${ems.load-generator.duration:60}") int duration,
+			@Value("${ems.load-generator.threads:4}") int threads,
+			@Value("${ems.load-generator.mix:20,30,50}") int[] mix) {
+
+		if (mix.length != Operation.values().length)
+			throw new IllegalArgumentException(
+					"ems.load-generator.mix needs one weight per operation: add, edit, change-state");
+
+		this.employeeService = employeeService;
+		this.defaultRate = rate;
+		this.defaultDuration = duration;
+		this.defaultThreads = threads;
+		// Cumulative weights
+		this.mix = new int[mix.length];
+		for (int i = 0, total = 0; i < mix.length; i++)
+			this.mix[i] = total += mix[i];
+	}
+
+	@WriteOperation
+	public synchronized LoadReport start(@Nullable Integer rate, @Nullable Integer duration,
+			@Nullable Integer threads) {
+
+		if (run != null && run.isRunning())
+			return run.report();
+
+		run = new LoadRun(rate == null ? defaultRate : rate, duration == null ? defaultDuration : duration,
+				threads == null ? defaultThreads : threads);
+		run.start();
+		return run.report();
+	}
+
+	@ReadOperation
+	public synchronized LoadReport report() {
+		return run == null ? null : run.report();
+	}
+
+	@DeleteOperation
+	public synchronized LoadReport stop() {
+
+		if (run == null)
+			return null;
+		run.stop();
+		return run.report();
+	}
+
+	@PreDestroy
+	public void close() {
+		stop();
+	}
+
+	/**
+	 * Pick the next operation of a worker, by the configured mix.
+	 */
+	private Operation next(Worker worker) {
+
+		if (worker.ids.isEmpty())
+			return Operation.ADD;
+		int draw = ThreadLocalRandom.current().nextInt(mix[mix.length - 1]);
+		for (Operation operation : Operation.values())
+			if (draw < mix[operation.ordinal()])
+				return operation;
+		return Operation.ADD;
+	}
+
+	/**
+	 * The state machine event moving an employee forward, <code>null</code> once
+	 * it reaches a final state.
+	 */
+	static EmployeeEvent nextEvent(EmployeeState state) {
+
+		switch (state) {
+		case ADDED:
+		case UPDATED:
+			return EmployeeEvent.CHECK;
+		case IN_CHECK:
+			return EmployeeEvent.APPROVE;
+		case APPROVED:
+			return EmployeeEvent.ACTIVATE;
+		default:
+			return null;
+		}
+	}
+
+	private void execute(Operation operation, Worker worker) {
+
+		switch (operation) {
+		case CHANGE_STATE: {
+			Long id = worker.pick();
+			EmployeeEvent event = nextEvent(worker.states.get(id));
+			if (event != null) {
+				worker.states.put(id, employeeService.changeState(id, event));
+				break;
+			}
+			// Final state, edit the employee back to UPDATED instead
+			worker.states.put(id, employeeService.edit(worker.copy(id)).getState());
+			break;
+		}
+		case EDIT: {
+			Long id = worker.pick();
+			worker.states.put(id, employeeService.edit(worker.copy(id)).getState());
+			break;
+		}
+		default: {
+			Employee employee = worker.newEmployee();
+			Employee added = employeeService.add(employee);
+			worker.ids.add(added.getId());
+			worker.employees.put(added.getId(), employee);
+			worker.states.put(added.getId(), added.getState());
+		}
+		}
+	}
+
+	/**
+	 * A load generator run. Operation <code>n</code> is due at
+	 * <code>start + n / rate</code>; workers take the next due operation, wait
+	 * for its time and measure the latency from it.
+	 */
+	private class LoadRun {
+
+		private final int rate;
+		private final int threads;
+		private final long intervalNanos;
+		private final long startNanos;
+		private final long endNanos;
+		private final AtomicLong tickets = new AtomicLong();
+		private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		private final Map<Operation, Timer> timers = new EnumMap<>(Operation.class);
+		private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+		private final ExecutorService executor;
+		private final long runId = RUNS.incrementAndGet();
+		private final long phoneSeed = ThreadLocalRandom.current().nextLong(100_000_000_000L, 900_000_000_000L);
+		private final AtomicLong employees = new AtomicLong();
+		private volatile boolean stopped;
+		private volatile long stoppedNanos;
+
+		LoadRun(int rate, int duration, int threads) {
+
+			this.rate = Math.max(rate, 1);
+			this.threads = Math.max(threads, 1);
+			this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / this.rate;
+			this.startNanos = System.nanoTime();
+			this.endNanos = startNanos + TimeUnit.SECONDS.toNanos(Math.max(duration, 1));
+			for (Operation operation : Operation.values()) {
+				timers.put(operation, Timer.builder("ems.load-generator.latency")
+						.tag("operation", operation.name())
+						.publishPercentiles(PERCENTILES)
+						.distributionStatisticExpiry(Duration.ofSeconds(Math.max(duration, 1)).plusMinutes(1))
+						.distributionStatisticBufferLength(1)
+						.register(registry));
+				errors.put(operation, new LongAdder());
+			}
+			this.executor = Executors.newFixedThreadPool(this.threads, runnable -> {
+				Thread thread = new Thread(runnable, "ems-load-generator-" + runId);
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		void start() {
+
+			log.info("Load generator run {} started: {} ops/s on {} threads.", runId, rate, threads);
+			for (int i = 0; i < threads; i++)
+				executor.execute(this::work);
+			executor.shutdown();
+		}
+
+		void stop() {
+			stopped = true;
+			executor.shutdownNow();
+		}
+
+		boolean isRunning() {
+			return !executor.isTerminated();
+		}
+
+		private void work() {
+
+			Worker worker = new Worker(this);
+			while (!stopped) {
+				long due = startNanos + tickets.getAndIncrement() * intervalNanos;
+				if (due >= endNanos)
+					break;
+				long wait = due - System.nanoTime();
+				if (wait > 0)
+					LockSupport.parkNanos(wait);
+				if (stopped || Thread.currentThread().isInterrupted())
+					break;
+
+				Operation operation = next(worker);
+				try {
+					execute(operation, worker);
+				} catch (RuntimeException e) {
+					errors.get(operation).increment();
+					log.debug("Load generator {} failed. Error: {}.", operation, e.getMessage());
+				}
+				timers.get(operation).record(System.nanoTime() - due, TimeUnit.NANOSECONDS);
+			}
+			stoppedNanos = System.nanoTime();
+		}
+
+		LoadReport report() {
+
+			boolean running = isRunning();
+			long elapsedNanos = (running || stoppedNanos == 0 ? System.nanoTime() : stoppedNanos) - startNanos;
+			double elapsedSeconds = Math.max(elapsedNanos, 1) / 1e9;
+
+			Map<String, OperationReport> operations = new LinkedHashMap<>();
+			long total = 0;
+			for (Operation operation : Operation.values()) {
+				HistogramSnapshot snapshot = timers.get(operation).takeSnapshot();
+				Map<Double, Double> percentiles = new HashMap<>();
+				for (ValueAtPercentile value : snapshot.percentileValues())
+					percentiles.put(value.percentile(), value.value(TimeUnit.MILLISECONDS));
+
+				total += snapshot.count();
+				operations.put(operation.name().toLowerCase(), new OperationReport(snapshot.count(),
+						errors.get(operation).sum(), snapshot.count() / elapsedSeconds,
+						snapshot.mean(TimeUnit.MILLISECONDS), percentiles.getOrDefault(0.5, 0.0),
+						percentiles.getOrDefault(0.9, 0.0), percentiles.getOrDefault(0.99, 0.0),
+						snapshot.max(TimeUnit.MILLISECONDS)));
+			}
+			return new LoadReport(running, rate, threads, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+					total / elapsedSeconds, operations);
+		}
+	}
+
+	/**
+	 * The employees added by one worker thread.
+	 */
+	private static class Worker {
+
+		private final LoadRun run;
+		private final List<Long> ids = new ArrayList<>();
+		private final Map<Long, Employee> employees = new HashMap<>();
+		private final Map<Long, EmployeeState> states = new HashMap<>();
+
+		Worker(LoadRun run) {
+			this.run = run;
+		}
+
+		Long pick() {
+			return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+		}
+
+		Employee newEmployee() {
+
+			long sequence = run.employees.incrementAndGet();
+			Employee employee = new Employee();
+			employee.setFirstName("Load");
+			employee.setLastName("Generator");
+			employee.setEmail("load" + run.runId + "." + sequence + "@load.test");
+			employee.setPhoneNumber(String.format("00%012d", (run.phoneSeed + sequence) % 1_000_000_000_000L));
+			employee.setGender("male");
+			employee.setCountryCode("EG");
+			employee.setPosition("Engineer");
+			employee.setBirthDate(Date.from(Instant.parse("1990-01-01T00:00:00.000Z")));
+			employee.setPassword(PASSWORD);
+			return employee;
+		}
+
+		/**
+		 * A detached copy of an added employee with a new position, as an edit
+		 * request would carry.
+		 */
+		Employee copy(Long id) {
+
+			Employee added = employees.get(id);
+			Employee employee = new Employee();
+			employee.setId(id);
+			employee.setFirstName(added.getFirstName());
+			employee.setLastName(added.getLastName());
+			employee.setEmail(added.getEmail());
+			employee.setPhoneNumber(added.getPhoneNumber());
+			employee.setGender(added.getGender());
+			employee.setCountryCode(added.getCountryCode());
+			employee.setBirthDate(added.getBirthDate());
+			employee.setPosition("Engineer " + ThreadLocalRandom.current().nextInt(1000));
+			employee.setPassword(PASSWORD);
+			return employee;
+		}
+	}
+}
@@ -0,0 +1,205 @@
+package com.sayedbaladoh.ems.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeChangeType;
+import com.sayedbaladoh.ems.model.EmployeeDeltaEvent;
+import com.sayedbaladoh.ems.model.EmployeeField;
+import com.sayedbaladoh.ems.model.OutboxEvent;
+import com.sayedbaladoh.ems.repository.OutboxEventRepository;
+
+/**
+ * Publishes employee events to <code>kafka.topic.name</code>.
+ * 
+ * With <code>ems.outbox.enabled</code> the event is written to the outbox
+ * table in the caller's transaction and relayed to Kafka later by the
+ * {@link OutboxRelay}. Otherwise the event is handed to the
+ * {@link EmployeeEventPublisher} directly, after commit when a transaction is
+ * active, so a rollback never publishes an event.
+ * 
+ * With <code>kafka.event.format=delta</code> a compact
+ * {@link EmployeeDeltaEvent} with only the changed fields is published instead
+ * of the full employee JSON.
+ * 
+ * With <code>ems.snapshot.enabled</code> the full employee JSON is also
+ * published to the log-compacted <code>kafka.topic.snapshot-name</code> topic,
+ * which keeps the latest version of every employee, and the tombstone of a
+ * deleted one until compaction drops it.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+@Component
+public class EmployeeOutbox {
+
+	public static final String FORMAT_JSON = "json";
+	public static final String FORMAT_DELTA = "delta";
+
+	private final OutboxEventRepository outboxEventRepository;
+	private final EmployeeEventPublisher eventPublisher;
+	private final JsonSerializer<Employee> serializer = new JsonSerializer<>();
+	private final boolean enabled;
+	private final boolean delta;
+	private final String topicName;
+	private final String snapshotTopicName;
+
+	public EmployeeOutbox(OutboxEventRepository outboxEventRepository, EmployeeEventPublisher eventPublisher,
+			@Value("${ems.outbox.enabled:false}") boolean enabled,
+			@Value("${kafka.event.format:json}") String format,
+			@Value("${kafka.topic.name}") String topicName,
+			@Value("${ems.snapshot.enabled:false}") boolean snapshot,
+			@Value("${kafka.topic.snapshot-name:ems-employee-snapshot}") String snapshotTopicName) {
+		this.outboxEventRepository = outboxEventRepository;
+		this.eventPublisher = eventPublisher;
+		this.enabled = enabled;
+		this.delta = FORMAT_DELTA.equalsIgnoreCase(format);
+		this.topicName = topicName;
+		this.snapshotTopicName = snapshot ? snapshotTopicName : null;
+	}
+
+	/**
+	 * Whether delta events are published, so callers know to snapshot the
+	 * employee before changing it.
+	 */
+	public boolean isDelta() {
+		return delta;
+	}
+
+	/**
+	 * Publish an employee event.
+	 * 
+	 * @param employee
+	 *            The employee to publish.
+	 */
+	public void publish(Employee employee) {
+		publish(employee, null);
+	}
+
+	/**
+	 * Publish an employee event.
+	 * 
+	 * @param employee
+	 *            The employee to publish.
+	 * @param before
+	 *            The employee fields before the change, used by delta events to
+	 *            send only the changed fields. <code>null</code> sends all fields.
+	 */
+	public void publish(Employee employee, Map<EmployeeField, String> before) {
+
+		if (enabled) {
+			outboxEventRepository.save(toOutboxEvent(employee, before));
+			if (snapshotTopicName != null)
+				outboxEventRepository.save(toSnapshotOutboxEvent(employee));
+			return;
+		}
+
+		Runnable send;
+		if (delta) {
+			EmployeeDeltaEvent event = EmployeeDeltaEvent.of(employee, before);
+			send = () -> eventPublisher.publishDelta(event, topicName);
+		} else {
+			send = () -> eventPublisher.publish(employee, topicName);
+		}
+		afterCommit(send);
+		if (snapshotTopicName != null)
+			afterCommit(() -> eventPublisher.publish(employee, snapshotTopicName));
+	}
+
+	/**
+	 * Publish a list of employee events.
+	 * 
+	 * @param employees
+	 *            The employees to publish.
+	 */
+	public void publishAll(List<Employee> employees) {
+
+		if (employees.isEmpty())
+			return;
+
+		if (enabled) {
+			outboxEventRepository.saveAll(employees.stream()
+					.map(employee -> toOutboxEvent(employee, null))
+					.collect(Collectors.toList()));
+			if (snapshotTopicName != null)
+				outboxEventRepository.saveAll(employees.stream()
+						.map(this::toSnapshotOutboxEvent)
+						.collect(Collectors.toList()));
+			return;
+		}
+
+		if (delta) {
+			List<EmployeeDeltaEvent> events = employees.stream()
+					.map(employee -> EmployeeDeltaEvent.of(employee, null))
+					.collect(Collectors.toList());
+			afterCommit(() -> eventPublisher.publishDeltas(events, topicName));
+		} else {
+			afterCommit(() -> eventPublisher.publishAll(employees, topicName));
+		}
+		if (snapshotTopicName != null)
+			afterCommit(() -> eventPublisher.publishAll(employees, snapshotTopicName));
+	}
+
+	/**
+	 * Publish a tombstone for a deleted employee, so the projections and the
+	 * compacted topics drop it.
+	 * 
+	 * @param employeeId
+	 *            The deleted employee Id.
+	 */
+	public void publishDelete(Long employeeId) {
+
+		if (enabled) {
+			outboxEventRepository.save(toDeleteOutboxEvent(employeeId, topicName));
+			if (snapshotTopicName != null)
+				outboxEventRepository.save(toDeleteOutboxEvent(employeeId, snapshotTopicName));
+			return;
+		}
+
+		afterCommit(() -> eventPublisher.publishDelete(employeeId, topicName));
+		if (snapshotTopicName != null)
+			afterCommit(() -> eventPublisher.publishDelete(employeeId, snapshotTopicName));
+	}
+
+	private void afterCommit(Runnable send) {
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					send.run();
+				}
+			});
+		} else {
+			send.run();
+		}
+	}
+
+	private OutboxEvent toOutboxEvent(Employee employee, Map<EmployeeField, String> before) {
+
+		byte[] payload = delta ? EmployeeDeltaCodec.encode(EmployeeDeltaEvent.of(employee, before))
+				: serializer.serialize(topicName, employee);
+		return new OutboxEvent(null, employee.getId(), topicName, EmployeeChangeType.of(employee.getState()),
+				!delta, payload, Instant.now());
+	}
+
+	private static OutboxEvent toDeleteOutboxEvent(Long employeeId, String topicName) {
+		// Relayed as a tombstone, the payload column is not nullable
+		return new OutboxEvent(null, employeeId, topicName, EmployeeChangeType.DELETED, false, new byte[0],
+				Instant.now());
+	}
+
+	private OutboxEvent toSnapshotOutboxEvent(Employee employee) {
+		return new OutboxEvent(null, employee.getId(), snapshotTopicName, EmployeeChangeType.of(employee.getState()),
+				true, serializer.serialize(snapshotTopicName, employee), Instant.now());
+	}
+}
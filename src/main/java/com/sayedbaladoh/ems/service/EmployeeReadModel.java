@@ -0,0 +1,279 @@
+package com.sayedbaladoh.ems.service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.record.TimestampType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeDeltaEvent;
+import com.sayedbaladoh.ems.model.EmployeeField;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory employee projection fed from the employee events topic.
+ * 
+ * Employees are kept by Id in a concurrent sorted map and replaced, never
+ * mutated, so readers always see a complete employee. Both the JSON and the
+ * delta event formats are applied, and tombstones remove the employee. The lag
+ * is the time between an event being produced and being applied. Enabled by
+ * <code>ems.read-model.enabled</code>.
+ * 
+ * The size is counted on insert and removal, as the map size is a full walk.
+ * The page following the last one served starts from its last Id, unless
+ * employees were inserted or removed since.
+ * 
+ * With <code>ems.snapshot.enabled</code> the listener is started by the
+ * {@link EmployeeSnapshotBootstrap} once the snapshot topic is loaded, and only
+ * replays the events from shortly before the load.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+		name = "ems.read-model.enabled",
+		havingValue = "true")
+public class EmployeeReadModel implements ConsumerSeekAware {
+
+	public static final String LAG_HEADER = "X-Read-Model-Lag";
+	public static final String LISTENER_ID = "employeeReadModel";
+
+	private final NavigableMap<Long, Employee> employees = new ConcurrentSkipListMap<>();
+	private final ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+	private final Timer lagTimer;
+	private final Set<TopicPartition> replayed = ConcurrentHashMap.newKeySet();
+	private final AtomicLong size = new AtomicLong();
+	// Inserts and removals, which shift the offsets of the pages
+	private final AtomicLong structuralChanges = new AtomicLong();
+	private volatile PageEnd lastPageEnd;
+	private volatile long lagMillis;
+	private volatile long replayFrom;
+
+	public EmployeeReadModel(MeterRegistry meterRegistry) {
+
+		Gauge.builder("ems.read-model.lag", this, EmployeeReadModel::getLagMillis)
+				.description("Time between the last applied employee event being produced and applied")
+				.baseUnit("milliseconds")
+				.register(meterRegistry);
+		Gauge.builder("ems.read-model.size", size, AtomicLong::get)
+				.description("Employees in the read model")
+				.register(meterRegistry);
+		this.lagTimer = Timer.builder("ems.read-model.apply.lag")
+				.description("Time between an employee event being produced and applied")
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+	}
+
+	@KafkaListener(
+			id = LISTENER_ID,
+			topics = "${kafka.topic.name}",
+			containerFactory = "readModelContainerFactory",
+			autoStartup = "#{'${ems.snapshot.enabled:false}' != 'true'}")
+	public void onEvent(ConsumerRecord<String, byte[]> record) {
+
+		try {
+			apply(record);
+		} catch (IOException | RuntimeException e) {
+			log.warn("Unable to apply employee event at {}-{}@{}. Error: {}.", record.topic(), record.partition(),
+					record.offset(), e.getMessage());
+		}
+
+		if (record.timestampType() != TimestampType.NO_TIMESTAMP_TYPE) {
+			lagMillis = Math.max(0, System.currentTimeMillis() - record.timestamp());
+			lagTimer.record(lagMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Seek newly assigned partitions to the replay timestamp, if any, instead of
+	 * the beginning of the topic.
+	 */
+	@Override
+	public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+
+		if (replayFrom <= 0)
+			return;
+		List<TopicPartition> partitions = assignments.keySet().stream()
+				.filter(replayed::add)
+				.collect(Collectors.toList());
+		if (!partitions.isEmpty())
+			callback.seekToTimestamp(partitions, replayFrom);
+	}
+
+	/**
+	 * Replay the events topic from a timestamp rather than from the beginning.
+	 * Must be set before the listener is started.
+	 * 
+	 * @param timestamp
+	 *            The epoch milliseconds to replay from.
+	 */
+	public void setReplayFrom(long timestamp) {
+		this.replayFrom = timestamp;
+	}
+
+	/**
+	 * Apply an employee event to the projection.
+	 * 
+	 * @param record
+	 *            A JSON or delta employee event.
+	 */
+	public void apply(ConsumerRecord<String, byte[]> record) throws IOException {
+
+		if (record.value() == null) {
+			if (record.key() != null && employees.remove(Long.valueOf(record.key())) != null) {
+				size.decrementAndGet();
+				structuralChanges.incrementAndGet();
+			}
+			return;
+		}
+
+		// The events of one employee come in order from one partition, so a read
+		// then a put of its entry is not interleaved with another event of it
+		if (record.headers().lastHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME) != null) {
+			Employee employee = readEmployee(objectMapper, record.value());
+			if (employee.getId() == null)
+				return;
+			employee.setUpdatedAt(Instant.ofEpochMilli(record.timestamp()));
+			put(employee);
+		} else {
+			EmployeeDeltaEvent event = EmployeeDeltaCodec.decode(record.value());
+			if (event.getEmployeeId() == null)
+				return;
+			put(applyDelta(event.getEmployeeId(), employees.get(event.getEmployeeId()), event));
+		}
+	}
+
+	/**
+	 * Read an employee JSON event, with its creation time.
+	 */
+	static Employee readEmployee(ObjectMapper objectMapper, byte[] value) throws IOException {
+
+		JsonNode json = objectMapper.readTree(value);
+		Employee employee = objectMapper.treeToValue(json, Employee.class);
+		// Ignored on read by DateAudit, which only accepts it from the database
+		JsonNode createdAt = json.get("createdAt");
+		if (createdAt != null && !createdAt.isNull())
+			employee.setCreatedAt(objectMapper.treeToValue(createdAt, Instant.class));
+		return employee;
+	}
+
+	public Optional<Employee> get(Long id) {
+		return Optional.ofNullable(employees.get(id));
+	}
+
+	public boolean exists(Long id) {
+		return employees.containsKey(id);
+	}
+
+	/**
+	 * Whether the page sort can be served from the projection, which is ordered
+	 * by Id only.
+	 */
+	public boolean supports(Sort sort) {
+		return sort.isUnsorted() || (sort.getOrderFor("id") != null && sort.stream().count() == 1);
+	}
+
+	public Page<Employee> getAll(Pageable pageable) {
+
+		Sort.Order order = pageable.getSort().getOrderFor("id");
+		boolean descending = order != null && order.isDescending();
+		NavigableMap<Long, Employee> view = descending ? employees.descendingMap() : employees;
+		if (pageable.isUnpaged())
+			return new PageImpl<>(view.values().stream().collect(Collectors.toList()));
+
+		// Read before walking, so a change during the walk invalidates the page end
+		long changes = structuralChanges.get();
+		PageEnd from = lastPageEnd;
+		long skip = pageable.getOffset();
+		if (from != null && from.descending == descending && from.structuralChanges == changes
+				&& from.offset <= skip) {
+			view = view.tailMap(from.lastId, false);
+			skip -= from.offset;
+		}
+
+		List<Employee> content = view.values().stream()
+				.skip(skip)
+				.limit(pageable.getPageSize())
+				.collect(Collectors.toList());
+		if (!content.isEmpty())
+			lastPageEnd = new PageEnd(descending, changes, pageable.getOffset() + content.size(),
+					content.get(content.size() - 1).getId());
+		return new PageImpl<>(content, pageable, size.get());
+	}
+
+	public long getLagMillis() {
+		return lagMillis;
+	}
+
+	private void put(Employee employee) {
+		if (employees.put(employee.getId(), employee) == null) {
+			size.incrementAndGet();
+			structuralChanges.incrementAndGet();
+		}
+	}
+
+	private Employee applyDelta(Long id, Employee current, EmployeeDeltaEvent event) {
+
+		Employee employee = new Employee();
+		employee.setId(id);
+		if (current != null) {
+			for (EmployeeField field : EmployeeField.values())
+				field.set(employee, field.get(current));
+			employee.setCreatedAt(current.getCreatedAt());
+		} else {
+			employee.setCreatedAt(Instant.ofEpochMilli(event.getTimestamp()));
+		}
+		event.getChanges().forEach((field, value) -> field.set(employee, value));
+		employee.setState(event.getState());
+		employee.setUpdatedAt(Instant.ofEpochMilli(event.getTimestamp()));
+		return employee;
+	}
+
+	/**
+	 * The end of a served page: the offset after it and its last Id.
+	 */
+	private static final class PageEnd {
+
+		private final boolean descending;
+		private final long structuralChanges;
+		private final long offset;
+		private final Long lastId;
+
+		PageEnd(boolean descending, long structuralChanges, long offset, Long lastId) {
+			this.descending = descending;
+			this.structuralChanges = structuralChanges;
+			this.offset = offset;
+			this.lastId = lastId;
+		}
+	}
+}
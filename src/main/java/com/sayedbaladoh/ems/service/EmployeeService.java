@@ -1,25 +1,64 @@
 package com.sayedbaladoh.ems.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.statemachine.StateMachine;
 
+import com.sayedbaladoh.ems.model.AvailabilityReport;
+import com.sayedbaladoh.ems.model.CursorPage;
 import com.sayedbaladoh.ems.model.Employee;
 import com.sayedbaladoh.ems.model.EmployeeEvent;
+import com.sayedbaladoh.ems.model.EmployeeFormat;
+import com.sayedbaladoh.ems.model.EmployeeSearch;
 import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.model.EmployeeStateHistory;
+import com.sayedbaladoh.ems.model.EmployeeSummary;
+import com.sayedbaladoh.ems.model.EmployeeView;
+import com.sayedbaladoh.ems.model.ImportReport;
+import com.sayedbaladoh.ems.model.StateChange;
+import com.sayedbaladoh.ems.model.StateChangeResult;
+import com.sayedbaladoh.ems.model.StateHistoryPage;
 
 public interface EmployeeService {
 
 	Employee add(Employee employee);
 
+	ImportReport importEmployees(Reader reader, EmployeeFormat format) throws IOException;
+
+	long exportEmployees(EmployeeSearch search, EmployeeView view, EmployeeFormat format, OutputStream output)
+			throws IOException;
+
 	Employee edit(Employee employee);
 
-	StateMachine<EmployeeState, EmployeeEvent> changeState(Long employeeId, EmployeeEvent event);
+	EmployeeState changeState(Long employeeId, EmployeeEvent event);
+
+	Optional<Employee> compareAndSetState(Long employeeId, EmployeeEvent event);
+
+	List<StateChangeResult> changeStates(List<StateChange> stateChanges);
+
+	StateHistoryPage getStateHistory(Long employeeId, Long after, int size);
+
+	Optional<EmployeeStateHistory> getStateAsOf(Long employeeId, Instant asOf);
 
 	Page<Employee> getAll(Pageable pageable);
 
+	CursorPage<Employee> getAllAfter(String after, int size, boolean withTotal);
+
+	Page<EmployeeSummary> getAllSummaries(Pageable pageable);
+
+	CursorPage<EmployeeSummary> getSummariesAfter(String after, int size, boolean withTotal);
+
+	Optional<EmployeeSummary> getSummary(Long id);
+
+	CursorPage<Employee> search(EmployeeSearch search, String after, int size);
+
 	Optional<Employee> get(Long id);
 
 	boolean exists(Long id);
@@ -28,6 +67,8 @@ public interface EmployeeService {
 
 	boolean existsByEmail(String email);
 
+	AvailabilityReport checkAvailability(Collection<String> emails, Collection<String> phoneNumbers);
+
 	boolean existsByPhoneNumber(String phoneNumber);
 
 	void delete(Employee employee);
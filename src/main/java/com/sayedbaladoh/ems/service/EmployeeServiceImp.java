@@ -1,23 +1,61 @@
 package com.sayedbaladoh.ems.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.messaging.Message;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.statemachine.StateMachine;
-import org.springframework.statemachine.config.StateMachineFactory;
-import org.springframework.statemachine.support.DefaultStateMachineContext;
+import org.springframework.statemachine.transition.Transition;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.sayedbaladoh.ems.errorhandler.BadRequestException;
+import com.sayedbaladoh.ems.errorhandler.ConflictException;
+import com.sayedbaladoh.ems.model.AvailabilityReport;
+import com.sayedbaladoh.ems.model.CursorPage;
 import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeCursor;
 import com.sayedbaladoh.ems.model.EmployeeEvent;
+import com.sayedbaladoh.ems.model.EmployeeField;
+import com.sayedbaladoh.ems.model.EmployeeFormat;
+import com.sayedbaladoh.ems.model.EmployeeSearch;
 import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.model.EmployeeStateHistory;
+import com.sayedbaladoh.ems.model.EmployeeSummary;
+import com.sayedbaladoh.ems.model.EmployeeView;
+import com.sayedbaladoh.ems.model.ImportReport;
+import com.sayedbaladoh.ems.model.StateChange;
+import com.sayedbaladoh.ems.model.StateChangeResult;
+import com.sayedbaladoh.ems.model.StateChangeResult.Outcome;
+import com.sayedbaladoh.ems.model.StateHistoryPage;
 import com.sayedbaladoh.ems.repository.EmployeeRepository;
+import com.sayedbaladoh.ems.repository.EmployeeSearchRepository;
+import com.sayedbaladoh.ems.repository.EmployeeStateHistoryRepository;
+import com.sayedbaladoh.ems.repository.EmployeeStateJdbcRepository;
+import com.sayedbaladoh.ems.validator.PhoneNumbers;
 
 /**
  * Employee Service implementation
@@ -33,18 +71,43 @@ public class EmployeeServiceImp implements EmployeeService {
 	@Autowired
 	private PasswordEncoder crypt;
 	@Autowired
-	private StateMachineFactory<EmployeeState, EmployeeEvent> stateMachineFactory;
+	private EmployeeStateEngine stateEngine;
+	@Autowired
+	private EmployeeStateTransitionTable transitionTable;
+	@Autowired
+	private EmployeeStateJdbcRepository employeeStateJdbcRepository;
+	@Autowired
+	private EmployeeOutbox employeeOutbox;
+	@Autowired
+	private EmployeeStateHistoryWriter stateHistoryWriter;
+	@Autowired
+	private EmployeeStateHistoryRepository employeeStateHistoryRepository;
 	@Autowired
-	private EmployeeStateChangeInterceptor employeeStateChangeInterceptor;
+	private EmployeeSearchRepository employeeSearchRepository;
+	@Autowired(
+			required = false)
+	private EmployeeSuggestIndex suggestIndex;
+	@Autowired(
+			required = false)
+	private EmployeeUniquenessIndex uniquenessIndex;
 	@Autowired
-	private KafkaProducerService kafkaSender;
+	private EmployeeImporter employeeImporter;
+	@Autowired
+	private EmployeeExporter employeeExporter;
+	@PersistenceContext
+	private EntityManager entityManager;
+	@Value("${ems.listing.total-ttl:60000}")
+	private long totalTtlMillis;
+	@Value("${ems.availability.chunk-size:500}")
+	private int availabilityChunkSize;
 
-	public static final String EMPLOYEE_ID_HEADER = "employee_id";
+	private volatile long cachedTotal;
+	private volatile long cachedTotalExpiresAt;
 
-	@Value("${kafka.topic.name}")
-	private String topicName;
+	public static final String EMPLOYEE_ID_HEADER = "employee_id";
 
 	@Override
+	@Transactional
 	public Employee add(Employee employee) {
 
 		employee.setState(EmployeeState.ADDED);
@@ -52,28 +115,198 @@ public class EmployeeServiceImp implements EmployeeService {
 			employee.setPassword(crypt.encode(employee.getPassword()));
 
 		Employee savedEmployee = employeeRepository.save(employee);
-		kafkaSender.sendMessageWithCallback(savedEmployee, topicName);
+		employeeOutbox.publish(savedEmployee);
+		stateHistoryWriter.record(savedEmployee.getId(), null, EmployeeState.ADDED, null);
+		if (suggestIndex != null)
+			suggestIndex.put(savedEmployee);
+		if (uniquenessIndex != null)
+			uniquenessIndex.put(savedEmployee);
 		return savedEmployee;
 	}
 
+	/**
+	 * Import employees in chunks, each chunk in its own transaction, see
+	 * {@link EmployeeImporter}.
+	 */
+	@Override
+	public ImportReport importEmployees(Reader reader, EmployeeFormat format) throws IOException {
+		return employeeImporter.importEmployees(reader, format);
+	}
+
+	/**
+	 * Stream the matching employees from one database cursor, see
+	 * {@link EmployeeExporter}.
+	 */
+	@Override
+	public long exportEmployees(EmployeeSearch search, EmployeeView view, EmployeeFormat format,
+			OutputStream output) throws IOException {
+		return employeeExporter.exportEmployees(search, view, format, output);
+	}
+
 	@Override
+	@Transactional
 	public Employee edit(Employee employee) {
 
+		EmployeeState fromState = null;
+		Map<EmployeeField, String> before = null;
+		if (employee.getId() != null && employeeOutbox.isDelta()) {
+			// Snapshot the stored row, the save below merges into the same instance
+			Optional<Employee> stored = employeeRepository.findById(employee.getId());
+			fromState = stored.map(Employee::getState).orElse(null);
+			before = stored.map(EmployeeField::valuesOf).orElse(null);
+		} else if (employee.getId() != null) {
+			fromState = employeeStateJdbcRepository.findStates(Collections.singletonList(employee.getId()))
+					.get(employee.getId());
+		}
 		employee.setState(EmployeeState.UPDATED);
 		if (employee.getPassword() != null && !employee.getPassword().isEmpty())
 			employee.setPassword(crypt.encode(employee.getPassword()));
 
 		Employee savedEmployee = employeeRepository.save(employee);
-		kafkaSender.sendMessageWithCallback(savedEmployee, topicName);
+		employeeOutbox.publish(savedEmployee, before);
+		stateHistoryWriter.record(savedEmployee.getId(), fromState, EmployeeState.UPDATED, null);
+		if (suggestIndex != null)
+			suggestIndex.put(savedEmployee);
+		if (uniquenessIndex != null)
+			uniquenessIndex.put(savedEmployee);
 		return savedEmployee;
 	}
 
 	@Override
-	public StateMachine<EmployeeState, EmployeeEvent> changeState(Long employeeId, EmployeeEvent event) {
+	@Transactional
+	public EmployeeState changeState(Long employeeId, EmployeeEvent event) {
 
-		StateMachine<EmployeeState, EmployeeEvent> sm = buildStateMachine(employeeId);
-		sendEvent(employeeId, sm, event);
-		return sm;
+		Employee employee = employeeRepository.getOne(employeeId);
+		return stateEngine.sendEvent(employeeId, employee.getState(), event);
+	}
+
+	/**
+	 * Change the state of an employee with a single read and a conditional
+	 * update. The target state is resolved from the compiled transitions and the
+	 * returned employee is built from the loaded row, so no further loads are
+	 * needed. The employee is published through the outbox.
+	 */
+	@Override
+	@Transactional
+	public Optional<Employee> compareAndSetState(Long employeeId, EmployeeEvent event) {
+
+		Optional<Employee> found = employeeRepository.findById(employeeId);
+		found.ifPresent(employee -> {
+			EmployeeState current = employee.getState();
+			Transition<EmployeeState, EmployeeEvent> transition = current == null || event == null ? null
+					: transitionTable.find(current, event);
+			if (transition == null)
+				return;
+
+			Message<EmployeeEvent> msg = MessageBuilder.withPayload(event)
+					.setHeader(EMPLOYEE_ID_HEADER, employeeId)
+					.build();
+			transitionTable.executeActions(transition, msg);
+
+			EmployeeState target = transition.getTarget().getId();
+			Instant updatedAt = Instant.now();
+			if (!employeeStateJdbcRepository.compareAndSetState(employeeId, current, target, updatedAt))
+				throw new ConflictException(String.format(
+						"Employee with Id: '%s' is no longer in state %s.", employeeId, current));
+
+			// The row is already written, keep Hibernate from flushing it again
+			entityManager.detach(employee);
+			employee.setState(target);
+			employee.setUpdatedAt(updatedAt);
+			employeeOutbox.publish(employee);
+			stateHistoryWriter.record(employeeId, current, target, event);
+		});
+		return found;
+	}
+
+	/**
+	 * Change the state of many employees at once. The events are validated
+	 * against the compiled transitions, applied with one JDBC batch in a single
+	 * transaction and the changed employees are published through the outbox.
+	 */
+	@Override
+	@Transactional
+	public List<StateChangeResult> changeStates(List<StateChange> stateChanges) {
+
+		Map<Long, EmployeeState> states = employeeStateJdbcRepository.findStates(stateChanges.stream()
+				.map(StateChange::getId)
+				.collect(Collectors.toList()));
+
+		List<StateChangeResult> results = new ArrayList<>(stateChanges.size());
+		List<StateChangeResult> accepted = new ArrayList<>();
+		for (StateChange stateChange : stateChanges) {
+			Long employeeId = stateChange.getId();
+			EmployeeEvent event = stateChange.getEvent();
+			EmployeeState current = states.get(employeeId);
+
+			if (current == null) {
+				results.add(new StateChangeResult(employeeId, event, null, null, Outcome.NOT_FOUND));
+				continue;
+			}
+
+			Transition<EmployeeState, EmployeeEvent> transition = event == null ? null
+					: transitionTable.find(current, event);
+			if (transition == null) {
+				results.add(new StateChangeResult(employeeId, event, current, current, Outcome.INVALID_TRANSITION));
+				continue;
+			}
+
+			Message<EmployeeEvent> msg = MessageBuilder.withPayload(event)
+					.setHeader(EMPLOYEE_ID_HEADER, employeeId)
+					.build();
+			transitionTable.executeActions(transition, msg);
+
+			StateChangeResult result = new StateChangeResult(employeeId, event, current,
+					transition.getTarget().getId(), Outcome.APPLIED);
+			states.put(employeeId, result.getState());
+			results.add(result);
+			accepted.add(result);
+		}
+
+		int[] updateCounts = employeeStateJdbcRepository.compareAndSetStates(accepted, Instant.now());
+		for (int i = 0; i < updateCounts.length; i++) {
+			if (updateCounts[i] == 0) {
+				StateChangeResult result = accepted.get(i);
+				result.setOutcome(Outcome.CONFLICT);
+				result.setState(result.getPreviousState());
+			}
+		}
+
+		accepted.stream()
+				.filter(result -> result.getOutcome() == Outcome.APPLIED)
+				.forEach(result -> stateHistoryWriter.record(result.getId(), result.getPreviousState(),
+						result.getState(), result.getEvent()));
+
+		List<Long> changedIds = accepted.stream()
+				.filter(result -> result.getOutcome() == Outcome.APPLIED)
+				.map(StateChangeResult::getId)
+				.distinct()
+				.collect(Collectors.toList());
+		if (!changedIds.isEmpty()) {
+			List<Employee> changedEmployees = employeeRepository.findAllById(changedIds);
+			employeeOutbox.publishAll(changedEmployees);
+		}
+		return results;
+	}
+
+	/**
+	 * Get a page of the employee state changes after the given history Id. Pages
+	 * are read by seeking the <code>(employee_id, id)</code> index, so deep pages
+	 * cost the same as the first one.
+	 */
+	@Override
+	public StateHistoryPage getStateHistory(Long employeeId, Long after, int size) {
+
+		List<EmployeeStateHistory> content = employeeStateHistoryRepository
+				.findByEmployeeIdAndIdGreaterThanOrderByIdAsc(employeeId, after, PageRequest.of(0, size));
+		Long next = content.size() < size ? null : content.get(content.size() - 1).getId();
+		return new StateHistoryPage(content, next);
+	}
+
+	@Override
+	public Optional<EmployeeStateHistory> getStateAsOf(Long employeeId, Instant asOf) {
+		return employeeStateHistoryRepository
+				.findFirstByEmployeeIdAndChangedAtLessThanEqualOrderByChangedAtDescIdDesc(employeeId, asOf);
 	}
 
 	@Override
@@ -81,6 +314,96 @@ public class EmployeeServiceImp implements EmployeeService {
 		return employeeRepository.findAll(pageable);
 	}
 
+	/**
+	 * Get a page of the cursor listing by seeking on the
+	 * <code>(created_at, id)</code> index, without a count query. The total is
+	 * the employees count cached for <code>ems.listing.total-ttl</code> ms.
+	 */
+	@Override
+	public CursorPage<Employee> getAllAfter(String after, int size, boolean withTotal) {
+
+		EmployeeCursor cursor = decodeCursor(after);
+		List<Employee> content = cursor == null
+				? employeeRepository.findByOrderByCreatedAtAscIdAsc(PageRequest.of(0, size))
+				: employeeRepository.findPageAfter(cursor.getCreatedAt(), cursor.getId(), PageRequest.of(0, size));
+
+		String next = content.size() < size ? null : EmployeeCursor.of(content.get(content.size() - 1)).encode();
+		return new CursorPage<>(content, next, withTotal ? getApproximateTotal() : null);
+	}
+
+	/**
+	 * Get a page of the cursor listing of employee summaries, see
+	 * {@link #getAllAfter(String, int, boolean)}.
+	 */
+	@Override
+	@Transactional(
+			readOnly = true)
+	public CursorPage<EmployeeSummary> getSummariesAfter(String after, int size, boolean withTotal) {
+
+		EmployeeCursor cursor = decodeCursor(after);
+		List<EmployeeSummary> content = cursor == null
+				? employeeRepository.findSummaryPage(PageRequest.of(0, size))
+				: employeeRepository.findSummaryPageAfter(cursor.getCreatedAt(), cursor.getId(),
+						PageRequest.of(0, size));
+
+		String next = content.size() < size ? null : EmployeeCursor.of(content.get(content.size() - 1)).encode();
+		return new CursorPage<>(content, next, withTotal ? getApproximateTotal() : null);
+	}
+
+	/**
+	 * Search the employees by the given filters, see
+	 * {@link EmployeeSearchRepository}.
+	 */
+	@Override
+	@Transactional(
+			readOnly = true)
+	public CursorPage<Employee> search(EmployeeSearch search, String after, int size) {
+
+		List<Employee> content = employeeSearchRepository.search(search, decodeCursor(after), size);
+		String next = content.size() < size ? null : EmployeeCursor.of(content.get(content.size() - 1)).encode();
+		return new CursorPage<>(content, next, null);
+	}
+
+	private EmployeeCursor decodeCursor(String after) {
+
+		if (after == null || after.isEmpty())
+			return null;
+		try {
+			return EmployeeCursor.decode(after);
+		} catch (RuntimeException e) {
+			throw new BadRequestException("Invalid cursor.", e);
+		}
+	}
+
+	private long getApproximateTotal() {
+
+		long now = System.currentTimeMillis();
+		if (now >= cachedTotalExpiresAt) {
+			cachedTotal = employeeRepository.count();
+			cachedTotalExpiresAt = now + totalTtlMillis;
+		}
+		return cachedTotal;
+	}
+
+	/**
+	 * Get a page of employee summaries. Only the summary columns are selected,
+	 * into values the persistence context does not manage, in a read-only
+	 * transaction.
+	 */
+	@Override
+	@Transactional(
+			readOnly = true)
+	public Page<EmployeeSummary> getAllSummaries(Pageable pageable) {
+		return employeeRepository.findSummaries(pageable);
+	}
+
+	@Override
+	@Transactional(
+			readOnly = true)
+	public Optional<EmployeeSummary> getSummary(Long id) {
+		return employeeRepository.findSummaryById(id);
+	}
+
 	@Override
 	public Optional<Employee> get(Long id) {
 		return employeeRepository.findById(id);
@@ -88,50 +411,111 @@ public class EmployeeServiceImp implements EmployeeService {
 
 	@Override
 	public boolean exists(Long id) {
-		return employeeRepository.existsById(id);
+		// An employee in the second-level cache exists, no query needed
+		return entityManager.getEntityManagerFactory().getCache().contains(Employee.class, id)
+				|| employeeRepository.existsById(id);
 	}
 
 	@Override
+	@Transactional(readOnly = true)
 	public boolean exists(String phoneNumber) {
-		return employeeRepository.existsByPhoneNumber(phoneNumber);
+		return existsByPhoneNumber(phoneNumber);
 	}
 
+	/**
+	 * Answer from the uniqueness index when it rules the email out, otherwise
+	 * query the database.
+	 */
 	@Override
 	public boolean existsByEmail(String email) {
+		if (uniquenessIndex != null)
+			return uniquenessIndex.isEmailTaken(email, employeeRepository::existsByEmail);
 		return employeeRepository.existsByEmail(email);
 	}
 
+	/**
+	 * Answer from the uniqueness index when it rules the phone number out,
+	 * otherwise resolve the canonical phone number as the employee natural Id,
+	 * from the natural-id cache when enabled. The employee itself is not
+	 * loaded.
+	 */
 	@Override
+	@Transactional(readOnly = true)
 	public boolean existsByPhoneNumber(String phoneNumber) {
-		return employeeRepository.existsByPhoneNumber(phoneNumber);
+		if (uniquenessIndex != null)
+			return uniquenessIndex.isPhoneNumberTaken(phoneNumber, this::findPhoneNumber);
+		return findPhoneNumber(phoneNumber);
 	}
 
+	/**
+	 * Look the emails and canonical phone numbers up with one <code>IN</code>
+	 * query per <code>ems.availability.chunk-size</code> values, skipping the
+	 * values the uniqueness index rules out.
+	 */
 	@Override
-	public void delete(Employee employee) {
-		employeeRepository.delete(employee);
+	@Transactional(readOnly = true)
+	public AvailabilityReport checkAvailability(Collection<String> emails, Collection<String> phoneNumbers) {
+
+		Set<String> uniqueEmails = new HashSet<>(emails);
+		Set<String> uniquePhoneNumbers = new HashSet<>(phoneNumbers);
+		Set<String> takenEmails = uniquenessIndex != null
+				? uniquenessIndex.findTakenEmails(uniqueEmails, this::findTakenEmails)
+				: findTakenEmails(uniqueEmails);
+		Set<String> takenPhoneNumbers = uniquenessIndex != null
+				? uniquenessIndex.findTakenPhoneNumbers(uniquePhoneNumbers, this::findTakenPhoneNumbers)
+				: findTakenPhoneNumbers(uniquePhoneNumbers);
+		return new AvailabilityReport(toAvailability(emails, takenEmails),
+				toAvailability(phoneNumbers, takenPhoneNumbers));
 	}
 
-	private StateMachine<EmployeeState, EmployeeEvent> buildStateMachine(Long employeeId) {
+	private Set<String> findTakenEmails(Collection<String> emails) {
+		return findIn(emails, employeeRepository::findEmailsIn);
+	}
 
-		Employee employee = employeeRepository.getOne(employeeId);
-		StateMachine<EmployeeState, EmployeeEvent> sm = stateMachineFactory
-				.getStateMachine(Long.toString(employee.getId()));
-		sm.stop();
-		sm.getStateMachineAccessor()
-				.doWithAllRegions(sma -> {
-					sma.addStateMachineInterceptor(employeeStateChangeInterceptor);
-					sma.resetStateMachine(new DefaultStateMachineContext<>(employee.getState(), null, null, null));
-				});
-		sm.start();
-		return sm;
-	}
-
-	private void sendEvent(Long employeeId, StateMachine<EmployeeState, EmployeeEvent> sm, EmployeeEvent event) {
-
-		Message<EmployeeEvent> msg = MessageBuilder.withPayload(event)
-				.setHeader(EMPLOYEE_ID_HEADER, employeeId)
-				.build();
-		sm.sendEvent(msg);
+	private Set<String> findTakenPhoneNumbers(Collection<String> phoneNumbers) {
+
+		Set<String> canonicals = new HashSet<>();
+		for (String phoneNumber : phoneNumbers) {
+			String canonical = PhoneNumbers.canonicalize(phoneNumber);
+			if (canonical != null)
+				canonicals.add(canonical);
+		}
+		Set<String> taken = findIn(canonicals, employeeRepository::findPhoneCanonicalsIn);
+		return phoneNumbers.stream()
+				.filter(phoneNumber -> taken.contains(PhoneNumbers.canonicalize(phoneNumber)))
+				.collect(Collectors.toSet());
+	}
+
+	private Set<String> findIn(Collection<String> values, Function<List<String>, List<String>> query) {
+
+		List<String> list = new ArrayList<>(values);
+		Set<String> found = new HashSet<>();
+		for (int from = 0; from < list.size(); from += availabilityChunkSize)
+			found.addAll(query.apply(list.subList(from, Math.min(list.size(), from + availabilityChunkSize))));
+		return found;
+	}
+
+	private static Map<String, Boolean> toAvailability(Collection<String> values, Set<String> taken) {
+		Map<String, Boolean> availability = new LinkedHashMap<>();
+		for (String value : values)
+			availability.put(value, !taken.contains(value));
+		return availability;
+	}
+
+	private boolean findPhoneNumber(String phoneNumber) {
+		String canonical = PhoneNumbers.canonicalize(phoneNumber);
+		return canonical != null && entityManager.unwrap(Session.class)
+				.bySimpleNaturalId(Employee.class)
+				.getReference(canonical) != null;
+	}
+
+	@Override
+	@Transactional
+	public void delete(Employee employee) {
+		employeeRepository.delete(employee);
+		employeeOutbox.publishDelete(employee.getId());
+		if (suggestIndex != null)
+			suggestIndex.remove(employee.getId());
 	}
 
 }
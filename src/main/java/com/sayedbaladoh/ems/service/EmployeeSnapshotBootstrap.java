@@ -0,0 +1,190 @@
+package com.sayedbaladoh.ems.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads the log-compacted employee snapshot topic into the
+ * {@link EmployeeReadModel} on startup, then starts the events listener from
+ * shortly before the load.
+ *
+ * Every snapshot partition is read up to its end offset by its own consumer,
+ * on up to <code>ems.snapshot.bootstrap-threads</code> threads. Application
+ * runners complete before the application is ready, so the node only accepts
+ * traffic once loaded. The progress is reported by the health endpoint as
+ * <code>employeeSnapshotBootstrap</code>. Enabled by
+ * <code>ems.read-model.enabled</code> and <code>ems.snapshot.enabled</code>.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+		name = { "ems.read-model.enabled", "ems.snapshot.enabled" },
+		havingValue = "true")
+public class EmployeeSnapshotBootstrap implements ApplicationRunner, HealthIndicator {
+
+	private final EmployeeReadModel readModel;
+	private final ConsumerFactory<String, byte[]> readModelConsumerFactory;
+	private final KafkaListenerEndpointRegistry registry;
+	private final String snapshotTopicName;
+	private final int threads;
+	private final long timeoutMillis;
+	private final long replayMarginMillis;
+
+	private final AtomicLong loaded = new AtomicLong();
+	private volatile long total = -1;
+	private volatile long startedAt;
+	private volatile long durationMillis = -1;
+	private volatile Throwable failure;
+
+	public EmployeeSnapshotBootstrap(EmployeeReadModel readModel,
+			ConsumerFactory<String, byte[]> readModelConsumerFactory, KafkaListenerEndpointRegistry registry,
+			@Value("${kafka.topic.snapshot-name:ems-employee-snapshot}") String snapshotTopicName,
+			@Value("${ems.snapshot.bootstrap-threads:4}") int threads,
+			@Value("${ems.snapshot.bootstrap-timeout:300000}") long timeoutMillis,
+			@Value("${ems.snapshot.replay-margin:60000}") long replayMarginMillis) {
+
+		this.readModel = readModel;
+		this.readModelConsumerFactory = readModelConsumerFactory;
+		this.registry = registry;
+		this.snapshotTopicName = snapshotTopicName;
+		this.threads = threads;
+		this.timeoutMillis = timeoutMillis;
+		this.replayMarginMillis = replayMarginMillis;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+
+		startedAt = System.currentTimeMillis();
+		readModel.setReplayFrom(startedAt - replayMarginMillis);
+		try {
+			load();
+			durationMillis = System.currentTimeMillis() - startedAt;
+			log.info("Loaded {} employee snapshots from {} in {} ms.", loaded.get(), snapshotTopicName,
+					durationMillis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			failure = e;
+		} catch (ExecutionException | TimeoutException | RuntimeException e) {
+			failure = e instanceof ExecutionException ? e.getCause() : e;
+			log.error("Unable to load the employee snapshots from {}. Error: {}.", snapshotTopicName,
+					failure.getMessage());
+		} finally {
+			// Events from before the replay timestamp are lost on failure, yet the
+			// node still converges for the employees changed afterwards
+			registry.getListenerContainer(EmployeeReadModel.LISTENER_ID).start();
+		}
+	}
+
+	@Override
+	public Health health() {
+
+		long loadedCount = loaded.get();
+		Health.Builder builder;
+		if (failure != null)
+			builder = Health.down().withException(failure);
+		else if (durationMillis < 0)
+			builder = Health.outOfService();
+		else
+			builder = Health.up().withDetail("durationMillis", durationMillis);
+
+		builder.withDetail("topic", snapshotTopicName).withDetail("loaded", loadedCount);
+		if (total >= 0) {
+			builder.withDetail("total", total);
+			builder.withDetail("progress", durationMillis >= 0 || total == 0 ? 100
+					: Math.min(99, loadedCount * 100 / total));
+		}
+		return builder.build();
+	}
+
+	private void load() throws InterruptedException, ExecutionException, TimeoutException {
+
+		Map<TopicPartition, Long> endOffsets;
+		Map<TopicPartition, Long> beginningOffsets;
+		try (Consumer<String, byte[]> consumer = readModelConsumerFactory.createConsumer()) {
+			List<PartitionInfo> infos = consumer.partitionsFor(snapshotTopicName);
+			List<TopicPartition> partitions = infos == null ? Collections.emptyList()
+					: infos.stream()
+							.map(info -> new TopicPartition(info.topic(), info.partition()))
+							.collect(Collectors.toList());
+			endOffsets = consumer.endOffsets(partitions);
+			beginningOffsets = consumer.beginningOffsets(partitions);
+		}
+		// Upper bound, compaction leaves fewer records than offsets
+		total = endOffsets.entrySet().stream()
+				.mapToLong(entry -> entry.getValue() - beginningOffsets.getOrDefault(entry.getKey(), 0L))
+				.sum();
+
+		List<TopicPartition> pending = endOffsets.entrySet().stream()
+				.filter(entry -> entry.getValue() > beginningOffsets.getOrDefault(entry.getKey(), 0L))
+				.map(Map.Entry::getKey)
+				.collect(Collectors.toList());
+		if (pending.isEmpty())
+			return;
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(Math.max(threads, 1), pending.size()));
+		try {
+			long deadline = startedAt + timeoutMillis;
+			List<Future<?>> futures = new ArrayList<>(pending.size());
+			for (TopicPartition partition : pending)
+				futures.add(executor.submit(() -> loadPartition(partition, endOffsets.get(partition), deadline)));
+			for (Future<?> future : futures)
+				future.get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private void loadPartition(TopicPartition partition, long endOffset, long deadline) {
+
+		try (Consumer<String, byte[]> consumer = readModelConsumerFactory.createConsumer()) {
+			consumer.assign(Collections.singletonList(partition));
+			consumer.seekToBeginning(Collections.singletonList(partition));
+
+			while (consumer.position(partition) < endOffset) {
+				if (System.currentTimeMillis() > deadline || Thread.currentThread().isInterrupted())
+					throw new IllegalStateException("Timed out loading the employee snapshots of " + partition);
+				for (ConsumerRecord<String, byte[]> record : consumer.poll(Duration.ofMillis(500))) {
+					try {
+						readModel.apply(record);
+					} catch (IOException | RuntimeException e) {
+						log.warn("Unable to apply employee snapshot at {}-{}@{}. Error: {}.", record.topic(),
+								record.partition(), record.offset(), e.getMessage());
+					}
+					loaded.incrementAndGet();
+				}
+			}
+		}
+	}
+}
@@ -2,7 +2,6 @@ package com.sayedbaladoh.ems.service;
 
 import java.util.Optional;
 
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.Message;
 import org.springframework.statemachine.StateMachine;
 import org.springframework.statemachine.state.State;
@@ -27,10 +26,8 @@ import lombok.extern.java.Log;
 public class EmployeeStateChangeInterceptor extends StateMachineInterceptorAdapter<EmployeeState, EmployeeEvent> {
 
 	private final EmployeeRepository employeeRepository;
-	private final KafkaProducerService kafkaSender;
-
-	@Value("${kafka.topic.name}")
-	private String topicName;
+	private final EmployeeOutbox employeeOutbox;
+	private final EmployeeStateHistoryWriter stateHistoryWriter;
 
 	@Override
 	public void preStateChange(State<EmployeeState, EmployeeEvent> state, Message<EmployeeEvent> message,
@@ -44,9 +41,11 @@ public class EmployeeStateChangeInterceptor extends StateMachineInterceptorAdapt
 						log.info(String.format("State will changed for Employee Id: %s, to State: -> %s.", employeeId,
 								state.getId()));
 						Employee employee = employeeRepository.getOne(employeeId);
+						EmployeeState fromState = employee.getState();
 						employee.setState(state.getId());
 						employeeRepository.save(employee);
-						kafkaSender.sendMessageWithCallback(employee, topicName);
+						employeeOutbox.publish(employee);
+						stateHistoryWriter.record(employeeId, fromState, state.getId(), msg.getPayload());
 					});
 		});
 	}
@@ -0,0 +1,161 @@
+package com.sayedbaladoh.ems.service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.sayedbaladoh.ems.errorhandler.ResourceNotFoundException;
+import com.sayedbaladoh.ems.errorhandler.ServiceUnavailableException;
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeEvent;
+import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.model.StateChangeTask;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.java.Log;
+
+/**
+ * Asynchronous employee state changes on a fixed set of single-writer lanes.
+ *
+ * Employee Ids are hashed onto the lanes, so the events of one employee are
+ * applied in order by the same thread while different employees proceed in
+ * parallel. Enabled by <code>ems.state-machine.async.enabled</code>.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Log
+@Component
+@ConditionalOnProperty(
+		name = "ems.state-machine.async.enabled",
+		havingValue = "true")
+public class EmployeeStateChangeLanes {
+
+	private final EmployeeService employeeService;
+	private final boolean compareAndSet;
+	private final long taskRetentionMillis;
+	private final ThreadPoolExecutor[] lanes;
+	private final Map<String, StateChangeTask> tasks = new ConcurrentHashMap<>();
+	private final Queue<StateChangeTask> completedTasks = new ConcurrentLinkedQueue<>();
+	private final Timer latencyTimer;
+
+	public EmployeeStateChangeLanes(EmployeeService employeeService, MeterRegistry meterRegistry,
+			@Value("${ems.state-machine.async.lanes:0}") int laneCount,
+			@Value("${ems.state-machine.async.queue-capacity:1000}") int queueCapacity,
+			@Value("${ems.state-machine.async.task-retention:300000}") long taskRetentionMillis,
+			@Value("${ems.state-machine.compare-and-set:false}") boolean compareAndSet) {
+
+		this.employeeService = employeeService;
+		this.compareAndSet = compareAndSet;
+		this.taskRetentionMillis = taskRetentionMillis;
+
+		int count = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+		this.lanes = new ThreadPoolExecutor[count];
+		for (int i = 0; i < count; i++) {
+			AtomicInteger threads = new AtomicInteger();
+			String name = "state-lane-" + i;
+			lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+					new LinkedBlockingQueue<>(queueCapacity),
+					runnable -> new Thread(runnable, name + "-" + threads.incrementAndGet()));
+
+			Gauge.builder("ems.statemachine.lane.queue", lanes[i], lane -> lane.getQueue().size())
+					.description("State changes waiting on the lane")
+					.tag("lane", String.valueOf(i))
+					.register(meterRegistry);
+		}
+
+		this.latencyTimer = Timer.builder("ems.statemachine.lane.latency")
+				.description("Time from accepting a state change to completing it")
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+
+		log.info(String.format("State change lanes initialized with %d lanes.", count));
+	}
+
+	/**
+	 * Queue a state change on the lane of the given employee.
+	 *
+	 * @param employeeId
+	 *            The employee Id.
+	 * @param event
+	 *            The event to change the employee state.
+	 * @return The pending state change.
+	 */
+	public StateChangeTask submit(Long employeeId, EmployeeEvent event) {
+
+		StateChangeTask task = new StateChangeTask(employeeId, event);
+		tasks.put(task.getId(), task);
+		try {
+			lanes[Math.floorMod(employeeId.hashCode(), lanes.length)].execute(() -> process(task));
+		} catch (RejectedExecutionException e) {
+			tasks.remove(task.getId());
+			throw new ServiceUnavailableException("State change queue is full, retry later.", e);
+		}
+		return task;
+	}
+
+	/**
+	 * Get a state change by Id.
+	 *
+	 * @param taskId
+	 *            The state change Id.
+	 * @return The state change, empty if unknown or expired.
+	 */
+	public Optional<StateChangeTask> get(String taskId) {
+		return Optional.ofNullable(tasks.get(taskId));
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		for (ThreadPoolExecutor lane : lanes)
+			lane.shutdown();
+	}
+
+	private void process(StateChangeTask task) {
+
+		task.running();
+		try {
+			EmployeeState state = compareAndSet
+					? employeeService.compareAndSetState(task.getEmployeeId(), task.getEvent())
+							.map(Employee::getState)
+							.orElseThrow(() -> new ResourceNotFoundException("Employee", "Id", task.getEmployeeId()))
+					: employeeService.changeState(task.getEmployeeId(), task.getEvent());
+			task.completed(state);
+		} catch (RuntimeException e) {
+			log.warning(String.format("State change %s for Employee Id: %s failed: %s", task.getId(),
+					task.getEmployeeId(), e.getMessage()));
+			task.failed(e.getMessage());
+		}
+
+		latencyTimer.record(task.getCompletedAt().toEpochMilli() - task.getSubmittedAt().toEpochMilli(),
+				TimeUnit.MILLISECONDS);
+		completedTasks.add(task);
+		expireTasks();
+	}
+
+	private void expireTasks() {
+
+		Instant expiry = Instant.now().minusMillis(taskRetentionMillis);
+		StateChangeTask oldest;
+		while ((oldest = completedTasks.peek()) != null && oldest.getCompletedAt().isBefore(expiry)) {
+			if (completedTasks.remove(oldest))
+				tasks.remove(oldest.getId());
+		}
+	}
+}
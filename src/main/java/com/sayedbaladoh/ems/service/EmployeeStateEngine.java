@@ -0,0 +1,32 @@
+package com.sayedbaladoh.ems.service;
+
+import com.sayedbaladoh.ems.model.EmployeeEvent;
+import com.sayedbaladoh.ems.model.EmployeeState;
+
+/**
+ * Applies employee events to the states defined in the state machine
+ * configuration.
+ * 
+ * The engine in use is selected by the <code>ems.state-machine.engine</code>
+ * property: <code>spring</code> (default) or <code>table</code>.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+public interface EmployeeStateEngine {
+
+	/**
+	 * Send an event for the given employee.
+	 * 
+	 * @param employeeId
+	 *            The employee Id.
+	 * @param currentState
+	 *            The employee current state.
+	 * @param event
+	 *            The event to change the employee state.
+	 * @return The employee state after the event, the current state if the event
+	 *         is not accepted.
+	 */
+	EmployeeState sendEvent(Long employeeId, EmployeeState currentState, EmployeeEvent event);
+
+}
@@ -0,0 +1,177 @@
+package com.sayedbaladoh.ems.service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sayedbaladoh.ems.model.EmployeeEvent;
+import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.model.EmployeeStateHistory;
+import com.sayedbaladoh.ems.repository.EmployeeStateJdbcRepository;
+
+import lombok.extern.java.Log;
+
+/**
+ * Appends employee state changes to the state history table in JDBC batches.
+ *
+ * Changes recorded inside a transaction are collected and appended just
+ * before it commits, in the same transaction, so the history commits or rolls
+ * back with the state change. Changes recorded outside a transaction are
+ * buffered and flushed every <code>ems.state-history.flush-interval</code> ms
+ * and on shutdown; a batch that fails is kept and retried first, with a delay
+ * doubling up to <code>ems.state-history.max-retry-delay</code> ms.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Log
+@Component
+public class EmployeeStateHistoryWriter {
+
+	private final EmployeeStateJdbcRepository employeeStateJdbcRepository;
+	private final BlockingQueue<EmployeeStateHistory> buffer;
+	private final int batchSize;
+	private final long retryDelayMillis;
+	private final long maxRetryDelayMillis;
+
+	// The batch that failed to append, retried before the buffer, guarded by this
+	private List<EmployeeStateHistory> failedBatch;
+	private long nextRetryDelayMillis;
+	private long retryAt;
+
+	public EmployeeStateHistoryWriter(EmployeeStateJdbcRepository employeeStateJdbcRepository,
+			@Value("${ems.state-history.batch-size:500}") int batchSize,
+			@Value("${ems.state-history.buffer-capacity:100000}") int bufferCapacity,
+			@Value("${ems.state-history.flush-interval:1000}") long retryDelayMillis,
+			@Value("${ems.state-history.max-retry-delay:60000}") long maxRetryDelayMillis) {
+		this.employeeStateJdbcRepository = employeeStateJdbcRepository;
+		this.batchSize = batchSize;
+		this.buffer = new LinkedBlockingQueue<>(bufferCapacity);
+		this.retryDelayMillis = retryDelayMillis;
+		this.maxRetryDelayMillis = maxRetryDelayMillis;
+		this.nextRetryDelayMillis = retryDelayMillis;
+	}
+
+	/**
+	 * Record an employee state change.
+	 *
+	 * @param employeeId
+	 *            The employee Id.
+	 * @param fromState
+	 *            The state before the change, <code>null</code> if unknown.
+	 * @param toState
+	 *            The state after the change.
+	 * @param event
+	 *            The event that changed the state, <code>null</code> for add and
+	 *            edit.
+	 */
+	public void record(Long employeeId, EmployeeState fromState, EmployeeState toState, EmployeeEvent event) {
+
+		EmployeeStateHistory change = new EmployeeStateHistory(null, employeeId, fromState, toState, event,
+				Instant.now());
+		if (TransactionSynchronizationManager.isSynchronizationActive()
+				&& TransactionSynchronizationManager.isActualTransactionActive()) {
+			transactionChanges().changes.add(change);
+		} else {
+			enqueue(change);
+		}
+	}
+
+	/**
+	 * Append the buffered state changes to the history table, starting with the
+	 * batch that failed last time once its retry delay has passed.
+	 */
+	@Scheduled(
+			fixedDelayString = "${ems.state-history.flush-interval:1000}")
+	@PreDestroy
+	public synchronized void flush() {
+
+		if (failedBatch != null) {
+			if (System.currentTimeMillis() < retryAt || !append(failedBatch))
+				return;
+			failedBatch = null;
+		}
+
+		List<EmployeeStateHistory> batch = new ArrayList<>(batchSize);
+		while (buffer.drainTo(batch, batchSize) > 0) {
+			if (!append(batch)) {
+				failedBatch = batch;
+				return;
+			}
+			batch = new ArrayList<>(batchSize);
+		}
+	}
+
+	/**
+	 * @return Whether the batch is appended, otherwise its retry is scheduled.
+	 */
+	private boolean append(List<EmployeeStateHistory> batch) {
+		try {
+			employeeStateJdbcRepository.appendHistory(batch);
+			nextRetryDelayMillis = retryDelayMillis;
+			return true;
+		} catch (RuntimeException e) {
+			log.severe(String.format(
+					"Unable to append %d state changes to the history, retrying in %d ms. Error: %s.",
+					batch.size(), nextRetryDelayMillis, e.getMessage()));
+			retryAt = System.currentTimeMillis() + nextRetryDelayMillis;
+			nextRetryDelayMillis = Math.min(nextRetryDelayMillis * 2, maxRetryDelayMillis);
+			return false;
+		}
+	}
+
+	private void enqueue(EmployeeStateHistory change) {
+		// Apply back pressure on the caller when the buffer is full
+		try {
+			while (!buffer.offer(change, retryDelayMillis, TimeUnit.MILLISECONDS))
+				flush();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while buffering a state change.", e);
+		}
+	}
+
+	/**
+	 * The changes recorded in the current transaction, appended before it
+	 * commits.
+	 */
+	private TransactionChanges transactionChanges() {
+
+		TransactionChanges changes = (TransactionChanges) TransactionSynchronizationManager.getResource(this);
+		if (changes == null) {
+			changes = new TransactionChanges();
+			TransactionSynchronizationManager.bindResource(this, changes);
+			TransactionSynchronizationManager.registerSynchronization(changes);
+		}
+		return changes;
+	}
+
+	private final class TransactionChanges implements TransactionSynchronization {
+
+		private final List<EmployeeStateHistory> changes = new ArrayList<>();
+
+		@Override
+		public void beforeCommit(boolean readOnly) {
+			// A failure rolls the state change back with its history
+			for (int from = 0; from < changes.size(); from += batchSize)
+				employeeStateJdbcRepository
+						.appendHistory(changes.subList(from, Math.min(changes.size(), from + batchSize)));
+		}
+
+		@Override
+		public void afterCompletion(int status) {
+			TransactionSynchronizationManager.unbindResourceIfPossible(EmployeeStateHistoryWriter.this);
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package com.sayedbaladoh.ems.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.config.StateMachineFactory;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
+import org.springframework.stereotype.Component;
+
+import com.sayedbaladoh.ems.model.EmployeeEvent;
+import com.sayedbaladoh.ems.model.EmployeeState;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.java.Log;
+
+/**
+ * Bounded pool of pre-built employee state machines.
+ *
+ * Each pooled machine is built once through the
+ * <code>StateMachineFactory</code> with the
+ * <code>EmployeeStateChangeInterceptor</code> already registered, so borrowing
+ * a machine only resets it to the employee's current state.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Log
+@Component
+@ConditionalOnProperty(
+		name = "ems.state-machine.engine",
+		havingValue = "spring",
+		matchIfMissing = true)
+public class EmployeeStateMachinePool {
+
+	private final StateMachineFactory<EmployeeState, EmployeeEvent> stateMachineFactory;
+	private final EmployeeStateChangeInterceptor employeeStateChangeInterceptor;
+	private final BlockingQueue<StateMachine<EmployeeState, EmployeeEvent>> idleMachines;
+	private final int size;
+	private final long maxWaitMillis;
+	private final Timer waitTimer;
+	// Numbers the machine Ids, replaced machines get new Ids
+	private final AtomicInteger machineCount = new AtomicInteger();
+
+	public EmployeeStateMachinePool(StateMachineFactory<EmployeeState, EmployeeEvent> stateMachineFactory,
+			EmployeeStateChangeInterceptor employeeStateChangeInterceptor, MeterRegistry meterRegistry,
+			@Value("${ems.state-machine.pool.size:8}") int size,
+			@Value("${ems.state-machine.pool.max-wait:2000}") long maxWaitMillis) {
+
+		this.stateMachineFactory = stateMachineFactory;
+		this.employeeStateChangeInterceptor = employeeStateChangeInterceptor;
+		this.size = size;
+		this.maxWaitMillis = maxWaitMillis;
+		this.idleMachines = new ArrayBlockingQueue<>(size);
+
+		for (int i = 0; i < size; i++)
+			idleMachines.add(buildStateMachine(machineCount.getAndIncrement()));
+
+		Gauge.builder("ems.statemachine.pool.size", this, pool -> pool.size)
+				.description("Number of state machines held by the pool")
+				.register(meterRegistry);
+		Gauge.builder("ems.statemachine.pool.idle", idleMachines, BlockingQueue::size)
+				.description("Number of state machines available for borrowing")
+				.register(meterRegistry);
+		this.waitTimer = Timer.builder("ems.statemachine.pool.wait")
+				.description("Time spent waiting to borrow a state machine")
+				.register(meterRegistry);
+
+		log.info(String.format("State machine pool initialized with %d machines.", size));
+	}
+
+	/**
+	 * Borrow a machine reset to the given state. The machine must be given back
+	 * with {@link #release(StateMachine)}.
+	 *
+	 * @param state
+	 *            The employee current state.
+	 * @return A started state machine positioned at the given state.
+	 */
+	public StateMachine<EmployeeState, EmployeeEvent> acquire(EmployeeState state) {
+
+		StateMachine<EmployeeState, EmployeeEvent> sm;
+		long start = System.nanoTime();
+		try {
+			sm = idleMachines.poll(maxWaitMillis, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for a state machine.", e);
+		} finally {
+			waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		}
+
+		if (sm == null)
+			throw new IllegalStateException(
+					String.format("No state machine available after waiting %d ms.", maxWaitMillis));
+
+		try {
+			sm.stop();
+			sm.getStateMachineAccessor()
+					.doWithAllRegions(sma -> sma
+							.resetStateMachine(new DefaultStateMachineContext<>(state, null, null, null)));
+			sm.start();
+		} catch (RuntimeException e) {
+			// The machine may be half reset, put a new one in its place
+			replace();
+			throw e;
+		}
+		return sm;
+	}
+
+	/**
+	 * Give a borrowed machine back to the pool.
+	 *
+	 * @param sm
+	 *            The machine returned by {@link #acquire(EmployeeState)}.
+	 */
+	public void release(StateMachine<EmployeeState, EmployeeEvent> sm) {
+		if (!idleMachines.offer(sm))
+			log.warning("State machine pool is full, dropping returned machine.");
+	}
+
+	/**
+	 * Build a machine in place of one that failed, so a failure does not
+	 * shrink the pool.
+	 */
+	private void replace() {
+		try {
+			release(buildStateMachine(machineCount.getAndIncrement()));
+		} catch (RuntimeException e) {
+			log.severe("Cannot replace a failed state machine, the pool shrinks by one: " + e.getMessage());
+		}
+	}
+
+	private StateMachine<EmployeeState, EmployeeEvent> buildStateMachine(int index) {
+
+		StateMachine<EmployeeState, EmployeeEvent> sm = stateMachineFactory
+				.getStateMachine("employee-state-machine-" + index);
+		sm.getStateMachineAccessor()
+				.doWithAllRegions(sma -> sma.addStateMachineInterceptor(employeeStateChangeInterceptor));
+		return sm;
+	}
+}
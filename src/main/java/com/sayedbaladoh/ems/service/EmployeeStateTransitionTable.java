@@ -0,0 +1,109 @@
+package com.sayedbaladoh.ems.service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.messaging.Message;
+import org.springframework.statemachine.StateContext;
+import org.springframework.statemachine.StateContext.Stage;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.action.Action;
+import org.springframework.statemachine.config.StateMachineFactory;
+import org.springframework.statemachine.support.DefaultExtendedState;
+import org.springframework.statemachine.support.DefaultStateContext;
+import org.springframework.statemachine.transition.Transition;
+import org.springframework.stereotype.Component;
+
+import com.sayedbaladoh.ems.model.EmployeeEvent;
+import com.sayedbaladoh.ems.model.EmployeeState;
+
+/**
+ * The transitions declared in <code>StateMachineConfig</code> compiled into a
+ * state/event lookup table.
+ * 
+ * The table is read once from a machine built by the
+ * <code>StateMachineFactory</code>, so it always matches the configured graph
+ * including the transition actions.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+@Component
+public class EmployeeStateTransitionTable {
+
+	private final StateMachine<EmployeeState, EmployeeEvent> definition;
+	private final Map<EmployeeState, EnumMap<EmployeeEvent, Transition<EmployeeState, EmployeeEvent>>> transitions = new EnumMap<>(
+			EmployeeState.class);
+
+	public EmployeeStateTransitionTable(StateMachineFactory<EmployeeState, EmployeeEvent> stateMachineFactory) {
+
+		definition = stateMachineFactory.getStateMachine("employee-state-transitions");
+		for (Transition<EmployeeState, EmployeeEvent> transition : definition.getTransitions()) {
+			if (transition.getTrigger() == null || transition.getTrigger().getEvent() == null)
+				continue;
+
+			transitions.computeIfAbsent(transition.getSource().getId(), state -> new EnumMap<>(EmployeeEvent.class))
+					.putIfAbsent(transition.getTrigger().getEvent(), transition);
+		}
+	}
+
+	/**
+	 * Find the transition triggered by an event in a given state.
+	 * 
+	 * @param source
+	 *            The current state.
+	 * @param event
+	 *            The event.
+	 * @return The transition or <code>null</code> if the event is not accepted in
+	 *         the given state.
+	 */
+	public Transition<EmployeeState, EmployeeEvent> find(EmployeeState source, EmployeeEvent event) {
+		EnumMap<EmployeeEvent, Transition<EmployeeState, EmployeeEvent>> byEvent = transitions.get(source);
+		return byEvent == null ? null : byEvent.get(event);
+	}
+
+	/**
+	 * Resolve the state an event leads to.
+	 * 
+	 * @param source
+	 *            The current state.
+	 * @param event
+	 *            The event.
+	 * @return The target state, empty if the event is not accepted in the given
+	 *         state.
+	 */
+	public Optional<EmployeeState> target(EmployeeState source, EmployeeEvent event) {
+		return Optional.ofNullable(find(source, event))
+				.map(transition -> transition.getTarget().getId());
+	}
+
+	/**
+	 * Execute the actions configured for a transition.
+	 * 
+	 * @param transition
+	 *            The transition being taken.
+	 * @param message
+	 *            The event message.
+	 */
+	public void executeActions(Transition<EmployeeState, EmployeeEvent> transition, Message<EmployeeEvent> message) {
+
+		if (transition.getActions() == null || transition.getActions().isEmpty())
+			return;
+
+		StateContext<EmployeeState, EmployeeEvent> context = new DefaultStateContext<>(Stage.TRANSITION, message,
+				message.getHeaders(), new DefaultExtendedState(), transition, definition, transition.getSource(),
+				transition.getTarget(), null);
+		for (Action<EmployeeState, EmployeeEvent> action : transition.getActions())
+			action.execute(context);
+	}
+
+	/**
+	 * Get the machine the table was compiled from.
+	 * 
+	 * @return The machine holding the configured states and transitions.
+	 */
+	public StateMachine<EmployeeState, EmployeeEvent> getDefinition() {
+		return definition;
+	}
+}
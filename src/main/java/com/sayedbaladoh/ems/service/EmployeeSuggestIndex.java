@@ -0,0 +1,235 @@
+package com.sayedbaladoh.ems.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeSuggestion;
+import com.sayedbaladoh.ems.repository.EmployeeRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory suggestion index over the employee first and last names,
+ * positions and emails, answering partial name queries without scanning the
+ * <code>employees</code> table.
+ *
+ * The index is loaded from the database on startup, before the application
+ * is ready, and rebuilt by <code>ems.suggest.rebuild-cron</code>. Between
+ * rebuilds it is kept up to date by the employee service once its
+ * transactions commit; changes made while a rebuild loads are replayed onto
+ * the rebuilt index before it replaces the current one. Changes made by other
+ * nodes are picked up by the next rebuild. Enabled by
+ * <code>ems.suggest.enabled</code>.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+		name = "ems.suggest.enabled",
+		havingValue = "true")
+public class EmployeeSuggestIndex implements ApplicationRunner {
+
+	private final EmployeeRepository employeeRepository;
+	private final int batchSize;
+	private final int maxCandidates;
+	private final Timer queryTimer;
+	private final Timer rebuildTimer;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final AtomicBoolean rebuilding = new AtomicBoolean();
+	private final AtomicLong rebuildLoaded = new AtomicLong();
+	private volatile long rebuildTotal;
+
+	// Guarded by lock
+	private EmployeeTermIndex index = new EmployeeTermIndex();
+	// Guarded by lock, changes to replay onto the index being rebuilt
+	private List<Consumer<EmployeeTermIndex>> pending;
+
+	public EmployeeSuggestIndex(EmployeeRepository employeeRepository, MeterRegistry meterRegistry,
+			@Value("${ems.suggest.rebuild-batch-size:1000}") int batchSize,
+			@Value("${ems.suggest.max-candidates:1000}") int maxCandidates) {
+
+		this.employeeRepository = employeeRepository;
+		this.batchSize = batchSize;
+		this.maxCandidates = maxCandidates;
+
+		Gauge.builder("ems.suggest.size", this, EmployeeSuggestIndex::size)
+				.description("Employees in the suggestion index")
+				.register(meterRegistry);
+		Gauge.builder("ems.suggest.rebuild.loaded", rebuildLoaded, AtomicLong::get)
+				.description("Employees loaded by the current or last suggestion index rebuild")
+				.register(meterRegistry);
+		Gauge.builder("ems.suggest.rebuild.progress", this, EmployeeSuggestIndex::getRebuildProgress)
+				.description("Progress of the current or last suggestion index rebuild, from 0 to 1")
+				.register(meterRegistry);
+		this.queryTimer = Timer.builder("ems.suggest.query")
+				.description("Time to answer a suggestion query")
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+		this.rebuildTimer = Timer.builder("ems.suggest.rebuild")
+				.description("Time to rebuild the suggestion index from the database")
+				.register(meterRegistry);
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		rebuild();
+	}
+
+	/**
+	 * Index an added or edited employee once the current transaction commits.
+	 */
+	public void put(Employee employee) {
+		EmployeeSuggestion suggestion = EmployeeSuggestion.of(employee);
+		afterCommit(terms -> terms.put(suggestion));
+	}
+
+	/**
+	 * Remove a deleted employee once the current transaction commits.
+	 */
+	public void remove(Long employeeId) {
+		afterCommit(terms -> terms.remove(employeeId));
+	}
+
+	/**
+	 * Find the employees whose first name, last name, position or email
+	 * contain every term of the query.
+	 *
+	 * @param query
+	 *            The partial names, positions or emails.
+	 * @param limit
+	 *            The maximum number of employees.
+	 * @return The matching employees, term prefix matches first.
+	 */
+	public List<EmployeeSuggestion> suggest(String query, int limit) {
+		return queryTimer.record(() -> {
+			lock.readLock().lock();
+			try {
+				return index.search(query, limit, maxCandidates);
+			} finally {
+				lock.readLock().unlock();
+			}
+		});
+	}
+
+	/**
+	 * Rebuild the index from the database, in pages of
+	 * <code>ems.suggest.rebuild-batch-size</code> employees. Queries are
+	 * answered from the current index until the rebuilt one replaces it.
+	 */
+	@Scheduled(
+			cron = "${ems.suggest.rebuild-cron:-}")
+	public void rebuild() {
+
+		if (!rebuilding.compareAndSet(false, true)) {
+			log.info("Suggestion index rebuild already running");
+			return;
+		}
+		try {
+			rebuildTimer.record(this::load);
+		} catch (RuntimeException e) {
+			log.error("Suggestion index rebuild failed, keeping the current index", e);
+		} finally {
+			lock.writeLock().lock();
+			try {
+				pending = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+			rebuilding.set(false);
+		}
+	}
+
+	private void load() {
+
+		lock.writeLock().lock();
+		try {
+			pending = new ArrayList<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		rebuildLoaded.set(0);
+		rebuildTotal = employeeRepository.count();
+
+		EmployeeTermIndex rebuilt = new EmployeeTermIndex();
+		long after = 0;
+		List<EmployeeSuggestion> batch;
+		do {
+			batch = employeeRepository.findSuggestionsAfter(after, PageRequest.of(0, batchSize));
+			batch.forEach(rebuilt::put);
+			rebuildLoaded.addAndGet(batch.size());
+			if (!batch.isEmpty())
+				after = batch.get(batch.size() - 1).getId();
+		} while (batch.size() == batchSize);
+
+		lock.writeLock().lock();
+		try {
+			pending.forEach(change -> change.accept(rebuilt));
+			index = rebuilt;
+		} finally {
+			lock.writeLock().unlock();
+		}
+		log.info("Suggestion index rebuilt with {} employees", rebuilt.size());
+	}
+
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return index.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public double getRebuildProgress() {
+		long total = rebuildTotal;
+		return total == 0 ? 1 : Math.min(1, (double) rebuildLoaded.get() / total);
+	}
+
+	private void afterCommit(Consumer<EmployeeTermIndex> change) {
+
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					apply(change);
+				}
+			});
+		} else {
+			apply(change);
+		}
+	}
+
+	private void apply(Consumer<EmployeeTermIndex> change) {
+
+		lock.writeLock().lock();
+		try {
+			change.accept(index);
+			if (pending != null)
+				pending.add(change);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+}
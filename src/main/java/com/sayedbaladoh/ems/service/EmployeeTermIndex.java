@@ -0,0 +1,346 @@
+package com.sayedbaladoh.ems.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.sayedbaladoh.ems.model.EmployeeSuggestion;
+
+/**
+ * Inverted index of the employee first and last names, positions and emails.
+ *
+ * The values are lower-cased and split into terms at every character that is
+ * not a letter or digit. Every term is inserted into a prefix trie and its
+ * trigrams into sorted postings lists of employee Ids. A query term is looked
+ * up as a term prefix in the trie first, then, from three characters, as a term
+ * substring by intersecting the postings of its trigrams; every candidate is
+ * checked against all the query terms before it is returned. Candidates
+ * examined per query are bounded, so a query costs the same whatever the index
+ * size.
+ *
+ * Not thread safe, {@link EmployeeSuggestIndex} guards it with a read-write
+ * lock. Trie nodes of removed terms are kept until the index is rebuilt.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+class EmployeeTermIndex {
+
+	private static final char[] NO_KEYS = new char[0];
+	private static final TrieNode[] NO_CHILDREN = new TrieNode[0];
+
+	private final Map<Long, Entry> entries = new HashMap<>();
+	private final Map<Long, Postings> trigrams = new HashMap<>();
+	private final TrieNode root = new TrieNode();
+
+	int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Add an employee, replacing its previous values.
+	 */
+	void put(EmployeeSuggestion suggestion) {
+
+		long id = suggestion.getId();
+		remove(id);
+		Entry entry = new Entry(suggestion);
+		entries.put(id, entry);
+		for (String term : entry.terms()) {
+			root.insert(term).postings().add(id);
+			for (int i = 0; i + 3 <= term.length(); i++)
+				trigrams.computeIfAbsent(trigram(term, i), key -> new Postings()).add(id);
+		}
+	}
+
+	void remove(long id) {
+
+		Entry entry = entries.remove(id);
+		if (entry == null)
+			return;
+		for (String term : entry.terms()) {
+			TrieNode node = root.find(term);
+			if (node != null && node.ids != null)
+				node.ids.remove(id);
+			for (int i = 0; i + 3 <= term.length(); i++) {
+				Long key = trigram(term, i);
+				Postings postings = trigrams.get(key);
+				if (postings != null && postings.remove(id) && postings.size == 0)
+					trigrams.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Find the employees whose values contain every query term, term prefix
+	 * matches first.
+	 *
+	 * @param query
+	 *            The query text.
+	 * @param limit
+	 *            The maximum number of employees.
+	 * @param maxCandidates
+	 *            The maximum number of candidates examined.
+	 */
+	List<EmployeeSuggestion> search(String query, int limit, int maxCandidates) {
+
+		List<String> terms = terms(query);
+		if (terms.isEmpty())
+			return new ArrayList<>();
+		// The longest term is the most selective
+		String driver = terms.stream().max(Comparator.comparingInt(String::length)).get();
+		Collector collector = new Collector(terms, limit, maxCandidates);
+
+		TrieNode node = root.find(driver);
+		boolean more = node == null || node.collect(collector);
+		if (more && driver.length() >= 3)
+			collectSubstring(driver, collector);
+		return collector.results;
+	}
+
+	private void collectSubstring(String term, Collector collector) {
+
+		Postings[] lists = new Postings[term.length() - 2];
+		for (int i = 0; i < lists.length; i++) {
+			lists[i] = trigrams.get(trigram(term, i));
+			if (lists[i] == null)
+				return;
+		}
+		Arrays.sort(lists, Comparator.comparingInt(postings -> postings.size));
+
+		Postings smallest = lists[0];
+		candidates: for (int i = 0; i < smallest.size; i++) {
+			long id = smallest.ids[i];
+			for (int j = 1; j < lists.length; j++)
+				if (!lists[j].contains(id)) {
+					if (!collector.skip())
+						return;
+					continue candidates;
+				}
+			if (!collector.offer(id))
+				return;
+		}
+	}
+
+	/**
+	 * The distinct lower-case terms of a text, in order.
+	 */
+	static List<String> terms(String text) {
+
+		List<String> terms = new ArrayList<>();
+		if (text == null)
+			return terms;
+		String lower = text.toLowerCase(Locale.ROOT);
+		int start = -1;
+		for (int i = 0; i <= lower.length(); i++) {
+			boolean termChar = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+			if (termChar && start < 0) {
+				start = i;
+			} else if (!termChar && start >= 0) {
+				String term = lower.substring(start, i);
+				if (!terms.contains(term))
+					terms.add(term);
+				start = -1;
+			}
+		}
+		return terms;
+	}
+
+	private static Long trigram(String term, int start) {
+		return (long) term.charAt(start) << 32 | (long) term.charAt(start + 1) << 16 | term.charAt(start + 2);
+	}
+
+	/**
+	 * An indexed employee and its terms, separated by a space.
+	 */
+	private static final class Entry {
+
+		private final EmployeeSuggestion suggestion;
+		private final String text;
+
+		Entry(EmployeeSuggestion suggestion) {
+
+			this.suggestion = suggestion;
+			List<String> terms = new ArrayList<>();
+			for (String value : new String[] { suggestion.getFirstName(), suggestion.getLastName(),
+					suggestion.getPosition(), suggestion.getEmail() })
+				for (String term : EmployeeTermIndex.terms(value))
+					if (!terms.contains(term))
+						terms.add(term);
+			this.text = String.join(" ", terms);
+		}
+
+		String[] terms() {
+			return text.isEmpty() ? new String[0] : text.split(" ");
+		}
+
+		boolean matches(List<String> queryTerms) {
+			for (String term : queryTerms)
+				if (!text.contains(term))
+					return false;
+			return true;
+		}
+	}
+
+	/**
+	 * Collects the matching employees of a query, in offer order.
+	 */
+	private final class Collector {
+
+		private final List<String> terms;
+		private final int limit;
+		private final List<EmployeeSuggestion> results = new ArrayList<>();
+		private final Set<Long> seen = new HashSet<>();
+		private int budget;
+
+		Collector(List<String> terms, int limit, int maxCandidates) {
+			this.terms = terms;
+			this.limit = limit;
+			this.budget = maxCandidates;
+		}
+
+		/**
+		 * Examine a candidate.
+		 *
+		 * @return Whether more candidates are wanted.
+		 */
+		boolean offer(long id) {
+
+			if (seen.add(id)) {
+				Entry entry = entries.get(id);
+				if (entry != null && entry.matches(terms))
+					results.add(entry.suggestion);
+			}
+			return skip();
+		}
+
+		/**
+		 * Count a candidate rejected without examining it.
+		 *
+		 * @return Whether more candidates are wanted.
+		 */
+		boolean skip() {
+			return --budget > 0 && results.size() < limit;
+		}
+	}
+
+	/**
+	 * A trie node, with its children sorted by key character and the Ids of the
+	 * employees having the term ending at it.
+	 */
+	private static final class TrieNode {
+
+		private char[] keys = NO_KEYS;
+		private TrieNode[] children = NO_CHILDREN;
+		private Postings ids;
+
+		TrieNode find(String term) {
+
+			TrieNode node = this;
+			for (int i = 0; i < term.length() && node != null; i++) {
+				int index = Arrays.binarySearch(node.keys, term.charAt(i));
+				node = index < 0 ? null : node.children[index];
+			}
+			return node;
+		}
+
+		TrieNode insert(String term) {
+
+			TrieNode node = this;
+			for (int i = 0; i < term.length(); i++) {
+				char key = term.charAt(i);
+				int index = Arrays.binarySearch(node.keys, key);
+				if (index < 0) {
+					index = -index - 1;
+					node.keys = insertAt(node.keys, index, key);
+					node.children = insertAt(node.children, index, new TrieNode());
+				}
+				node = node.children[index];
+			}
+			return node;
+		}
+
+		Postings postings() {
+			if (ids == null)
+				ids = new Postings();
+			return ids;
+		}
+
+		/**
+		 * Offer the Ids of this node, then of its children in key order, so
+		 * shorter terms come first.
+		 *
+		 * @return Whether more candidates are wanted.
+		 */
+		boolean collect(Collector collector) {
+
+			if (ids != null)
+				for (int i = 0; i < ids.size; i++)
+					if (!collector.offer(ids.ids[i]))
+						return false;
+			for (TrieNode child : children)
+				if (!child.collect(collector))
+					return false;
+			return true;
+		}
+
+		private static char[] insertAt(char[] array, int index, char value) {
+			char[] grown = new char[array.length + 1];
+			System.arraycopy(array, 0, grown, 0, index);
+			grown[index] = value;
+			System.arraycopy(array, index, grown, index + 1, array.length - index);
+			return grown;
+		}
+
+		private static TrieNode[] insertAt(TrieNode[] array, int index, TrieNode value) {
+			TrieNode[] grown = new TrieNode[array.length + 1];
+			System.arraycopy(array, 0, grown, 0, index);
+			grown[index] = value;
+			System.arraycopy(array, index, grown, index + 1, array.length - index);
+			return grown;
+		}
+	}
+
+	/**
+	 * A sorted set of employee Ids. Ids are assigned in increasing order, so
+	 * adds are mostly appends.
+	 */
+	private static final class Postings {
+
+		private long[] ids = new long[1];
+		private int size;
+
+		void add(long id) {
+
+			int index = size == 0 || ids[size - 1] < id ? -size - 1 : Arrays.binarySearch(ids, 0, size, id);
+			if (index >= 0)
+				return;
+			index = -index - 1;
+			if (size == ids.length)
+				ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+			System.arraycopy(ids, index, ids, index + 1, size - index);
+			ids[index] = id;
+			size++;
+		}
+
+		boolean remove(long id) {
+
+			int index = Arrays.binarySearch(ids, 0, size, id);
+			if (index < 0)
+				return false;
+			System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+			size--;
+			return true;
+		}
+
+		boolean contains(long id) {
+			return Arrays.binarySearch(ids, 0, size, id) >= 0;
+		}
+	}
+}
@@ -0,0 +1,356 @@
+package com.sayedbaladoh.ems.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeIdentity;
+import com.sayedbaladoh.ems.repository.EmployeeRepository;
+import com.sayedbaladoh.ems.validator.PhoneNumbers;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory uniqueness index of the employee emails and phone numbers, one
+ * Bloom filter each, answering "not taken" without a query.
+ *
+ * A value missing from its filter is definitely not taken; a value present is
+ * only possibly taken and is checked against the database. The filters are
+ * loaded on startup, until then every check queries the database, and rebuilt
+ * by <code>ems.uniqueness.rebuild-cron</code>. Added and edited values are put
+ * in the filters before their transaction commits and again once it commits,
+ * so a committed value is never missed, even by a rebuild in progress.
+ * Filters cannot forget: values of deleted employees and replaced values stay
+ * possibly taken until the next rebuild. Values of other nodes are put by the
+ * next rebuild too, until then the unique constraints reject them. Enabled by
+ * <code>ems.uniqueness.enabled</code>.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+		name = "ems.uniqueness.enabled",
+		havingValue = "true")
+public class EmployeeUniquenessIndex implements ApplicationRunner {
+
+	private final EmployeeRepository employeeRepository;
+	private final long expectedInsertions;
+	private final double falsePositiveProbability;
+	private final int batchSize;
+	private final FieldMetrics emailMetrics;
+	private final FieldMetrics phoneNumberMetrics;
+
+	private final AtomicBoolean rebuilding = new AtomicBoolean();
+	// null until loaded
+	private volatile Filters current;
+	// The filters being rebuilt, null between rebuilds
+	private volatile Filters building;
+
+	public EmployeeUniquenessIndex(EmployeeRepository employeeRepository, MeterRegistry meterRegistry,
+			@Value("${ems.uniqueness.expected-insertions:1000000}") long expectedInsertions,
+			@Value("${ems.uniqueness.false-positive-probability:0.01}") double falsePositiveProbability,
+			@Value("${ems.uniqueness.rebuild-batch-size:1000}") int batchSize) {
+
+		this.employeeRepository = employeeRepository;
+		this.expectedInsertions = expectedInsertions;
+		this.falsePositiveProbability = falsePositiveProbability;
+		this.batchSize = batchSize;
+		this.emailMetrics = new FieldMetrics("email", filters -> filters.emails, meterRegistry);
+		this.phoneNumberMetrics = new FieldMetrics("phone_number", filters -> filters.phoneNumbers,
+				meterRegistry);
+
+		Gauge.builder("ems.uniqueness.memory", this, EmployeeUniquenessIndex::getSizeInBytes)
+				.description("Memory used by the uniqueness filters")
+				.baseUnit("bytes")
+				.register(meterRegistry);
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		rebuild();
+	}
+
+	/**
+	 * Put the email and phone number of an added or edited employee, now and
+	 * once the current transaction commits.
+	 */
+	public void put(Employee employee) {
+
+		String email = normalizeEmail(employee.getEmail());
+		String phoneNumber = employee.getPhoneCanonical();
+		put(building, email, phoneNumber);
+		put(current, email, phoneNumber);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					// Building first: a rebuild swaps current before it clears building
+					put(building, email, phoneNumber);
+					put(current, email, phoneNumber);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Whether an employee has the email, from the database only when the email
+	 * is possibly taken.
+	 *
+	 * @param email
+	 *            The email.
+	 * @param database
+	 *            Checks the email against the database.
+	 */
+	public boolean isEmailTaken(String email, Predicate<String> database) {
+		return isTaken(email, normalizeEmail(email), database, emailMetrics);
+	}
+
+	/**
+	 * Whether an employee has the phone number, from the database only when the
+	 * phone number is possibly taken.
+	 *
+	 * @param phoneNumber
+	 *            The phone number.
+	 * @param database
+	 *            Checks the phone number against the database.
+	 */
+	public boolean isPhoneNumberTaken(String phoneNumber, Predicate<String> database) {
+		return isTaken(phoneNumber, normalizePhoneNumber(phoneNumber), database, phoneNumberMetrics);
+	}
+
+	/**
+	 * The emails employees have, from the database only for the emails that
+	 * are possibly taken.
+	 *
+	 * @param emails
+	 *            The emails.
+	 * @param database
+	 *            Finds the given emails in the database.
+	 */
+	public Set<String> findTakenEmails(Collection<String> emails,
+			Function<Collection<String>, Set<String>> database) {
+		return findTaken(emails, EmployeeUniquenessIndex::normalizeEmail, database, emailMetrics);
+	}
+
+	/**
+	 * The phone numbers employees have, from the database only for the phone
+	 * numbers that are possibly taken.
+	 *
+	 * @param phoneNumbers
+	 *            The phone numbers.
+	 * @param database
+	 *            Finds the given phone numbers in the database.
+	 */
+	public Set<String> findTakenPhoneNumbers(Collection<String> phoneNumbers,
+			Function<Collection<String>, Set<String>> database) {
+		return findTaken(phoneNumbers, EmployeeUniquenessIndex::normalizePhoneNumber, database,
+				phoneNumberMetrics);
+	}
+
+	/**
+	 * Rebuild the filters from the database, in pages of
+	 * <code>ems.uniqueness.rebuild-batch-size</code> employees. The filters are
+	 * sized for twice the current employees, at least
+	 * <code>ems.uniqueness.expected-insertions</code>. Checks use the current
+	 * filters until the rebuilt ones replace them.
+	 */
+	@Scheduled(
+			cron = "${ems.uniqueness.rebuild-cron:-}")
+	public void rebuild() {
+
+		if (!rebuilding.compareAndSet(false, true)) {
+			log.info("Uniqueness index rebuild already running");
+			return;
+		}
+		try {
+			long started = System.currentTimeMillis();
+			long count = employeeRepository.count();
+			Filters rebuilt = new Filters(Math.max(expectedInsertions, 2 * count), falsePositiveProbability);
+			building = rebuilt;
+
+			long after = 0;
+			List<EmployeeIdentity> batch;
+			do {
+				batch = employeeRepository.findIdentitiesAfter(after, PageRequest.of(0, batchSize));
+				batch.forEach(identity -> put(rebuilt, normalizeEmail(identity.getEmail()),
+						identity.getPhoneCanonical()));
+				if (!batch.isEmpty())
+					after = batch.get(batch.size() - 1).getId();
+			} while (batch.size() == batchSize);
+
+			current = rebuilt;
+			log.info("Uniqueness index rebuilt with {} employees in {} ms, {} bytes", count,
+					System.currentTimeMillis() - started, rebuilt.getSizeInBytes());
+		} catch (RuntimeException e) {
+			log.error("Uniqueness index rebuild failed, keeping the current index", e);
+		} finally {
+			building = null;
+			rebuilding.set(false);
+		}
+	}
+
+	public boolean isLoaded() {
+		return current != null;
+	}
+
+	public long getSizeInBytes() {
+		Filters rebuilt = building;
+		Filters filters = current;
+		long size = filters == null ? 0 : filters.getSizeInBytes();
+		return rebuilt == null || rebuilt == filters ? size : size + rebuilt.getSizeInBytes();
+	}
+
+	private boolean isTaken(String value, String normalized, Predicate<String> database, FieldMetrics metrics) {
+
+		if (value == null)
+			return database.test(value);
+		Filters filters = current;
+		if (filters != null && !metrics.filter.apply(filters).mightContain(normalized)) {
+			metrics.absent.increment();
+			return false;
+		}
+		boolean taken = database.test(value);
+		if (filters != null)
+			(taken ? metrics.taken : metrics.falsePositives).increment();
+		return taken;
+	}
+
+	private Set<String> findTaken(Collection<String> values, UnaryOperator<String> normalizer,
+			Function<Collection<String>, Set<String>> database, FieldMetrics metrics) {
+
+		Filters filters = current;
+		if (filters == null)
+			return database.apply(values);
+		BloomFilter filter = metrics.filter.apply(filters);
+		List<String> possible = new ArrayList<>(values.size());
+		for (String value : values) {
+			if (filter.mightContain(normalizer.apply(value)))
+				possible.add(value);
+			else
+				metrics.absent.increment();
+		}
+		if (possible.isEmpty())
+			return Collections.emptySet();
+		Set<String> taken = database.apply(possible);
+		metrics.taken.increment(taken.size());
+		metrics.falsePositives.increment(possible.size() - taken.size());
+		return taken;
+	}
+
+	private static void put(Filters filters, String email, String phoneNumber) {
+		if (filters == null)
+			return;
+		if (email != null)
+			filters.emails.put(email);
+		if (phoneNumber != null)
+			filters.phoneNumbers.put(phoneNumber);
+	}
+
+	/**
+	 * Emails differing only in case or surrounding blanks share a key, so a
+	 * missing key rules out every spelling the database could match.
+	 */
+	static String normalizeEmail(String email) {
+		return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Phone numbers with the same canonical form share a key. Invalid phone
+	 * numbers, never stored, keep their own.
+	 */
+	static String normalizePhoneNumber(String phoneNumber) {
+		String canonical = PhoneNumbers.canonicalize(phoneNumber);
+		return canonical != null ? canonical : phoneNumber;
+	}
+
+	/**
+	 * The email and phone number filters.
+	 */
+	private static final class Filters {
+
+		private final BloomFilter emails;
+		private final BloomFilter phoneNumbers;
+
+		Filters(long expectedInsertions, double falsePositiveProbability) {
+			this.emails = new BloomFilter(expectedInsertions, falsePositiveProbability);
+			this.phoneNumbers = new BloomFilter(expectedInsertions, falsePositiveProbability);
+		}
+
+		long getSizeInBytes() {
+			return emails.getSizeInBytes() + phoneNumbers.getSizeInBytes();
+		}
+	}
+
+	/**
+	 * The check counters of one field: answered absent from memory, found
+	 * taken in the database, and possibly taken but not found, the false
+	 * positives. Their observed rate is reported with the rate expected from
+	 * the filter fill.
+	 */
+	private final class FieldMetrics {
+
+		private final Function<Filters, BloomFilter> filter;
+		private final Counter absent;
+		private final Counter taken;
+		private final Counter falsePositives;
+
+		FieldMetrics(String field, Function<Filters, BloomFilter> filter, MeterRegistry meterRegistry) {
+
+			this.filter = filter;
+			this.absent = counter(field, "absent", meterRegistry);
+			this.taken = counter(field, "taken", meterRegistry);
+			this.falsePositives = counter(field, "false_positive", meterRegistry);
+
+			Gauge.builder("ems.uniqueness.false-positive-rate", this, FieldMetrics::getFalsePositiveRate)
+					.description("Share of the values not taken that were checked against the database")
+					.tag("field", field)
+					.register(meterRegistry);
+			Gauge.builder("ems.uniqueness.expected-false-positive-rate", this,
+					FieldMetrics::getExpectedFalsePositiveRate)
+					.description("False positive probability of the filter, estimated from its set bits")
+					.tag("field", field)
+					.register(meterRegistry);
+		}
+
+		private Counter counter(String field, String result, MeterRegistry meterRegistry) {
+			return Counter.builder("ems.uniqueness.checks")
+					.description("Uniqueness checks by result")
+					.tag("field", field)
+					.tag("result", result)
+					.register(meterRegistry);
+		}
+
+		double getFalsePositiveRate() {
+			double notTaken = absent.count() + falsePositives.count();
+			return notTaken == 0 ? 0 : falsePositives.count() / notTaken;
+		}
+
+		double getExpectedFalsePositiveRate() {
+			Filters filters = current;
+			return filters == null ? 0 : filter.apply(filters).getExpectedFalsePositiveProbability();
+		}
+	}
+}
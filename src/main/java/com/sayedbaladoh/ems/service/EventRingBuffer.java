@@ -0,0 +1,97 @@
+package com.sayedbaladoh.ems.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free ring buffer for many producers and a single consumer.
+ *
+ * Every slot carries a sequence number: a producer claims a position with a
+ * CAS on the tail, writes the element and publishes it by advancing the slot
+ * sequence; the consumer takes the element once the sequence shows it is
+ * published and frees the slot by advancing the sequence by one lap.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+class EventRingBuffer<E> {
+
+	private final Object[] elements;
+	private final AtomicLongArray sequences;
+	private final int mask;
+	private final AtomicLong tail = new AtomicLong();
+	private volatile long head;
+
+	/**
+	 * @param capacity
+	 *            The capacity, rounded up to a power of two.
+	 */
+	EventRingBuffer(int capacity) {
+
+		if (capacity < 1 || capacity > 1 << 30)
+			throw new IllegalArgumentException("Invalid ring buffer capacity: " + capacity);
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+
+		this.elements = new Object[size];
+		this.sequences = new AtomicLongArray(size);
+		this.mask = size - 1;
+		for (int i = 0; i < size; i++)
+			sequences.set(i, i);
+	}
+
+	/**
+	 * Add an element, from any thread.
+	 *
+	 * @return <code>false</code> if the buffer is full.
+	 */
+	boolean offer(E element) {
+
+		long position = tail.get();
+		while (true) {
+			int index = (int) position & mask;
+			long difference = sequences.get(index) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					elements[index] = element;
+					sequences.lazySet(index, position + 1);
+					return true;
+				}
+				position = tail.get();
+			} else if (difference < 0) {
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+	}
+
+	/**
+	 * Take the oldest element, from the single consumer thread only.
+	 *
+	 * @return The element, or <code>null</code> if the buffer is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	E poll() {
+
+		long position = head;
+		int index = (int) position & mask;
+		if (sequences.get(index) != position + 1)
+			return null;
+
+		E element = (E) elements[index];
+		elements[index] = null;
+		sequences.lazySet(index, position + elements.length);
+		head = position + 1;
+		return element;
+	}
+
+	int size() {
+		return (int) Math.max(0, tail.get() - head);
+	}
+
+	int capacity() {
+		return elements.length;
+	}
+}
@@ -0,0 +1,194 @@
+package com.sayedbaladoh.ems.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.support.JacksonUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeChangeType;
+import com.sayedbaladoh.ems.model.EmployeeDeltaEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Publishes the employee events to an in-process {@link EventRingBuffer},
+ * drained by a single dispatcher thread that hands them to the
+ * {@link EmployeeEventListener} beans, if any.
+ *
+ * Publishing never blocks on I/O, so the write path can be load tested and
+ * profiled without a broker. A full buffer makes publishers spin until the
+ * dispatcher catches up. Already serialized events are decoded first, and are
+ * delivered once in the buffer. Enabled by
+ * <code>ems.events.publisher=in-process</code>.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+		name = "ems.events.publisher",
+		havingValue = "in-process")
+public class InProcessEventPublisher implements EmployeeEventPublisher {
+
+	private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+	private final EventRingBuffer<PublishedEvent> ringBuffer;
+	private final List<EmployeeEventListener> listeners;
+	private final ObjectMapper objectMapper = JacksonUtils.enhancedObjectMapper();
+	private final Counter publishedCounter;
+	private final Counter dispatchedCounter;
+	private final Counter fullCounter;
+	private final Thread dispatcher;
+	private volatile boolean running = true;
+
+	public InProcessEventPublisher(ObjectProvider<EmployeeEventListener> listeners, MeterRegistry meterRegistry,
+			@Value("${ems.events.in-process.buffer-size:65536}") int bufferSize) {
+
+		this.ringBuffer = new EventRingBuffer<>(bufferSize);
+		this.listeners = listeners.orderedStream().collect(Collectors.toList());
+
+		Gauge.builder("ems.events.in-process.backlog", ringBuffer, EventRingBuffer::size)
+				.description("Employee events published and not yet dispatched")
+				.register(meterRegistry);
+		this.publishedCounter = Counter.builder("ems.events.in-process.published")
+				.description("Employee events published in process")
+				.register(meterRegistry);
+		this.dispatchedCounter = Counter.builder("ems.events.in-process.dispatched")
+				.description("Employee events handed to the in-process listeners")
+				.register(meterRegistry);
+		this.fullCounter = Counter.builder("ems.events.in-process.full")
+				.description("Publishes that waited for the full ring buffer")
+				.register(meterRegistry);
+
+		this.dispatcher = new Thread(this::dispatch, "ems-event-dispatcher");
+		this.dispatcher.setDaemon(true);
+		this.dispatcher.start();
+	}
+
+	@Override
+	public void publish(Employee employee, String topicName) {
+		offer(new PublishedEvent(topicName, employee));
+	}
+
+	@Override
+	public void publishAll(List<Employee> employees, String topicName) {
+		employees.forEach(employee -> publish(employee, topicName));
+	}
+
+	@Override
+	public void publishDelta(EmployeeDeltaEvent event, String topicName) {
+		offer(new PublishedEvent(topicName, event));
+	}
+
+	@Override
+	public void publishDeltas(List<EmployeeDeltaEvent> events, String topicName) {
+		events.forEach(event -> publishDelta(event, topicName));
+	}
+
+	@Override
+	public void publishDelete(Long employeeId, String topicName) {
+		offer(new PublishedEvent(topicName, employeeId));
+	}
+
+	@Override
+	public ListenableFuture<?> publishRaw(Long employeeId, EmployeeChangeType changeType, byte[] payload,
+			String topicName, boolean json) {
+
+		if (changeType == EmployeeChangeType.DELETED) {
+			publishDelete(employeeId, topicName);
+		} else if (json) {
+			try {
+				publish(EmployeeReadModel.readEmployee(objectMapper, payload), topicName);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		} else {
+			publishDelta(EmployeeDeltaCodec.decode(payload), topicName);
+		}
+		SettableListenableFuture<Void> published = new SettableListenableFuture<>();
+		published.set(null);
+		return published;
+	}
+
+	@Override
+	public void flush() {
+		// Published events are delivered once in the ring buffer
+	}
+
+	public int getBacklog() {
+		return ringBuffer.size();
+	}
+
+	@PreDestroy
+	public void close() throws InterruptedException {
+		running = false;
+		dispatcher.join(TimeUnit.SECONDS.toMillis(5));
+	}
+
+	private void offer(PublishedEvent event) {
+
+		if (!ringBuffer.offer(event)) {
+			fullCounter.increment();
+			while (!ringBuffer.offer(event))
+				Thread.onSpinWait();
+		}
+		publishedCounter.increment();
+	}
+
+	private void dispatch() {
+
+		int idle = 0;
+		// Drain what is left once stopped
+		while (running || ringBuffer.size() > 0) {
+			PublishedEvent event = ringBuffer.poll();
+			if (event == null) {
+				if (++idle < 100)
+					Thread.onSpinWait();
+				else if (idle < 200)
+					Thread.yield();
+				else
+					LockSupport.parkNanos(IDLE_PARK_NANOS);
+				continue;
+			}
+
+			idle = 0;
+			for (EmployeeEventListener listener : listeners) {
+				try {
+					listener.onEvent(event.topicName, event.payload);
+				} catch (RuntimeException e) {
+					log.warn("Employee event listener failed. Error: {}.", e.getMessage());
+				}
+			}
+			dispatchedCounter.increment();
+		}
+	}
+
+	private static final class PublishedEvent {
+
+		private final String topicName;
+		private final Object payload;
+
+		PublishedEvent(String topicName, Object payload) {
+			this.topicName = topicName;
+			this.payload = payload;
+		}
+	}
+}
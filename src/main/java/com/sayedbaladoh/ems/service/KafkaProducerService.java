@@ -1,48 +1,262 @@
 package com.sayedbaladoh.ems.service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaProducerException;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.kafka.support.serializer.JsonSerializer;
 import org.springframework.stereotype.Component;
 import org.springframework.util.concurrent.ListenableFuture;
 import org.springframework.util.concurrent.ListenableFutureCallback;
 
 import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeChangeType;
+import com.sayedbaladoh.ems.model.EmployeeDeltaEvent;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Sends the employee events to Kafka.
+ * 
+ * Deliveries are measured instead of logged: the <code>ems.kafka.send</code>
+ * timer (acknowledgement latency by result), the
+ * <code>ems.kafka.send.failures</code> counter (by exception type) and the
+ * <code>ems.kafka.send.in-flight</code> gauge. With
+ * <code>ems.kafka.spill.enabled</code> undeliverable events are written to the
+ * {@link KafkaSpillJournal} instead of being dropped. The default
+ * {@link EmployeeEventPublisher}, selected by
+ * <code>ems.events.publisher=kafka</code>.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
 @Slf4j
-@RequiredArgsConstructor
 @Component
-public class KafkaProducerService {
+@ConditionalOnProperty(
+		name = "ems.events.publisher",
+		havingValue = "kafka",
+		matchIfMissing = true)
+public class KafkaProducerService implements EmployeeEventPublisher {
+
+	public static final String EVENT_TYPE_HEADER = "ems_event_type";
+
+	private static final byte[] EMPLOYEE_TYPE_ID = Employee.class.getName().getBytes(StandardCharsets.UTF_8);
 
 	private final KafkaTemplate<String, Employee> employeeKafkaTemplate;
+	private final KafkaTemplate<String, EmployeeDeltaEvent> deltaKafkaTemplate;
+	private final KafkaTemplate<String, byte[]> rawKafkaTemplate;
+	private final MeterRegistry meterRegistry;
+	private final KafkaSpillJournal spillJournal;
+	private final JsonSerializer<Employee> jsonSerializer = new JsonSerializer<>();
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final Timer successTimer;
+	private final Timer failureTimer;
+	private final Counter spilledCounter;
+
+	public KafkaProducerService(KafkaTemplate<String, Employee> employeeKafkaTemplate,
+			KafkaTemplate<String, EmployeeDeltaEvent> deltaKafkaTemplate,
+			KafkaTemplate<String, byte[]> rawKafkaTemplate, MeterRegistry meterRegistry,
+			ObjectProvider<KafkaSpillJournal> spillJournal) {
+
+		this.employeeKafkaTemplate = employeeKafkaTemplate;
+		this.deltaKafkaTemplate = deltaKafkaTemplate;
+		this.rawKafkaTemplate = rawKafkaTemplate;
+		this.meterRegistry = meterRegistry;
+		this.spillJournal = spillJournal.getIfAvailable();
+
+		Gauge.builder("ems.kafka.send.in-flight", inFlight, AtomicInteger::get)
+				.description("Employee events sent and not yet acknowledged")
+				.register(meterRegistry);
+		this.successTimer = sendTimer("success");
+		this.failureTimer = sendTimer("failure");
+		this.spilledCounter = Counter.builder("ems.kafka.spill.appended")
+				.description("Employee events written to the spill journal")
+				.register(meterRegistry);
+	}
+
+	@Override
+	public void publish(Employee employee, String topicName) {
+		sendMessageWithCallback(employee, topicName);
+	}
+
+	@Override
+	public void publishAll(List<Employee> employees, String topicName) {
+		sendMessagesWithCallback(employees, topicName);
+	}
+
+	@Override
+	public void publishDelta(EmployeeDeltaEvent event, String topicName) {
+		sendDeltaWithCallback(event, topicName);
+	}
+
+	@Override
+	public void publishDeltas(List<EmployeeDeltaEvent> events, String topicName) {
+		sendDeltasWithCallback(events, topicName);
+	}
+
+	@Override
+	public void publishDelete(Long employeeId, String topicName) {
+		send(employeeKafkaTemplate, employeeId, EmployeeChangeType.DELETED, null, topicName);
+	}
+
+	/**
+	 * Send an already serialized event straight to Kafka, never to the spill
+	 * journal: the callers keep the event until it is acknowledged.
+	 */
+	@Override
+	public ListenableFuture<SendResult<String, byte[]>> publishRaw(Long employeeId, EmployeeChangeType changeType,
+			byte[] payload, String topicName, boolean json) {
+		return rawKafkaTemplate.send(toRawRecord(employeeId, changeType, payload, topicName, json));
+	}
+
+	@Override
+	public void flush() {
+		employeeKafkaTemplate.flush();
+		deltaKafkaTemplate.flush();
+		rawKafkaTemplate.flush();
+	}
 
 	void sendMessage(Employee employee, String topicName) {
-		employeeKafkaTemplate.send(topicName, employee);
+		employeeKafkaTemplate.send(
+				toRecord(employee.getId(), EmployeeChangeType.of(employee.getState()), employee, topicName));
 	}
 
 	void sendMessageWithCallback(Employee employee, String topicName) {
+		send(employeeKafkaTemplate, employee.getId(), EmployeeChangeType.of(employee.getState()), employee,
+				topicName);
+	}
+
+	void sendMessagesWithCallback(List<Employee> employees, String topicName) {
 
-		ListenableFuture<SendResult<String, Employee>> future = employeeKafkaTemplate.send(topicName, employee);
+		if (employees.isEmpty())
+			return;
 
-		future.addCallback(new ListenableFutureCallback<SendResult<String, Employee>>() {
+		employees.forEach(employee -> sendMessageWithCallback(employee, topicName));
+		employeeKafkaTemplate.flush();
+	}
+
+	void sendDeltaWithCallback(EmployeeDeltaEvent event, String topicName) {
+		send(deltaKafkaTemplate, event.getEmployeeId(), event.getType(), event, topicName);
+	}
+
+	void sendDeltasWithCallback(List<EmployeeDeltaEvent> events, String topicName) {
+
+		if (events.isEmpty())
+			return;
+
+		events.forEach(event -> sendDeltaWithCallback(event, topicName));
+		deltaKafkaTemplate.flush();
+	}
+
+	/**
+	 * Send an event. With the spill journal enabled, events that cannot be handed
+	 * to the producer go to the journal, and so do all events while the journal
+	 * has pending ones, to keep them in order.
+	 */
+	private <V> void send(KafkaTemplate<String, V> template, Long employeeId, EmployeeChangeType changeType,
+			V value, String topicName) {
+
+		if (spillJournal != null && spillJournal.hasPending()) {
+			spill(employeeId, changeType, value, topicName);
+			return;
+		}
+
+		ListenableFuture<SendResult<String, V>> future;
+		try {
+			future = template.send(toRecord(employeeId, changeType, value, topicName));
+		} catch (RuntimeException e) {
+			if (spillJournal == null)
+				throw e;
+			countFailure(e);
+			spill(employeeId, changeType, value, topicName);
+			return;
+		}
+
+		inFlight.incrementAndGet();
+		long start = System.nanoTime();
+		future.addCallback(new ListenableFutureCallback<SendResult<String, V>>() {
 			@Override
-			public void onSuccess(SendResult<String, Employee> result) {
-				log.info(
-						"Employee: [{}], delivered succuessfully to topic: {}, partition: {}, with offset: {}.",
-						employee,
-						result.getRecordMetadata().topic(),
-						result.getRecordMetadata().partition(),
-						result.getRecordMetadata().offset());
+			public void onSuccess(SendResult<String, V> result) {
+				inFlight.decrementAndGet();
+				successTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 			}
 
 			@Override
 			public void onFailure(Throwable ex) {
-				log.error("Unable to deliver employee: [{}]. Error: {}.",
-						employee,
-						ex.getMessage());
+				inFlight.decrementAndGet();
+				failureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				countFailure(ex);
+				if (spillJournal != null)
+					spill(employeeId, changeType, value, topicName);
+				else
+					log.error("Unable to deliver employee event. Error: {}.", ex.getMessage());
 			}
 		});
 	}
+
+	private void spill(Long employeeId, EmployeeChangeType changeType, Object value, String topicName) {
+
+		boolean json = value instanceof Employee;
+		// A tombstone is spilled with an empty payload
+		byte[] payload = value == null ? new byte[0]
+				: json ? jsonSerializer.serialize(topicName, (Employee) value)
+						: EmployeeDeltaCodec.encode((EmployeeDeltaEvent) value);
+		spillJournal.append(topicName, employeeId, changeType, json, payload);
+		spilledCounter.increment();
+	}
+
+	private void countFailure(Throwable ex) {
+		Throwable cause = ex instanceof KafkaProducerException && ex.getCause() != null ? ex.getCause() : ex;
+		meterRegistry.counter("ems.kafka.send.failures", "exception", cause.getClass().getSimpleName())
+				.increment();
+	}
+
+	private Timer sendTimer(String result) {
+		return Timer.builder("ems.kafka.send")
+				.description("Time from sending an employee event to its acknowledgement")
+				.tag("result", result)
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Build an employee record keyed by the employee Id, so the events of one
+	 * employee stay ordered on one partition, with the change type header.
+	 */
+	static <V> ProducerRecord<String, V> toRecord(Long employeeId, EmployeeChangeType changeType, V value,
+			String topicName) {
+
+		ProducerRecord<String, V> record = new ProducerRecord<>(topicName,
+				employeeId == null ? null : employeeId.toString(), value);
+		if (changeType != null)
+			record.headers().add(EVENT_TYPE_HEADER, changeType.name().getBytes(StandardCharsets.US_ASCII));
+		return record;
+	}
+
+	/**
+	 * Build a record of an already serialized employee event. JSON payloads get
+	 * the type header the <code>JsonSerializer</code> would have added, deleted
+	 * employees are sent as tombstones whatever their payload.
+	 */
+	static ProducerRecord<String, byte[]> toRawRecord(Long employeeId, EmployeeChangeType changeType,
+			byte[] payload, String topicName, boolean json) {
+
+		ProducerRecord<String, byte[]> record = toRecord(employeeId, changeType,
+				changeType == EmployeeChangeType.DELETED ? null : payload, topicName);
+		if (json)
+			record.headers().add(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, EMPLOYEE_TYPE_ID);
+		return record;
+	}
 }
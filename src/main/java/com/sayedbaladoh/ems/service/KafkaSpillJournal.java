@@ -0,0 +1,334 @@
+package com.sayedbaladoh.ems.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.sayedbaladoh.ems.model.EmployeeChangeType;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only journal of the employee events that could not be handed to
+ * Kafka, on memory-mapped segment files.
+ *
+ * Each record is <code>[length][status][appended at][topic][key][type][json]
+ * [payload]</code>. The status byte is flipped in place once the record is
+ * replayed, so a restart resumes with the records still pending. A segment is
+ * deleted once all its records are replayed. Enabled by
+ * <code>ems.kafka.spill.enabled</code>.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+		name = "ems.kafka.spill.enabled",
+		havingValue = "true")
+public class KafkaSpillJournal {
+
+	private static final String SEGMENT_PREFIX = "spill-";
+	private static final String SEGMENT_SUFFIX = ".log";
+	private static final byte PENDING = 1;
+	private static final byte REPLAYED = 2;
+	// length + status + appended at
+	private static final int HEADER_SIZE = 4 + 1 + 8;
+
+	private final Path directory;
+	private final int segmentSize;
+	private final Deque<Segment> segments = new ArrayDeque<>();
+	private long nextSegmentId;
+	private long pendingCount;
+	private long pendingBytes;
+
+	public KafkaSpillJournal(MeterRegistry meterRegistry,
+			@Value("${ems.kafka.spill.directory:${java.io.tmpdir}/ems-spill}") String directory,
+			@Value("${ems.kafka.spill.segment-size:67108864}") int segmentSize) throws IOException {
+
+		this.directory = Paths.get(directory);
+		this.segmentSize = segmentSize;
+		Files.createDirectories(this.directory);
+		recover();
+
+		Gauge.builder("ems.kafka.spill.size", this, KafkaSpillJournal::getPendingBytes)
+				.description("Bytes of spilled events waiting to be replayed")
+				.baseUnit("bytes")
+				.register(meterRegistry);
+		Gauge.builder("ems.kafka.spill.pending", this, KafkaSpillJournal::getPendingCount)
+				.description("Spilled events waiting to be replayed")
+				.register(meterRegistry);
+		Gauge.builder("ems.kafka.spill.oldest.age", this, KafkaSpillJournal::getOldestPendingAgeMillis)
+				.description("Age of the oldest spilled event waiting to be replayed")
+				.baseUnit("milliseconds")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Whether events are waiting to be replayed. New events must then be spilled
+	 * too, so they are not sent ahead of the older ones.
+	 */
+	public synchronized boolean hasPending() {
+		return pendingCount > 0;
+	}
+
+	/**
+	 * Append an event to the journal.
+	 */
+	public synchronized void append(String topic, Long employeeId, EmployeeChangeType type, boolean json,
+			byte[] payload) {
+
+		byte[] topicBytes = topic.getBytes(StandardCharsets.UTF_8);
+		int bodySize = 2 + topicBytes.length + 8 + 1 + 1 + 4 + payload.length;
+		int recordSize = HEADER_SIZE + bodySize;
+
+		Segment segment = segments.peekLast();
+		// Keep 4 bytes free after the last record for the zero end marker
+		if (segment == null || segment.writePosition + recordSize + 4 > segment.buffer.capacity())
+			segment = openSegment(recordSize + 4);
+
+		MappedByteBuffer buffer = segment.buffer;
+		int position = segment.writePosition;
+		buffer.position(position + 4);
+		buffer.put(PENDING);
+		buffer.putLong(System.currentTimeMillis());
+		buffer.putShort((short) topicBytes.length);
+		buffer.put(topicBytes);
+		buffer.putLong(employeeId == null ? -1 : employeeId);
+		buffer.put((byte) (type == null ? -1 : type.ordinal()));
+		buffer.put((byte) (json ? 1 : 0));
+		buffer.putInt(payload.length);
+		buffer.put(payload);
+		// Publish the length last, so a torn write reads as the end of the segment
+		buffer.putInt(position, bodySize);
+
+		segment.writePosition = position + recordSize;
+		pendingCount++;
+		pendingBytes += recordSize;
+	}
+
+	/**
+	 * Read the oldest pending events, in append order.
+	 *
+	 * @param max
+	 *            The maximum number of events.
+	 * @return The events, to be passed to {@link #acknowledge(List)} once
+	 *         replayed.
+	 */
+	public synchronized List<SpilledEvent> peek(int max) {
+
+		List<SpilledEvent> events = new ArrayList<>(Math.min(max, 1024));
+		for (Segment segment : segments) {
+			int position = segment.readPosition;
+			while (events.size() < max && position < segment.writePosition) {
+				SpilledEvent event = read(segment, position);
+				if (event.status == PENDING)
+					events.add(event);
+				position += event.size;
+			}
+			if (events.size() >= max)
+				break;
+		}
+		return events;
+	}
+
+	/**
+	 * Mark replayed events and delete the fully replayed segments.
+	 */
+	public synchronized void acknowledge(List<SpilledEvent> events) {
+
+		for (SpilledEvent event : events) {
+			event.segment.buffer.put(event.position + 4, REPLAYED);
+			pendingCount--;
+			pendingBytes -= event.size;
+		}
+
+		while (!segments.isEmpty()) {
+			Segment head = segments.peekFirst();
+			while (head.readPosition < head.writePosition
+					&& head.buffer.get(head.readPosition + 4) == REPLAYED)
+				head.readPosition += HEADER_SIZE + head.buffer.getInt(head.readPosition);
+			if (head.readPosition < head.writePosition || head == segments.peekLast())
+				break;
+			segments.pollFirst();
+			head.delete();
+		}
+	}
+
+	/**
+	 * Flush the written records to disk.
+	 */
+	public synchronized void force() {
+		segments.forEach(segment -> segment.buffer.force());
+	}
+
+	public synchronized long getPendingCount() {
+		return pendingCount;
+	}
+
+	public synchronized long getPendingBytes() {
+		return pendingBytes;
+	}
+
+	public synchronized long getOldestPendingAgeMillis() {
+		List<SpilledEvent> oldest = peek(1);
+		return oldest.isEmpty() ? 0 : System.currentTimeMillis() - oldest.get(0).appendedAt;
+	}
+
+	@PreDestroy
+	public synchronized void close() {
+		force();
+		for (Segment segment : segments)
+			segment.close();
+	}
+
+	private SpilledEvent read(Segment segment, int position) {
+
+		ByteBuffer buffer = segment.buffer.duplicate();
+		buffer.position(position);
+		int bodySize = buffer.getInt();
+		byte status = buffer.get();
+		long appendedAt = buffer.getLong();
+		byte[] topicBytes = new byte[buffer.getShort()];
+		buffer.get(topicBytes);
+		long employeeId = buffer.getLong();
+		byte type = buffer.get();
+		boolean json = buffer.get() == 1;
+		byte[] payload = new byte[buffer.getInt()];
+		buffer.get(payload);
+
+		return new SpilledEvent(segment, position, HEADER_SIZE + bodySize, status, appendedAt,
+				new String(topicBytes, StandardCharsets.UTF_8), employeeId < 0 ? null : employeeId,
+				type < 0 ? null : EmployeeChangeType.values()[type], json, payload);
+	}
+
+	private Segment openSegment(int minSize) {
+
+		Path file = directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, nextSegmentId++, SEGMENT_SUFFIX));
+		Segment segment = new Segment(file, Math.max(segmentSize, minSize));
+		segments.addLast(segment);
+		return segment;
+	}
+
+	private void recover() throws IOException {
+
+		List<Path> files;
+		try (Stream<Path> list = Files.list(directory)) {
+			files = list.filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX))
+					.sorted()
+					.collect(Collectors.toList());
+		}
+
+		for (Path file : files) {
+			String name = file.getFileName().toString();
+			nextSegmentId = Math.max(nextSegmentId,
+					Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()))
+							+ 1);
+
+			Segment segment = new Segment(file, (int) Files.size(file));
+			int position = 0;
+			int bodySize;
+			while (position + HEADER_SIZE <= segment.buffer.capacity()
+					&& (bodySize = segment.buffer.getInt(position)) > 0) {
+				if (segment.buffer.get(position + 4) == PENDING) {
+					pendingCount++;
+					pendingBytes += HEADER_SIZE + bodySize;
+				}
+				position += HEADER_SIZE + bodySize;
+			}
+			segment.writePosition = position;
+			segments.addLast(segment);
+		}
+		acknowledge(new ArrayList<>());
+
+		if (pendingCount > 0)
+			log.info("Recovered {} spilled employee events from {}.", pendingCount, directory);
+	}
+
+	/**
+	 * A memory-mapped journal file.
+	 */
+	private static class Segment {
+
+		private final Path file;
+		private final FileChannel channel;
+		private final MappedByteBuffer buffer;
+		private int readPosition;
+		private int writePosition;
+
+		Segment(Path file, int size) {
+			try {
+				this.file = file;
+				this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+						StandardOpenOption.WRITE);
+				this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Unable to open spill segment " + file, e);
+			}
+		}
+
+		void close() {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				log.warn("Unable to close spill segment {}.", file);
+			}
+		}
+
+		void delete() {
+			close();
+			try {
+				Files.deleteIfExists(file);
+			} catch (IOException e) {
+				log.warn("Unable to delete spill segment {}.", file);
+			}
+		}
+	}
+
+	/**
+	 * A spilled employee event.
+	 */
+	@AllArgsConstructor
+	public static class SpilledEvent {
+
+		private final Segment segment;
+		private final int position;
+		private final int size;
+		private final byte status;
+		@Getter
+		private final long appendedAt;
+		@Getter
+		private final String topic;
+		@Getter
+		private final Long employeeId;
+		@Getter
+		private final EmployeeChangeType type;
+		@Getter
+		private final boolean json;
+		@Getter
+		private final byte[] payload;
+	}
+}
@@ -0,0 +1,101 @@
+package com.sayedbaladoh.ems.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import com.sayedbaladoh.ems.service.KafkaSpillJournal.SpilledEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Replays the spilled employee events to the {@link EmployeeEventPublisher},
+ * Kafka by default, in append order.
+ * 
+ * Every <code>ems.kafka.spill.replay-interval</code> ms up to
+ * <code>ems.kafka.spill.replay-rate</code> events per second are sent and
+ * acknowledged in the journal. A failed send stops the run, the event is
+ * retried on the next one. Enabled by <code>ems.kafka.spill.enabled</code>.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+		name = "ems.kafka.spill.enabled",
+		havingValue = "true")
+public class KafkaSpillReplayer {
+
+	private final KafkaSpillJournal journal;
+	private final EmployeeEventPublisher eventPublisher;
+	private final int batchSize;
+	private final long sendTimeoutMillis;
+	private final Counter replayedCounter;
+
+	public KafkaSpillReplayer(KafkaSpillJournal journal, EmployeeEventPublisher eventPublisher,
+			MeterRegistry meterRegistry,
+			@Value("${ems.kafka.spill.replay-rate:1000}") int replayRate,
+			@Value("${ems.kafka.spill.replay-interval:1000}") long replayIntervalMillis,
+			@Value("${ems.kafka.spill.send-timeout:10000}") long sendTimeoutMillis) {
+
+		this.journal = journal;
+		this.eventPublisher = eventPublisher;
+		this.batchSize = (int) Math.max(1, replayRate * replayIntervalMillis / 1000);
+		this.sendTimeoutMillis = sendTimeoutMillis;
+		this.replayedCounter = Counter.builder("ems.kafka.spill.replayed")
+				.description("Spilled events replayed to Kafka")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Replay up to one interval's worth of spilled events.
+	 */
+	@Scheduled(
+			fixedDelayString = "${ems.kafka.spill.replay-interval:1000}")
+	public void replay() {
+
+		journal.force();
+		List<SpilledEvent> batch = journal.peek(batchSize);
+		if (batch.isEmpty())
+			return;
+
+		List<ListenableFuture<?>> futures = new ArrayList<>(batch.size());
+		try {
+			for (SpilledEvent event : batch)
+				futures.add(eventPublisher.publishRaw(event.getEmployeeId(), event.getType(), event.getPayload(),
+						event.getTopic(), event.isJson()));
+			eventPublisher.flush();
+		} catch (RuntimeException e) {
+			log.warn("Unable to replay spilled events. Error: {}.", e.getMessage());
+		}
+
+		List<SpilledEvent> replayed = new ArrayList<>(futures.size());
+		for (int i = 0; i < futures.size(); i++) {
+			try {
+				futures.get(i).get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+				replayed.add(batch.get(i));
+			} catch (ExecutionException | TimeoutException e) {
+				log.warn("Unable to replay spilled events, {} still pending. Error: {}.",
+						journal.getPendingCount() - replayed.size(), e.getMessage());
+				break;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+
+		journal.acknowledge(replayed);
+		replayedCounter.increment(replayed.size());
+	}
+}
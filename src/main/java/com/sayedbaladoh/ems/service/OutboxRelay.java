@@ -0,0 +1,144 @@
+package com.sayedbaladoh.ems.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import com.sayedbaladoh.ems.model.OutboxEvent;
+import com.sayedbaladoh.ems.repository.OutboxEventRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Relays the outbox events to the {@link EmployeeEventPublisher}, Kafka by
+ * default, in batches.
+ * 
+ * Every <code>ems.outbox.poll-interval</code> ms the oldest
+ * <code>ems.outbox.batch-size</code> events are sent, flushed and deleted
+ * until the outbox is drained. Delivery is at least once: events sent before a
+ * failure or a crash may be sent again. Enabled by
+ * <code>ems.outbox.enabled</code>.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+		name = "ems.outbox.enabled",
+		havingValue = "true")
+public class OutboxRelay {
+
+	private final OutboxEventRepository outboxEventRepository;
+	private final EmployeeEventPublisher eventPublisher;
+	private final int batchSize;
+	private final long sendTimeoutMillis;
+	private final AtomicReference<Instant> oldestPending = new AtomicReference<>();
+	private final Counter relayedCounter;
+	private final Counter failedCounter;
+	private final Timer batchTimer;
+
+	public OutboxRelay(OutboxEventRepository outboxEventRepository,
+			EmployeeEventPublisher eventPublisher, MeterRegistry meterRegistry,
+			@Value("${ems.outbox.batch-size:500}") int batchSize,
+			@Value("${ems.outbox.send-timeout:30000}") long sendTimeoutMillis) {
+
+		this.outboxEventRepository = outboxEventRepository;
+		this.eventPublisher = eventPublisher;
+		this.batchSize = batchSize;
+		this.sendTimeoutMillis = sendTimeoutMillis;
+
+		Gauge.builder("ems.outbox.lag", oldestPending, oldest -> oldest.get() == null ? 0
+				: Duration.between(oldest.get(), Instant.now()).toMillis())
+				.description("Age of the oldest outbox event not yet relayed")
+				.baseUnit("milliseconds")
+				.register(meterRegistry);
+		this.relayedCounter = Counter.builder("ems.outbox.relayed")
+				.description("Outbox events relayed to Kafka")
+				.register(meterRegistry);
+		this.failedCounter = Counter.builder("ems.outbox.failed")
+				.description("Outbox relay batches that failed and will be retried")
+				.register(meterRegistry);
+		this.batchTimer = Timer.builder("ems.outbox.batch")
+				.description("Time to relay one outbox batch")
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Relay the pending outbox events until the outbox is drained or a send
+	 * fails.
+	 */
+	@Scheduled(
+			fixedDelayString = "${ems.outbox.poll-interval:500}")
+	public void relay() {
+
+		List<OutboxEvent> batch;
+		do {
+			batch = outboxEventRepository.findByOrderByIdAsc(PageRequest.of(0, batchSize));
+			oldestPending.set(batch.isEmpty() ? null : batch.get(0).getCreatedAt());
+			if (batch.isEmpty())
+				return;
+
+			List<OutboxEvent> pending = batch;
+			List<OutboxEvent> relayed = batchTimer.record(() -> send(pending));
+			if (!relayed.isEmpty()) {
+				outboxEventRepository.deleteInBatch(relayed);
+				relayedCounter.increment(relayed.size());
+			}
+			if (relayed.size() < batch.size()) {
+				failedCounter.increment();
+				return;
+			}
+		} while (batch.size() == batchSize);
+		oldestPending.set(null);
+	}
+
+	/**
+	 * Send a batch and return the events delivered before the first failure, so
+	 * the remaining ones are retried in order.
+	 */
+	private List<OutboxEvent> send(List<OutboxEvent> batch) {
+
+		List<ListenableFuture<?>> futures = new ArrayList<>(batch.size());
+		try {
+			for (OutboxEvent event : batch) {
+				futures.add(eventPublisher.publishRaw(event.getAggregateId(), event.getEventType(),
+						event.getPayload(), event.getTopic(), event.isJson()));
+			}
+			eventPublisher.flush();
+		} catch (RuntimeException e) {
+			log.error("Unable to relay outbox events. Error: {}.", e.getMessage());
+		}
+
+		List<OutboxEvent> relayed = new ArrayList<>(futures.size());
+		for (int i = 0; i < futures.size(); i++) {
+			try {
+				futures.get(i).get(sendTimeoutMillis, TimeUnit.MILLISECONDS);
+				relayed.add(batch.get(i));
+			} catch (ExecutionException | TimeoutException e) {
+				log.error("Unable to relay outbox event: {}. Error: {}.", batch.get(i).getId(), e.getMessage());
+				break;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		return relayed;
+	}
+}
@@ -0,0 +1,45 @@
+package com.sayedbaladoh.ems.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.stereotype.Component;
+
+import com.sayedbaladoh.ems.model.EmployeeEvent;
+import com.sayedbaladoh.ems.model.EmployeeState;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * State engine running each event through a pooled Spring Statemachine.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(
+		name = "ems.state-machine.engine",
+		havingValue = "spring",
+		matchIfMissing = true)
+public class SpringStateMachineEngine implements EmployeeStateEngine {
+
+	private final EmployeeStateMachinePool stateMachinePool;
+
+	@Override
+	public EmployeeState sendEvent(Long employeeId, EmployeeState currentState, EmployeeEvent event) {
+
+		StateMachine<EmployeeState, EmployeeEvent> sm = stateMachinePool.acquire(currentState);
+		try {
+			Message<EmployeeEvent> msg = MessageBuilder.withPayload(event)
+					.setHeader(EmployeeServiceImp.EMPLOYEE_ID_HEADER, employeeId)
+					.build();
+			sm.sendEvent(msg);
+			return sm.getState().getId();
+		} finally {
+			stateMachinePool.release(sm);
+		}
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.sayedbaladoh.ems.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.statemachine.transition.Transition;
+import org.springframework.stereotype.Component;
+
+import com.sayedbaladoh.ems.model.EmployeeEvent;
+import com.sayedbaladoh.ems.model.EmployeeState;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+
+/**
+ * State engine resolving events from the compiled
+ * <code>EmployeeStateTransitionTable</code> instead of running the Spring
+ * Statemachine runtime.
+ * 
+ * The configured transition actions (i.e. <code>checkAction</code>) are
+ * executed and the <code>EmployeeStateChangeInterceptor</code> is called, so
+ * persistence and Kafka behavior are the same as the Spring engine.
+ * 
+ * @author Sayed Baladoh
+ *
+ */
+@Log
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(
+		name = "ems.state-machine.engine",
+		havingValue = "table")
+public class TableStateMachineEngine implements EmployeeStateEngine {
+
+	private final EmployeeStateTransitionTable transitionTable;
+	private final EmployeeStateChangeInterceptor employeeStateChangeInterceptor;
+
+	@Override
+	public EmployeeState sendEvent(Long employeeId, EmployeeState currentState, EmployeeEvent event) {
+
+		Transition<EmployeeState, EmployeeEvent> transition = transitionTable.find(currentState, event);
+		if (transition == null)
+			return currentState;
+
+		Message<EmployeeEvent> msg = MessageBuilder.withPayload(event)
+				.setHeader(EmployeeServiceImp.EMPLOYEE_ID_HEADER, employeeId)
+				.build();
+		transitionTable.executeActions(transition, msg);
+		employeeStateChangeInterceptor.preStateChange(transition.getTarget(), msg, transition,
+				transitionTable.getDefinition());
+		log.info(String.format("State changed from: %s, to: -> %s.", currentState, transition.getTarget().getId()));
+		return transition.getTarget().getId();
+	}
+
+}
@@ -0,0 +1,348 @@
+package com.sayedbaladoh.ems.validator;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Predicate;
+
+import javax.annotation.PreDestroy;
+import javax.validation.ConstraintViolation;
+import javax.validation.MessageInterpolator;
+import javax.validation.ValidationException;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import javax.validation.constraints.Email;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Past;
+import javax.validation.constraints.Size;
+import javax.validation.groups.Default;
+import javax.validation.metadata.BeanDescriptor;
+import javax.validation.metadata.ConstraintDescriptor;
+import javax.validation.metadata.PropertyDescriptor;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.service.EmployeeService;
+
+/**
+ * Employee validator compiled from the Bean Validation metadata of
+ * <code>Employee</code>.
+ *
+ * Each constraint is turned once into a plain check of the property value, so
+ * a validation is a single pass over the properties without the per-call
+ * metadata walk, path building and constraint validator lookups of Hibernate
+ * Validator. The email and phone number uniqueness checks query the database,
+ * they run in parallel and only once every other constraint passes. Messages
+ * come from the validator factory message interpolator, so from
+ * <code>MessageSourceConfig</code> in the current locale, as with Hibernate
+ * Validator. A property with a constraint that has no compiled check is
+ * validated by Hibernate Validator, and an email format is checked by
+ * Hibernate Validator alone, without the other constraints of the property.
+ * Used for posted and updated employees when
+ * <code>ems.validation.compiled</code> is enabled, the validation of entities
+ * on persist is then turned off, see <code>CompiledValidationConfig</code>.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@Component
+@ConditionalOnProperty(
+		name = "ems.validation.compiled",
+		havingValue = "true")
+public class CompiledEmployeeValidator implements org.springframework.validation.Validator {
+
+	private final Validator validator;
+	private final MessageInterpolator messageInterpolator;
+	private final List<CompiledProperty> properties = new ArrayList<>();
+	private final List<TakenCheck> takenChecks = new ArrayList<>();
+	private final ExecutorService takenExecutor;
+
+	/**
+	 * @param validatorFactory
+	 *            The factory of the Hibernate Validator the constraints are
+	 *            read from and properties without compiled checks are
+	 *            validated by.
+	 * @param employeeService
+	 *            The uniqueness checks service, without it emails and phone
+	 *            numbers are not checked, as by their constraint validators.
+	 */
+	public CompiledEmployeeValidator(ValidatorFactory validatorFactory, EmployeeService employeeService,
+			@Value("${ems.validation.taken-threads:4}") int takenThreads) {
+
+		this.validator = validatorFactory.getValidator();
+		this.messageInterpolator = validatorFactory.getMessageInterpolator();
+
+		BeanDescriptor bean = validator.getConstraintsForClass(Employee.class);
+		if (!bean.getConstraintDescriptors().isEmpty())
+			throw new IllegalStateException("Employee class-level constraints cannot be compiled");
+		for (PropertyDescriptor property : bean.getConstrainedProperties())
+			compile(property, employeeService);
+
+		this.takenExecutor = Executors.newFixedThreadPool(Math.max(1, takenThreads));
+	}
+
+	@PreDestroy
+	public void close() {
+		takenExecutor.shutdownNow();
+	}
+
+	@Override
+	public boolean supports(Class<?> clazz) {
+		return Employee.class.isAssignableFrom(clazz);
+	}
+
+	@Override
+	public void validate(Object target, Errors errors) {
+
+		Employee employee = (Employee) target;
+		if (validateConstraints(employee, errors))
+			validateTaken(employee, errors);
+	}
+
+	/**
+	 * Validate the employee constraints without the uniqueness checks, as an
+	 * entity is validated on persist.
+	 *
+	 * @return Whether the employee is valid.
+	 */
+	public boolean validateConstraints(Employee employee, Errors errors) {
+
+		boolean valid = true;
+		for (CompiledProperty property : properties)
+			valid &= property.validate(employee, errors);
+		return valid;
+	}
+
+	/**
+	 * Query the uniqueness checks in parallel, the last one on the calling
+	 * thread.
+	 */
+	private void validateTaken(Employee employee, Errors errors) {
+
+		int count = takenChecks.size();
+		if (count == 0)
+			return;
+		List<Object> values = new ArrayList<>(count);
+		List<CompletableFuture<Boolean>> taken = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			TakenCheck check = takenChecks.get(i);
+			Object value = check.property.get(employee);
+			values.add(value);
+			if (value == null)
+				taken.add(CompletableFuture.completedFuture(false));
+			else if (i < count - 1)
+				taken.add(CompletableFuture.supplyAsync(() -> check.isTaken.test((String) value), takenExecutor));
+			else
+				taken.add(CompletableFuture.completedFuture(check.isTaken.test((String) value)));
+		}
+
+		for (int i = 0; i < count; i++) {
+			TakenCheck check = takenChecks.get(i);
+			try {
+				if (taken.get(i).join())
+					check.property.reject(errors, check.constraint, values.get(i));
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException)
+					throw (RuntimeException) e.getCause();
+				throw e;
+			}
+		}
+	}
+
+	private void compile(PropertyDescriptor descriptor, EmployeeService employeeService) {
+
+		CompiledProperty property = new CompiledProperty(descriptor.getPropertyName());
+		for (ConstraintDescriptor<?> constraint : descriptor.getConstraintDescriptors()) {
+			if (!constraint.getGroups().contains(Default.class))
+				continue;
+			Annotation annotation = constraint.getAnnotation();
+			if (annotation instanceof EmailTaken) {
+				if (employeeService != null)
+					takenChecks.add(new TakenCheck(property, constraint, employeeService::existsByEmail));
+				continue;
+			}
+			if (annotation instanceof PhoneTaken) {
+				if (employeeService != null)
+					takenChecks.add(new TakenCheck(property, constraint, employeeService::existsByPhoneNumber));
+				continue;
+			}
+			Predicate<Object> check = compile(constraint, descriptor.getElementClass());
+			if (check == null) {
+				// Hibernate Validator validates every constraint of the property
+				property.delegated = true;
+				property.checks.clear();
+				property.constraints.clear();
+				takenChecks.removeIf(taken -> taken.property == property);
+				break;
+			}
+			property.checks.add(check);
+			property.constraints.add(constraint);
+		}
+		properties.add(property);
+	}
+
+	/**
+	 * The check of a constraint, <code>null</code> if it has no compiled check.
+	 * Each check accepts the values its constraint validator accepts.
+	 */
+	private Predicate<Object> compile(ConstraintDescriptor<?> constraint, Class<?> type) {
+
+		if (!constraint.getComposingConstraints().isEmpty())
+			return null;
+		Annotation annotation = constraint.getAnnotation();
+		if (annotation instanceof NotNull)
+			return value -> value != null;
+		if (annotation instanceof NotBlank)
+			return value -> value != null && !value.toString().trim().isEmpty();
+		if (annotation instanceof Size && CharSequence.class.isAssignableFrom(type)) {
+			int min = ((Size) annotation).min();
+			int max = ((Size) annotation).max();
+			return value -> value == null
+					|| ((CharSequence) value).length() >= min && ((CharSequence) value).length() <= max;
+		}
+		if (annotation instanceof Past && Date.class.isAssignableFrom(type))
+			return value -> value == null || ((Date) value).getTime() < System.currentTimeMillis();
+		if (annotation instanceof Email && CharSequence.class.isAssignableFrom(type)
+				&& ".*".equals(((Email) annotation).regexp()) && ((Email) annotation).flags().length == 0)
+			return value -> value == null
+					|| validator.validateValue(EmailAddress.class, "value", value.toString()).isEmpty();
+		if (annotation instanceof Phone)
+			return value -> value == null || PhoneNumbers.isValid((CharSequence) value);
+		if (annotation instanceof Number)
+			return value -> value == null || NumberValidator.isNumber((String) value);
+		if (annotation instanceof Country)
+			return value -> CountryValidator.isCountry((String) value);
+		if (annotation instanceof Gender)
+			return value -> GenderValidator.isGender((String) value);
+		return null;
+	}
+
+	/**
+	 * The compiled checks of a property, or no checks if the property is
+	 * validated by Hibernate Validator.
+	 */
+	private final class CompiledProperty {
+
+		private final String name;
+		private final Method getter;
+		private final List<Predicate<Object>> checks = new ArrayList<>();
+		private final List<ConstraintDescriptor<?>> constraints = new ArrayList<>();
+		private boolean delegated;
+
+		private CompiledProperty(String name) {
+			this.name = name;
+			java.beans.PropertyDescriptor property = BeanUtils.getPropertyDescriptor(Employee.class, name);
+			if (property == null || property.getReadMethod() == null)
+				throw new IllegalStateException("Employee property without getter: " + name);
+			this.getter = property.getReadMethod();
+		}
+
+		private Object get(Employee employee) {
+			try {
+				return getter.invoke(employee);
+			} catch (IllegalAccessException | InvocationTargetException e) {
+				throw new ValidationException("Cannot read employee property " + name, e);
+			}
+		}
+
+		/**
+		 * @return Whether the property is valid.
+		 */
+		private boolean validate(Employee employee, Errors errors) {
+
+			if (delegated) {
+				boolean valid = true;
+				for (ConstraintViolation<Employee> violation : validator.validateProperty(employee, name)) {
+					errors.rejectValue(name, violation.getConstraintDescriptor().getAnnotation()
+							.annotationType().getSimpleName(), violation.getMessage());
+					valid = false;
+				}
+				return valid;
+			}
+
+			Object value = get(employee);
+			boolean valid = true;
+			for (int i = 0; i < checks.size(); i++) {
+				if (!checks.get(i).test(value)) {
+					reject(errors, constraints.get(i), value);
+					valid = false;
+				}
+			}
+			return valid;
+		}
+
+		private void reject(Errors errors, ConstraintDescriptor<?> constraint, Object value) {
+			String message = messageInterpolator.interpolate(constraint.getMessageTemplate(),
+					new InterpolatorContext(constraint, value));
+			errors.rejectValue(name, constraint.getAnnotation().annotationType().getSimpleName(), message);
+		}
+	}
+
+	/**
+	 * An email address checked with the default <code>@Email</code>
+	 * constraint.
+	 */
+	private static final class EmailAddress {
+
+		@Email
+		private String value;
+	}
+
+	private static final class TakenCheck {
+
+		private final CompiledProperty property;
+		private final ConstraintDescriptor<?> constraint;
+		private final Predicate<String> isTaken;
+
+		private TakenCheck(CompiledProperty property, ConstraintDescriptor<?> constraint,
+				Predicate<String> isTaken) {
+			this.property = property;
+			this.constraint = constraint;
+			this.isTaken = isTaken;
+		}
+	}
+
+	/**
+	 * The constraint and value a message is interpolated for.
+	 */
+	private static final class InterpolatorContext implements MessageInterpolator.Context {
+
+		private final ConstraintDescriptor<?> constraint;
+		private final Object value;
+
+		private InterpolatorContext(ConstraintDescriptor<?> constraint, Object value) {
+			this.constraint = constraint;
+			this.value = value;
+		}
+
+		@Override
+		public ConstraintDescriptor<?> getConstraintDescriptor() {
+			return constraint;
+		}
+
+		@Override
+		public Object getValidatedValue() {
+			return value;
+		}
+
+		@Override
+		public <T> T unwrap(Class<T> type) {
+			if (type.isInstance(this))
+				return type.cast(this);
+			throw new ValidationException("Type " + type.getName() + " not supported for unwrapping");
+		}
+	}
+}
@@ -18,8 +18,9 @@ import javax.validation.ConstraintValidatorContext;
  */
 public class CountryValidator implements ConstraintValidator<Country, String> {
 
-	private final Set<String> ISO_LANGUAGES = new HashSet<String>(Arrays.asList(Locale.getISOLanguages()));
-	private final Set<String> ISO_COUNTRIES = new HashSet<String>(Arrays.asList(Locale.getISOCountries()));
+	// Shared by every validator instance, built once per class load
+	private static final Set<String> ISO_LANGUAGES = new HashSet<String>(Arrays.asList(Locale.getISOLanguages()));
+	private static final Set<String> ISO_COUNTRIES = new HashSet<String>(Arrays.asList(Locale.getISOCountries()));
 
 	public boolean isValidISOLanguage(String s) {
 		return ISO_LANGUAGES.contains(s);
@@ -31,10 +32,11 @@ public class CountryValidator implements ConstraintValidator<Country, String> {
 
 	@Override
 	public boolean isValid(String value, ConstraintValidatorContext context) {
-		if (value == null)
-			return false;
+		return isCountry(value);
+	}
 
-		return isValidISOCountry(value);
+	static boolean isCountry(String value) {
+		return value != null && ISO_COUNTRIES.contains(value);
 	}
 
 }
@@ -8,14 +8,15 @@ import javax.validation.ConstraintValidatorContext;
 
 public class GenderValidator implements ConstraintValidator<Gender, String> {
 
-	private final List<String> genderList = Arrays.asList("male", "female");
+	private static final List<String> GENDERS = Arrays.asList("male", "female");
 
 	@Override
 	public boolean isValid(String value, ConstraintValidatorContext context) {
-		if (value == null)
-			return false;
+		return isGender(value);
+	}
 
-		return genderList.contains(value);
+	static boolean isGender(String value) {
+		return value != null && GENDERS.contains(value);
 	}
 
 }
@@ -4,7 +4,8 @@ import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
 
 /**
- * Validate value is Number
+ * Validate value is Number: an optional <code>+</code> then digits, checked
+ * character by character
  * @author Sayed Baladoh
  *
  */
@@ -14,9 +15,21 @@ public class NumberValidator implements ConstraintValidator<Number, String> {
 	public boolean isValid(String value, ConstraintValidatorContext ctx) {
 		// validate is Number
 		if(value !=null)
-			return (value.matches("\\+?\\d+"));
+			return isNumber(value);
 		
 		return true;
 	}
 
+	static boolean isNumber(String value) {
+		int start = !value.isEmpty() && value.charAt(0) == '+' ? 1 : 0;
+		if (start == value.length())
+			return false;
+		for (int i = start; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c < '0' || c > '9')
+				return false;
+		}
+		return true;
+	}
+
 }
@@ -0,0 +1,97 @@
+package com.sayedbaladoh.ems.validator;
+
+/**
+ * Phone number parsing without regular expressions.
+ *
+ * A phone number is an optional <code>+</code> followed by 7 to 15 digits,
+ * single blanks may separate the digits, as the former phone number pattern
+ * accepted. Its canonical form keeps the digits only: a leading
+ * <code>+</code> or <code>00</code> international prefix becomes
+ * <code>+</code>, as in E.164, so <code>+49 151 2345</code>,
+ * <code>+491512345</code> and <code>00491512345</code> are the same number.
+ * Numbers without an international prefix stay in national form, their
+ * country code is unknown.
+ *
+ * Validation reads the characters in place and allocates nothing;
+ * canonicalization allocates only the canonical string, and nothing when the
+ * number is already canonical.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+public final class PhoneNumbers {
+
+	public static final int MIN_DIGITS = 7;
+	public static final int MAX_DIGITS = 15;
+
+	private PhoneNumbers() {
+	}
+
+	/**
+	 * Whether the value is a phone number.
+	 */
+	public static boolean isValid(CharSequence value) {
+		return value != null && countDigits(value) >= 0;
+	}
+
+	/**
+	 * The canonical form of a phone number.
+	 *
+	 * @param value
+	 *            The phone number.
+	 * @return The canonical phone number, the value itself when already
+	 *         canonical, <code>null</code> if the value is not a phone number.
+	 */
+	public static String canonicalize(String value) {
+
+		if (value == null)
+			return null;
+		int digits = countDigits(value);
+		if (digits < 0)
+			return null;
+
+		boolean plus = value.charAt(0) == '+';
+		int skip = !plus && value.charAt(0) == '0' && value.charAt(1) == '0' ? 2 : 0;
+		boolean international = plus || skip > 0;
+		int length = (international ? 1 : 0) + digits - skip;
+		if (length == value.length())
+			return value;
+
+		char[] canonical = new char[length];
+		int n = 0;
+		if (international)
+			canonical[n++] = '+';
+		for (int i = plus ? 1 : skip; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c >= '0' && c <= '9')
+				canonical[n++] = c;
+		}
+		return new String(canonical);
+	}
+
+	/**
+	 * The number of digits of a phone number, -1 if the value is not one.
+	 */
+	private static int countDigits(CharSequence value) {
+
+		int length = value.length();
+		int i = length > 0 && value.charAt(0) == '+' ? 1 : 0;
+		int digits = 0;
+		// Whether the last character is not a digit: a separator or the start
+		boolean separated = true;
+		for (; i < length; i++) {
+			char c = value.charAt(i);
+			if (c >= '0' && c <= '9') {
+				digits++;
+				separated = false;
+			} else if (c == ' ' && !separated) {
+				separated = true;
+			} else {
+				return -1;
+			}
+		}
+		if (separated || digits < MIN_DIGITS || digits > MAX_DIGITS)
+			return -1;
+		return digits;
+	}
+}
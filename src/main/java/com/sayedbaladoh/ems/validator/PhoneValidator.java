@@ -0,0 +1,22 @@
+package com.sayedbaladoh.ems.validator;
+
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+
+/**
+ * Validate value is a phone number, see {@link PhoneNumbers}
+ * @author Sayed Baladoh
+ *
+ */
+public class PhoneValidator implements ConstraintValidator<Phone, String> {
+
+	@Override
+	public boolean isValid(String value, ConstraintValidatorContext ctx) {
+		// validate is phone number
+		if (value != null)
+			return PhoneNumbers.isValid(value);
+
+		return true;
+	}
+
+}
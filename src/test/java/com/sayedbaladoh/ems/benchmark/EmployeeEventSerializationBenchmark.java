@@ -0,0 +1,115 @@
+package com.sayedbaladoh.ems.benchmark;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeDeltaEvent;
+import com.sayedbaladoh.ems.model.EmployeeField;
+import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.service.EmployeeDeltaCodec;
+
+/**
+ * Compares the full employee JSON events with the compact delta events.
+ *
+ * The serialization time is measured by JMH, the bytes per event are checked
+ * by <code>EmployeeDeltaCodecTest</code>. Run with
+ * <code>mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.sayedbaladoh.ems.benchmark.EmployeeEventSerializationBenchmark</code>
+ * or from the IDE.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(
+		iterations = 3,
+		time = 1)
+@Measurement(
+		iterations = 5,
+		time = 1)
+@Fork(1)
+public class EmployeeEventSerializationBenchmark {
+
+	private static final String TOPIC = "ems-employee";
+
+	private final JsonSerializer<Employee> jsonSerializer = new JsonSerializer<>();
+
+	private Employee stateChanged;
+	private Employee edited;
+	private Map<EmployeeField, String> beforeEdit;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+
+		stateChanged = getEmployee();
+		stateChanged.setState(EmployeeState.APPROVED);
+
+		edited = getEmployee();
+		beforeEdit = EmployeeField.valuesOf(edited);
+		edited.setPosition("Engineering Manager");
+		edited.setState(EmployeeState.UPDATED);
+	}
+
+	@Benchmark
+	public byte[] jsonStateChange() {
+		return jsonSerializer.serialize(TOPIC, stateChanged);
+	}
+
+	@Benchmark
+	public byte[] deltaStateChange() {
+		return EmployeeDeltaCodec.encode(EmployeeDeltaEvent.of(stateChanged, null));
+	}
+
+	@Benchmark
+	public byte[] jsonEdit() {
+		return jsonSerializer.serialize(TOPIC, edited);
+	}
+
+	@Benchmark
+	public byte[] deltaEdit() {
+		return EmployeeDeltaCodec.encode(EmployeeDeltaEvent.of(edited, beforeEdit));
+	}
+
+	private Employee getEmployee() {
+
+		Employee employee = new Employee();
+		employee.setId(1024L);
+		employee.setFirstName("Ahmed");
+		employee.setLastName("Muhammad Mahmoud");
+		employee.setEmail("ahmed@test.com");
+		employee.setPhoneNumber("00201234567901");
+		employee.setGender("male");
+		employee.setCountryCode("EG");
+		employee.setPosition("Technical Lead");
+		employee.setBirthDate(Date.from(Instant.parse("2001-01-01T00:00:00.000Z")));
+		employee.setContractInformation(
+				"Full time contract, 40 hours per week, 21 days annual leave, 3 months notice period.");
+		return employee;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(EmployeeEventSerializationBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,141 @@
+package com.sayedbaladoh.ems.benchmark;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import javax.validation.ConstraintViolation;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import com.sayedbaladoh.ems.config.MessageSourceConfig;
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.validator.CompiledEmployeeValidator;
+
+/**
+ * Compares the per-request validation of a posted employee by Hibernate
+ * Validator and by the compiled employee validator.
+ *
+ * Both validate into a binding result, as for <code>@Valid</code> request
+ * bodies, with the messages of <code>MessageSourceConfig</code>. Without the
+ * compiled validator a valid employee is validated again by Hibernate
+ * Validator when it is persisted, measured by <code>hibernatePersist</code>;
+ * with it that validation is turned off, so a request costs
+ * <code>hibernateValid</code> plus <code>hibernatePersist</code> against
+ * <code>compiledValid</code>. The uniqueness checks are left out, they query
+ * the database with either validator. Run with
+ * <code>mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.sayedbaladoh.ems.benchmark.EmployeeValidationBenchmark</code>
+ * or from the IDE.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(
+		iterations = 3,
+		time = 1)
+@Measurement(
+		iterations = 5,
+		time = 1)
+@Fork(1)
+public class EmployeeValidationBenchmark {
+
+	private LocalValidatorFactoryBean hibernateValidator;
+	private CompiledEmployeeValidator compiledValidator;
+
+	private Employee valid;
+	private Employee invalid;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+
+		hibernateValidator = new MessageSourceConfig().getValidator();
+		hibernateValidator.afterPropertiesSet();
+		compiledValidator = new CompiledEmployeeValidator(hibernateValidator, null, 1);
+
+		valid = getEmployee();
+		invalid = getEmployee();
+		invalid.setPhoneNumber("+20 12ab");
+		invalid.setGender("other");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		compiledValidator.close();
+		hibernateValidator.close();
+	}
+
+	@Benchmark
+	public BindingResult hibernateValid() {
+		return validate(hibernateValidator, valid);
+	}
+
+	@Benchmark
+	public BindingResult compiledValid() {
+		return validate(compiledValidator, valid);
+	}
+
+	@Benchmark
+	public Set<ConstraintViolation<Employee>> hibernatePersist() {
+		return hibernateValidator.validate(valid);
+	}
+
+	@Benchmark
+	public BindingResult hibernateInvalid() {
+		return validate(hibernateValidator, invalid);
+	}
+
+	@Benchmark
+	public BindingResult compiledInvalid() {
+		return validate(compiledValidator, invalid);
+	}
+
+	private static BindingResult validate(Validator validator, Employee employee) {
+		BindingResult errors = new BeanPropertyBindingResult(employee, "employee");
+		validator.validate(employee, errors);
+		return errors;
+	}
+
+	private static Employee getEmployee() {
+		Employee employee = new Employee();
+		employee.setFirstName("Ahmed");
+		employee.setLastName("Muhammad Mahmoud");
+		employee.setEmail("ahmed@test.com");
+		employee.setPhoneNumber("00201234567901");
+		employee.setPassword("12345678");
+		employee.setGender("male");
+		employee.setCountryCode("EG");
+		employee.setPosition("Technical Lead");
+		employee.setBirthDate(Date.from(Instant.parse("2001-01-01T00:00:00.000Z")));
+		employee.setContractInformation(
+				"Full time contract, 40 hours per week, 21 days annual leave, 3 months notice period.");
+		return employee;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(EmployeeValidationBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
@@ -0,0 +1,77 @@
+package com.sayedbaladoh.ems.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.sayedbaladoh.ems.validator.PhoneNumbers;
+
+/**
+ * Compares the former regular expression phone number validation and
+ * normalization with the {@link PhoneNumbers} parser.
+ *
+ * The regex benchmarks repeat the former <code>@Pattern</code> and
+ * <code>@Number</code> checks of the phone number, and the former uniqueness
+ * index normalization. Run with
+ * <code>mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.sayedbaladoh.ems.benchmark.PhoneNumberValidationBenchmark</code>
+ * or from the IDE, with <code>-prof gc</code> to compare the allocations.
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(
+		iterations = 3,
+		time = 1)
+@Measurement(
+		iterations = 5,
+		time = 1)
+@Fork(1)
+public class PhoneNumberValidationBenchmark {
+
+	private static final Pattern PHONE_PATTERN = Pattern.compile("^\\+?(?:[0-9]\\s?){6,14}[0-9]$");
+
+	@Param({ "+201234567001", "0020 123 456 7001" })
+	private String phoneNumber;
+
+	@Benchmark
+	public boolean regexValidate() {
+		return PHONE_PATTERN.matcher(phoneNumber).matches() && phoneNumber.matches("\\+?\\d+");
+	}
+
+	@Benchmark
+	public boolean parserValidate() {
+		return PhoneNumbers.isValid(phoneNumber);
+	}
+
+	@Benchmark
+	public String regexNormalize() {
+		return phoneNumber.replaceAll("[\\s\\-.()]", "");
+	}
+
+	@Benchmark
+	public String parserCanonicalize() {
+		return PhoneNumbers.canonicalize(phoneNumber);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(PhoneNumberValidationBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+}
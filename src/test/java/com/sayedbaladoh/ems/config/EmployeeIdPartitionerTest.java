@@ -0,0 +1,86 @@
+package com.sayedbaladoh.ems.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.kafka.common.Cluster;
+import org.apache.kafka.common.Node;
+import org.apache.kafka.common.PartitionInfo;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Employee Id Partitioner units' test
+ *
+ * @author Sayed Baladoh
+ *
+ */
+class EmployeeIdPartitionerTest {
+
+	private static final String TOPIC = "ems-employee-test";
+	private static final int PARTITIONS = 6;
+
+	private final EmployeeIdPartitioner partitioner = new EmployeeIdPartitioner();
+
+	/**
+	 * Validate consecutive employee Ids are spread over consecutive partitions
+	 */
+	@Test
+	public void givenNumericKeys_whenPartition_thenIdModPartitions() {
+
+		// Data preparation
+		Cluster cluster = getCluster();
+
+		// Method call & Verification
+		for (long id = 0; id < 20; id++)
+			assertThat(partition(String.valueOf(id), cluster)).isEqualTo((int) (id % PARTITIONS));
+	}
+
+	/**
+	 * Validate other keys are stable and in range
+	 */
+	@Test
+	public void givenNonNumericKey_whenPartition_thenSamePartitionEveryTime() {
+
+		// Data preparation
+		Cluster cluster = getCluster();
+
+		// Method call
+		int partition = partition("employee-a", cluster);
+
+		// Verification
+		assertThat(partition).isBetween(0, PARTITIONS - 1);
+		assertThat(partition("employee-a", cluster)).isEqualTo(partition);
+		assertThat(partition("-1", cluster)).isBetween(0, PARTITIONS - 1);
+	}
+
+	/**
+	 * Validate records without a key still get a valid partition
+	 */
+	@Test
+	public void givenNullKey_whenPartition_thenPartitionInRange() {
+
+		// Method call
+		int partition = partitioner.partition(TOPIC, null, null, null, null, getCluster());
+
+		// Verification
+		assertThat(partition).isBetween(0, PARTITIONS - 1);
+	}
+
+	private int partition(String key, Cluster cluster) {
+		return partitioner.partition(TOPIC, key, key.getBytes(StandardCharsets.US_ASCII), null, null, cluster);
+	}
+
+	private Cluster getCluster() {
+
+		Node node = new Node(0, "localhost", 9092);
+		List<PartitionInfo> partitions = new ArrayList<>();
+		for (int i = 0; i < PARTITIONS; i++)
+			partitions.add(new PartitionInfo(TOPIC, i, node, new Node[] { node }, new Node[] { node }));
+		return new Cluster("ems", Collections.singletonList(node), partitions, Collections.emptySet(),
+				Collections.emptySet());
+	}
+}
@@ -0,0 +1,51 @@
+package com.sayedbaladoh.ems.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Kafka Producer Config units' test
+ *
+ * @author Sayed Baladoh
+ *
+ */
+class KafkaProducerConfigTest {
+
+	/**
+	 * Validate the throughput profile batches, compresses and stays idempotent
+	 */
+	@Test
+	public void givenThroughputProfile_whenProfileConfigs_thenBatchedIdempotentProducer() {
+
+		assertThat(KafkaProducerConfig.profileConfigs("throughput"))
+				.containsEntry(ProducerConfig.LINGER_MS_CONFIG, 20)
+				.containsEntry(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4")
+				.containsEntry(ProducerConfig.ACKS_CONFIG, "all")
+				.containsEntry(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+	}
+
+	/**
+	 * Validate the latency profile sends without lingering
+	 */
+	@Test
+	public void givenLatencyProfile_whenProfileConfigs_thenNoLinger() {
+
+		assertThat(KafkaProducerConfig.profileConfigs("latency"))
+				.containsEntry(ProducerConfig.LINGER_MS_CONFIG, 0)
+				.containsEntry(ProducerConfig.ACKS_CONFIG, "1");
+		assertThat(KafkaProducerConfig.profileConfigs("default")).isEmpty();
+	}
+
+	/**
+	 * Validate an unknown profile fails fast
+	 */
+	@Test
+	public void givenUnknownProfile_whenProfileConfigs_thenThrowIllegalArgumentException() {
+
+		assertThatThrownBy(() -> KafkaProducerConfig.profileConfigs("fastest"))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
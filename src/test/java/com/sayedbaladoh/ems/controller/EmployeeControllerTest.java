@@ -3,9 +3,11 @@
  */
 package com.sayedbaladoh.ems.controller;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
@@ -25,6 +27,7 @@ import java.util.Optional;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.mockito.internal.verification.VerificationModeFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -39,7 +42,11 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sayedbaladoh.ems.model.CursorPage;
 import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeSearch;
+import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.model.EmployeeSummary;
 import com.sayedbaladoh.ems.service.EmployeeService;
 import com.sayedbaladoh.ems.util.JsonUtil;
 
@@ -69,7 +76,7 @@ class EmployeeControllerTest {
 	 * Validate get all employees
 	 * 
 	 * Test method for
-	 * {@link com.sayedbaladoh.ems.controller.EmployeeController#getEmployees(org.springframework.data.domain.Pageable)}.
+	 * {@link com.sayedbaladoh.ems.controller.EmployeeController#getEmployees(org.springframework.data.domain.Pageable, java.lang.String, javax.servlet.http.HttpServletResponse)}.
 	 * 
 	 * @throws Exception
 	 */
@@ -102,11 +109,115 @@ class EmployeeControllerTest {
 		reset(service);
 	}
 
+	/**
+	 * Validate the summary view lists employee summaries only
+	 * 
+	 * Test method for
+	 * {@link com.sayedbaladoh.ems.controller.EmployeeController#getEmployees(org.springframework.data.domain.Pageable, java.lang.String, javax.servlet.http.HttpServletResponse)}.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void givenSummaryView_whenGetEmployees_thenReturnSummaries() throws Exception {
+		// Data preparation
+		Employee employee = getEmployee("Mohamed", "Ahmed", "00201235478915", "test1@test.com", "12345789",
+				"2006-01-01T00:00:00.000Z", "male", "EG", "Web Admin");
+		Page<EmployeeSummary> page = new PageImpl<>(Arrays.asList(EmployeeSummary.of(employee)));
+
+		given(service.getAllSummaries(any(Pageable.class)))
+				.willReturn(page);
+
+		// Verification
+		mvc.perform(get("/api/employees?view=summary")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(1)))
+				.andExpect(jsonPath("$.content[0].first_name", is(employee.getFirstName())))
+				.andExpect(jsonPath("$.content[0].contract_information").doesNotExist());
+
+		mvc.perform(get("/api/employees?view=compact"))
+				.andExpect(status().isBadRequest());
+
+		verify(service, VerificationModeFactory.times(1)).getAllSummaries(any(Pageable.class));
+		verify(service, VerificationModeFactory.times(0)).getAll(any(Pageable.class));
+		reset(service);
+	}
+
+	/**
+	 * Validate the search passes the filters and requires at least one
+	 * 
+	 * Test method for
+	 * {@link com.sayedbaladoh.ems.controller.EmployeeController#searchEmployees(com.sayedbaladoh.ems.model.EmployeeState, java.lang.String, java.lang.String, java.lang.String, java.time.Instant, java.time.Instant, java.time.Instant, java.time.Instant, java.lang.String, int)}.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void givenSearchFilters_whenSearchEmployees_thenReturnMatchingEmployees() throws Exception {
+		// Data preparation
+		Employee employee = getEmployee("Mohamed", "Ahmed", "00491235478915", "test1@test.com", "12345789",
+				"2006-01-01T00:00:00.000Z", "male", "DE", "Web Admin");
+		ArgumentCaptor<EmployeeSearch> search = ArgumentCaptor.forClass(EmployeeSearch.class);
+
+		given(service.search(search.capture(), eq(""), eq(20)))
+				.willReturn(new CursorPage<>(Arrays.asList(employee), null, null));
+
+		// Verification
+		mvc.perform(get("/api/employees/search?state=IN_CHECK&country_code=DE&created_from=2021-03-01T00:00:00Z")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(1)))
+				.andExpect(jsonPath("$.content[0].country_code", is("DE")));
+
+		assertThat(search.getValue().getState()).isEqualTo(EmployeeState.IN_CHECK);
+		assertThat(search.getValue().getCountryCode()).isEqualTo("DE");
+		assertThat(search.getValue().getCreatedFrom()).isEqualTo(Instant.parse("2021-03-01T00:00:00Z"));
+		assertThat(search.getValue().getPosition()).isNull();
+
+		mvc.perform(get("/api/employees/search"))
+				.andExpect(status().isBadRequest());
+		reset(service);
+	}
+
+	/**
+	 * Validate the cursor listing returns the next cursor and the total
+	 * 
+	 * Test method for
+	 * {@link com.sayedbaladoh.ems.controller.EmployeeController#getEmployeesAfter(java.lang.String, int, boolean, java.lang.String)}.
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void givenEmployeesList_whenGetEmployeesAfter_thenReturnCursorPage() throws Exception {
+		// Data preparation
+		Employee employee1 = getEmployee("Mohamed", "Ahmed", "00201235478915", "test1@test.com", "12345789",
+				"2006-01-01T00:00:00.000Z", "male", "EG", "Web Admin");
+		Employee employee2 = getEmployee("Ahmed", "Mohamed", "00201235478912", "test2@test.com", "12345789",
+				"2005-01-01T00:00:00.000Z", "male", "EG", "Developer");
+
+		given(service.getAllAfter("", 2, true))
+				.willReturn(new CursorPage<>(Arrays.asList(employee1, employee2), "next-cursor", 3L));
+
+		// Verification
+		mvc.perform(get("/api/employees?after=&size=2&total=true")
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(2)))
+				.andExpect(jsonPath("$.content[1].first_name", is(employee2.getFirstName())))
+				.andExpect(jsonPath("$.next", is("next-cursor")))
+				.andExpect(jsonPath("$.total", is(3)));
+
+		mvc.perform(get("/api/employees?after=&size=0"))
+				.andExpect(status().isBadRequest());
+
+		verify(service, VerificationModeFactory.times(1)).getAllAfter("", 2, true);
+		reset(service);
+	}
+
 	/**
 	 * Verify valid Employee Id to get
 	 * 
 	 * Test method for
-	 * {@link com.sayedbaladoh.ems.controller.EmployeeController#getEmployeeProfile(java.lang.Long)}.
+	 * {@link com.sayedbaladoh.ems.controller.EmployeeController#getEmployeeProfile(java.lang.Long, java.lang.String, javax.servlet.http.HttpServletResponse)}.
 	 * 
 	 * @throws Exception
 	 */
@@ -141,7 +252,7 @@ class EmployeeControllerTest {
 	 * Verify invalid Employee Id to get
 	 * 
 	 * Test method for
-	 * {@link com.sayedbaladoh.ems.controller.EmployeeController#getEmployeeProfile(java.lang.Long)}.
+	 * {@link com.sayedbaladoh.ems.controller.EmployeeController#getEmployeeProfile(java.lang.Long, java.lang.String, javax.servlet.http.HttpServletResponse)}.
 	 * 
 	 * @throws Exception
 	 */
@@ -347,6 +458,23 @@ class EmployeeControllerTest {
 		reset(service);
 	}
 
+	/**
+	 * Validate gzip is accepted only by a gzip or * coding with a non-zero
+	 * q-value, gzip taking precedence over *
+	 */
+	@Test
+	public void givenAcceptEncodings_whenAcceptsGzip_thenOnlyPositiveQualities() {
+		assertThat(EmployeeController.acceptsGzip("gzip")).isTrue();
+		assertThat(EmployeeController.acceptsGzip("deflate, GZIP;q=0.5")).isTrue();
+		assertThat(EmployeeController.acceptsGzip("*")).isTrue();
+		assertThat(EmployeeController.acceptsGzip("gzip;q=0")).isFalse();
+		assertThat(EmployeeController.acceptsGzip("gzip; q=0.0, *")).isFalse();
+		assertThat(EmployeeController.acceptsGzip("*;q=0")).isFalse();
+		assertThat(EmployeeController.acceptsGzip("x-notgzip")).isFalse();
+		assertThat(EmployeeController.acceptsGzip("identity")).isFalse();
+		assertThat(EmployeeController.acceptsGzip(null)).isFalse();
+	}
+
 	private Employee getEmployee(String firstName, String lastName, String phoneNumber, String email, String password,
 			String birthDate, String gender, String countryCode, String position) {
 
@@ -0,0 +1,102 @@
+package com.sayedbaladoh.ems.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.Date;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeEvent;
+import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.service.EmployeeService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Second-level and natural-id cache test of the employee lookups
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+		properties = { "ems.cache.enabled=true" })
+@DirtiesContext
+@EmbeddedKafka(
+		topics = "${kafka.topic.name}",
+		bootstrapServersProperty = "kafka.bootstrap.servers")
+class EmployeeCacheIntegrationTest {
+
+	@Autowired
+	private EmployeeService employeeService;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	/**
+	 * Validate lookups by Id and phone number are answered from the caches and
+	 * a JDBC state change evicts the cached employee
+	 */
+	@Test
+	public void givenCachedEmployee_whenLookupAndChangeState_thenCacheHitAndEvicted() {
+
+		// Data preparation
+		Employee employee = employeeService.add(getEmployee());
+		Long id = employee.getId();
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		// Method call
+		employeeService.get(id);
+		employeeService.get(id);
+		boolean phoneTaken = employeeService.existsByPhoneNumber(employee.getPhoneNumber());
+		phoneTaken &= employeeService.existsByPhoneNumber(employee.getPhoneNumber());
+
+		// Verification
+		assertThat(phoneTaken).isTrue();
+		assertThat(employeeService.existsByPhoneNumber("00201234567999")).isFalse();
+		assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThanOrEqualTo(1);
+		assertThat(statistics.getNaturalIdCacheHitCount()).isGreaterThanOrEqualTo(1);
+		assertThat(entityManagerFactory.getCache().contains(Employee.class, id)).isTrue();
+		assertThat(employeeService.exists(id)).isTrue();
+
+		// Method call
+		employeeService.compareAndSetState(id, EmployeeEvent.CHECK);
+
+		// Verification
+		assertThat(entityManagerFactory.getCache().contains(Employee.class, id)).isFalse();
+		assertThat(employeeService.get(id)).map(Employee::getState).contains(EmployeeState.IN_CHECK);
+		assertThat(meterRegistry.find("cache.gets").tag("cache", Employee.CACHE_REGION).functionCounters())
+				.isNotEmpty();
+	}
+
+	private Employee getEmployee() {
+
+		Employee employee = new Employee();
+		employee.setFirstName("Ahmed");
+		employee.setLastName("Muhammad Mahmoud");
+		employee.setEmail("cached@test.com");
+		employee.setPhoneNumber("00201234567931");
+		employee.setGender("male");
+		employee.setCountryCode("EG");
+		employee.setPosition("Technical Lead");
+		employee.setBirthDate(Date.from(Instant.parse("2001-01-01T00:00:00.000Z")));
+		employee.setPassword("12345678");
+		return employee;
+	}
+}
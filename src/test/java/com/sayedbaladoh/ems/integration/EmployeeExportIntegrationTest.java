@@ -0,0 +1,143 @@
+package com.sayedbaladoh.ems.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeFormat;
+import com.sayedbaladoh.ems.service.EmployeeService;
+
+/**
+ * Employee export end-to-end test
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext
+@EmbeddedKafka(
+		topics = "${kafka.topic.name}",
+		bootstrapServersProperty = "kafka.bootstrap.servers")
+class EmployeeExportIntegrationTest {
+
+	private final String EXPORT_URL = "/api/employees/export";
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private EmployeeService employeeService;
+
+	/**
+	 * Validate the filtered employees are streamed as gzip compressed CSV, with
+	 * quoted values and without passwords
+	 */
+	@Test
+	public void givenEmployees_whenExportCsvGzip_thenFilteredRowsStreamed() throws Exception {
+
+		// Data preparation
+		employeeService.add(getEmployee("export1@test.com", "00201234567961", "Payroll, Exports"));
+		employeeService.add(getEmployee("export2@test.com", "00201234567962", "Payroll, Exports"));
+		employeeService.add(getEmployee("export3@test.com", "00201234567963", "Designer"));
+
+		// Method call
+		MvcResult result = mvc.perform(get(EXPORT_URL)
+				.param("format", "csv")
+				.param("position", "Payroll, Exports")
+				.header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		// Verification
+		mvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_TYPE, EmployeeFormat.CSV_VALUE))
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+				.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+		String csv = gunzip(result.getResponse().getContentAsByteArray());
+		String[] lines = csv.split("\r\n");
+		assertThat(lines).hasSize(3);
+		assertThat(lines[0]).isEqualTo("id,first_name,last_name,email,phone_number,birth_date,gender,"
+				+ "country_code,position,contract_information,state,createdAt,updatedAt");
+		assertThat(lines[1])
+				.contains(",export1@test.com,00201234567961,2001-01-01,male,EG,\"Payroll, Exports\",,ADDED,");
+		assertThat(lines[2]).contains(",export2@test.com,");
+		assertThat(csv).doesNotContain("12345678").doesNotContain("export3@test.com");
+	}
+
+	/**
+	 * Validate the employee summaries are streamed as NDJSON, one per line,
+	 * uncompressed when gzip is refused
+	 */
+	@Test
+	public void givenEmployees_whenExportNdjsonSummary_thenOneSummaryPerLine() throws Exception {
+
+		// Data preparation
+		employeeService.add(getEmployee("export4@test.com", "00201234567964", "Auditor"));
+
+		// Method call
+		MvcResult result = mvc.perform(get(EXPORT_URL)
+				.param("view", "summary")
+				.param("position", "Auditor")
+				.header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+
+		// Verification
+		mvc.perform(asyncDispatch(result))
+				.andExpect(status().isOk())
+				.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+				.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+		String ndjson = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+		assertThat(ndjson).endsWith("\n");
+		assertThat(ndjson.split("\n")).hasSize(1);
+		assertThat(ndjson).contains("\"email\":\"export4@test.com\"").contains("\"phone_number\":\"00201234567964\"")
+				.doesNotContain("birth_date");
+	}
+
+	private String gunzip(byte[] content) throws Exception {
+
+		try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(content))) {
+			return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+	private Employee getEmployee(String email, String phoneNumber, String position) {
+
+		Employee employee = new Employee();
+		employee.setFirstName("Ahmed");
+		employee.setLastName("Muhammad Mahmoud");
+		employee.setEmail(email);
+		employee.setPhoneNumber(phoneNumber);
+		employee.setGender("male");
+		employee.setCountryCode("EG");
+		employee.setPosition(position);
+		employee.setBirthDate(Date.from(Instant.parse("2001-01-01T00:00:00.000Z")));
+		employee.setPassword("12345678");
+		return employee;
+	}
+}
@@ -0,0 +1,161 @@
+package com.sayedbaladoh.ems.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeFormat;
+import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.repository.EmployeeRepository;
+
+/**
+ * Employee import end-to-end test
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@DirtiesContext
+@EmbeddedKafka(
+		topics = "${kafka.topic.name}",
+		bootstrapServersProperty = "kafka.bootstrap.servers")
+class EmployeeImportIntegrationTest {
+
+	private final String IMPORT_URL = "/api/employees/import";
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private EmployeeRepository employeeRepository;
+
+	/**
+	 * Validate valid CSV rows are imported, with quoted values, and invalid or
+	 * repeated rows are reported
+	 */
+	@Test
+	public void givenCsvRows_whenImport_thenValidRowsInsertedAndErrorsReported() throws Exception {
+
+		// Data preparation
+		String csv = "first_name,last_name,email,phone_number,gender,country_code,position,birth_date,password\r\n"
+				+ "Ahmed,Mahmoud,csv1@test.com,00201234567941,male,EG,\"Lead, Backend\",2001-01-01,12345678\r\n"
+				+ "Sara,Ahmed,not-an-email,00201234567942,female,EG,Tester,2001-01-01,12345678\r\n"
+				+ "Mona,Hassan,csv3@test.com,00201234567943,female,EG,Developer,2001-01-01,12345678\r\n"
+				+ "Omar,Salem,csv4@test.com,00201234567941,male,EG,Developer,2001-01-01,12345678\r\n"
+				+ "Karim,Nasser,csv5@test.com,00201234567945,male,EG,Designer,2001-01-01,12345678\r\n";
+
+		// Method call & Verification
+		mvc.perform(post(IMPORT_URL)
+				.contentType(EmployeeFormat.CSV_VALUE)
+				.content(csv))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.rows", is(5)))
+				.andExpect(jsonPath("$.imported", is(3)))
+				.andExpect(jsonPath("$.failed", is(2)))
+				.andExpect(jsonPath("$.errors", hasSize(2)))
+				.andExpect(jsonPath("$.errors[0].row", is(2)))
+				.andExpect(jsonPath("$.errors[0].field", is("email")))
+				.andExpect(jsonPath("$.errors[1].row", is(4)))
+				.andExpect(jsonPath("$.errors[1].field", is("phone_number")));
+
+		Employee imported = employeeRepository.findByEmail("csv1@test.com").get();
+		assertThat(imported.getPosition()).isEqualTo("Lead, Backend");
+		assertThat(imported.getState()).isEqualTo(EmployeeState.ADDED);
+		assertThat(imported.getPassword()).isNotEqualTo("12345678");
+		assertThat(employeeRepository.findByEmail("csv5@test.com")).isPresent();
+	}
+
+	/**
+	 * Validate NDJSON rows are imported and malformed lines, including ones
+	 * that are not JSON objects, are reported
+	 */
+	@Test
+	public void givenNdjsonRows_whenImport_thenValidRowsInsertedAndMalformedReported() throws Exception {
+
+		// Data preparation
+		String ndjson = "{\"first_name\":\"Laila\",\"last_name\":\"Farouk\",\"email\":\"ndjson1@test.com\","
+				+ "\"phone_number\":\"00201234567951\",\"gender\":\"female\",\"country_code\":\"EG\","
+				+ "\"position\":\"Accountant\",\"birth_date\":\"2001-01-01\",\"password\":\"12345678\"}\n"
+				+ "{\"first_name\":\"Nour\",\n"
+				+ "null\n"
+				+ "[\"Nour\"]\n";
+
+		// Method call & Verification
+		mvc.perform(post(IMPORT_URL)
+				.contentType(EmployeeFormat.NDJSON_VALUE)
+				.content(ndjson))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.imported", is(1)))
+				.andExpect(jsonPath("$.failed", is(3)))
+				.andExpect(jsonPath("$.errors[0].row", is(2)))
+				.andExpect(jsonPath("$.errors[0].field", nullValue()))
+				.andExpect(jsonPath("$.errors[1].row", is(3)))
+				.andExpect(jsonPath("$.errors[1].message", is("Malformed row: not a JSON object")))
+				.andExpect(jsonPath("$.errors[2].row", is(4)))
+				.andExpect(jsonPath("$.errors[2].message", is("Malformed row: not a JSON object")));
+
+		assertThat(employeeRepository.findByEmail("ndjson1@test.com")).isPresent();
+	}
+
+	/**
+	 * Validate rows with an email or phone number of an existing employee are
+	 * reported, and a chunk failing on insert is retried row by row so only the
+	 * failing row is reported
+	 */
+	@Test
+	public void givenTakenAndFailingRows_whenImport_thenReportedAndOtherRowsInserted() throws Exception {
+
+		// Data preparation
+		String header = "first_name,last_name,email,phone_number,gender,country_code,birth_date,password,"
+				+ "contract_information\r\n";
+		mvc.perform(post(IMPORT_URL)
+				.contentType(EmployeeFormat.CSV_VALUE)
+				.content(header
+						+ "Hany,Fathy,taken1@test.com,00201234567961,male,EG,2001-01-01,12345678,\r\n"))
+				.andExpect(jsonPath("$.imported", is(1)));
+		// Longer than its column and not validated, so only the insert fails
+		String contract = String.join("", Collections.nCopies(300, "x"));
+		String csv = header
+				+ "Adel,Samir,taken1@test.com,00201234567962,male,EG,2001-01-01,12345678,\r\n"
+				+ "Rania,Adel,taken2@test.com,+201234567961,female,EG,2001-01-01,12345678,\r\n"
+				+ "Tarek,Zaki,taken3@test.com,00201234567963,male,EG,2001-01-01,12345678," + contract + "\r\n"
+				+ "Yasmin,Fouad,taken4@test.com,00201234567964,female,EG,2001-01-01,12345678,\r\n";
+
+		// Method call & Verification
+		mvc.perform(post(IMPORT_URL)
+				.contentType(EmployeeFormat.CSV_VALUE)
+				.content(csv))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.rows", is(4)))
+				.andExpect(jsonPath("$.imported", is(1)))
+				.andExpect(jsonPath("$.failed", is(3)))
+				.andExpect(jsonPath("$.errors[0].row", is(1)))
+				.andExpect(jsonPath("$.errors[0].field", is("email")))
+				.andExpect(jsonPath("$.errors[1].row", is(2)))
+				.andExpect(jsonPath("$.errors[1].field", is("phone_number")))
+				.andExpect(jsonPath("$.errors[2].row", is(3)))
+				.andExpect(jsonPath("$.errors[2].field", nullValue()));
+
+		assertThat(employeeRepository.findByEmail("taken3@test.com")).isEmpty();
+		assertThat(employeeRepository.findByEmail("taken4@test.com")).isPresent();
+	}
+}
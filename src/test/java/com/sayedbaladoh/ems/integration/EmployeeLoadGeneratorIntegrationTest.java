@@ -0,0 +1,124 @@
+package com.sayedbaladoh.ems.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sayedbaladoh.ems.repository.EmployeeRepository;
+import com.sayedbaladoh.ems.repository.OutboxEventRepository;
+import com.sayedbaladoh.ems.service.EmployeeEventListener;
+
+/**
+ * Load generator smoke test against the in-process publisher, with the outbox
+ * relayed to it, so no broker is needed
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+		properties = { "ems.load-generator.enabled=true", "ems.events.publisher=in-process",
+				"ems.outbox.enabled=true", "ems.outbox.poll-interval=100",
+				"management.endpoints.web.exposure.include=loadgenerator" })
+@AutoConfigureMockMvc
+@DirtiesContext
+class EmployeeLoadGeneratorIntegrationTest {
+
+	private final String API_URL = "/actuator/loadgenerator";
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private EmployeeRepository repository;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private AtomicLong receivedEvents;
+
+	@TestConfiguration
+	static class EventCountConfiguration {
+
+		@Bean
+		public AtomicLong receivedEvents() {
+			return new AtomicLong();
+		}
+
+		@Bean
+		public EmployeeEventListener countingListener(AtomicLong receivedEvents) {
+			return (topicName, event) -> receivedEvents.incrementAndGet();
+		}
+	}
+
+	@AfterEach
+	public void cleanUp() {
+		repository.deleteAll();
+	}
+
+	/**
+	 * Validate a run started from the actuator endpoint drives the service
+	 * without errors and its events are relayed from the outbox to the
+	 * in-process listeners
+	 */
+	@Test
+	public void givenInProcessPublisher_whenLoadGeneratorRuns_thenOperationsReportedAndEventsRelayed()
+			throws Exception {
+
+		// Method call
+		mvc.perform(post(API_URL)
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("{\"rate\":50,\"duration\":1,\"threads\":2}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.rate", is(50)))
+				.andExpect(jsonPath("$.threads", is(2)));
+
+		JsonNode report = null;
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (System.currentTimeMillis() < deadline) {
+			report = objectMapper.readTree(mvc.perform(get(API_URL))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString());
+			if (!report.get("running").asBoolean())
+				break;
+			Thread.sleep(100);
+		}
+		long added = report.get("operations").get("add").get("count").asLong();
+		while ((outboxEventRepository.count() > 0 || receivedEvents.get() < added)
+				&& System.currentTimeMillis() < deadline)
+			Thread.sleep(100);
+
+		// Verification
+		assertThat(report.get("running").asBoolean()).isFalse();
+		assertThat(added).isPositive();
+		for (JsonNode operation : report.get("operations"))
+			assertThat(operation.get("errors").asLong()).isZero();
+		assertThat(repository.count()).isEqualTo(added);
+		assertThat(outboxEventRepository.count()).isZero();
+		assertThat(receivedEvents.get()).isGreaterThanOrEqualTo(added);
+	}
+}
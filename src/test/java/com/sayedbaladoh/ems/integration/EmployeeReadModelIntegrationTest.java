@@ -0,0 +1,150 @@
+package com.sayedbaladoh.ems.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeEvent;
+import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.service.EmployeeReadModel;
+import com.sayedbaladoh.ems.service.EmployeeService;
+
+/**
+ * Read model end-to-end test against the embedded Kafka broker
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+		properties = { "ems.read-model.enabled=true" })
+@AutoConfigureMockMvc
+@DirtiesContext
+@EmbeddedKafka(
+		partitions = 2,
+		topics = "${kafka.topic.name}",
+		bootstrapServersProperty = "kafka.bootstrap.servers")
+class EmployeeReadModelIntegrationTest {
+
+	private final String API_URL = "/api/employees";
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private EmployeeService employeeService;
+
+	@Autowired
+	private EmployeeReadModel readModel;
+
+	/**
+	 * Validate added and state changed employees are projected and served by the
+	 * GET endpoints with the lag header
+	 */
+	@Test
+	public void givenPublishedEvents_whenGetEmployee_thenServedFromReadModel() throws Exception {
+
+		// Data preparation
+		Employee employee = getEmployee();
+		Long id = employeeService.add(employee).getId();
+
+		// Method call
+		Optional<Employee> added = await(id, projected -> projected.getState() == EmployeeState.ADDED);
+		employeeService.changeState(id, EmployeeEvent.CHECK);
+		Optional<Employee> checked = await(id, projected -> projected.getState() == EmployeeState.IN_CHECK);
+
+		// Verification
+		assertThat(added).map(Employee::getEmail).contains(employee.getEmail());
+		assertThat(added).map(Employee::getCreatedAt).isNotEmpty();
+		assertThat(checked).map(Employee::getFirstName).contains(employee.getFirstName());
+		assertThat(checked).map(Employee::getCreatedAt).isNotEmpty();
+
+		mvc.perform(get(API_URL + "/" + id))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(EmployeeReadModel.LAG_HEADER))
+				.andExpect(jsonPath("$.state", is(EmployeeState.IN_CHECK.name())))
+				.andExpect(jsonPath("$.createdAt", notNullValue()));
+		mvc.perform(get(API_URL))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(EmployeeReadModel.LAG_HEADER))
+				.andExpect(jsonPath("$.content[0].id", is(id.intValue())));
+		mvc.perform(get(API_URL).param("view", "summary"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].createdAt", notNullValue()));
+	}
+
+	/**
+	 * Validate a deleted employee is removed from the read model by its
+	 * tombstone and no longer served
+	 */
+	@Test
+	public void givenDeletedEmployee_whenGetEmployee_thenNotFound() throws Exception {
+
+		// Data preparation
+		Employee employee = getEmployee();
+		employee.setEmail("deleted@test.com");
+		employee.setPhoneNumber("00201234567922");
+		Long id = employeeService.add(employee).getId();
+		assertThat(await(id, projected -> true)).isNotEmpty();
+
+		// Method call
+		mvc.perform(delete(API_URL + "/" + id))
+				.andExpect(status().isOk());
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (readModel.exists(id) && System.currentTimeMillis() < deadline)
+			Thread.sleep(50);
+
+		// Verification
+		assertThat(readModel.exists(id)).isFalse();
+		mvc.perform(get(API_URL + "/" + id))
+				.andExpect(status().isNotFound());
+	}
+
+	private Optional<Employee> await(Long id, Predicate<Employee> condition) throws InterruptedException {
+
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (System.currentTimeMillis() < deadline) {
+			Optional<Employee> projected = readModel.get(id);
+			if (projected.filter(condition).isPresent())
+				return projected;
+			Thread.sleep(50);
+		}
+		return readModel.get(id);
+	}
+
+	private Employee getEmployee() {
+
+		Employee employee = new Employee();
+		employee.setFirstName("Ahmed");
+		employee.setLastName("Muhammad Mahmoud");
+		employee.setEmail("projected@test.com");
+		employee.setPhoneNumber("00201234567921");
+		employee.setGender("male");
+		employee.setCountryCode("EG");
+		employee.setPosition("Technical Lead");
+		employee.setBirthDate(Date.from(Instant.parse("2001-01-01T00:00:00.000Z")));
+		employee.setPassword("12345");
+		return employee;
+	}
+}
@@ -15,6 +15,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 
@@ -33,9 +34,11 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.sayedbaladoh.ems.EmsApplication;
+import com.sayedbaladoh.ems.model.AvailabilityCheck;
 import com.sayedbaladoh.ems.model.Employee;
 import com.sayedbaladoh.ems.model.EmployeeEvent;
 import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.model.StateChange;
 import com.sayedbaladoh.ems.model.StateEvent;
 import com.sayedbaladoh.ems.repository.EmployeeRepository;
 import com.sayedbaladoh.ems.util.JsonUtil;
@@ -224,6 +227,87 @@ public class EmployeeRestIntegrationTest {
 				.andExpect(jsonPath("$.state", is(EmployeeState.IN_CHECK.toString())));
 	}
 
+	/**
+	 * Verify change the state of a list of employees
+	 * 
+	 * @throws IOException
+	 * @throws Exception
+	 */
+	@Test
+	public void whenStateChangesInput_thenChangeTheEmployeesStateAndReportOutcomes() throws IOException, Exception {
+		// Data preparation
+		Employee employee1 = getEmployee("Mohamed", "Ahmed", "00201235478915", "test1@test.com", "12345789",
+				"2006-01-01T00:00:00.000Z", "male", "EG", "Web Admin");
+		employee1.setState(EmployeeState.ADDED);
+		employee1 = saveTestEmployee(employee1);
+		Employee employee2 = getEmployee("Ahmed", "Mohamed", "00201235478912", "test2@test.com", "12345789",
+				"2005-01-01T00:00:00.000Z", "male", "EG", "Developer");
+		employee2.setState(EmployeeState.ADDED);
+		employee2 = saveTestEmployee(employee2);
+
+		List<StateChange> stateChanges = Arrays.asList(getStateChange(employee1.getId(), EmployeeEvent.CHECK),
+				getStateChange(employee2.getId(), EmployeeEvent.APPROVE),
+				getStateChange(INVALID_ID, EmployeeEvent.CHECK));
+
+		// Method call and Verification
+		mvc.perform(patch(API_URL + "/state")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(JsonUtil.toJson(stateChanges)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(3)))
+				.andExpect(jsonPath("$[0].outcome", is("APPLIED")))
+				.andExpect(jsonPath("$[0].state", is(EmployeeState.IN_CHECK.toString())))
+				.andExpect(jsonPath("$[1].outcome", is("INVALID_TRANSITION")))
+				.andExpect(jsonPath("$[1].state", is(EmployeeState.ADDED.toString())))
+				.andExpect(jsonPath("$[2].outcome", is("NOT_FOUND")));
+
+		assertThat(repository.findById(employee1.getId()).get().getState())
+				.isEqualTo(EmployeeState.IN_CHECK);
+		assertThat(repository.findById(employee2.getId()).get().getState())
+				.isEqualTo(EmployeeState.ADDED);
+	}
+
+	/**
+	 * Verify a list of state changes with a null element is rejected
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void whenStateChangesInputWithNull_thenBadRequest() throws Exception {
+		// Method call and Verification
+		mvc.perform(patch(API_URL + "/state")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"id\":1,\"event\":\"CHECK\"},null]"))
+				.andExpect(status().isBadRequest());
+	}
+
+	/**
+	 * Verify the availability of a list of emails and phone numbers
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void whenAvailabilityInput_thenReportEachEmailAndPhoneNumber() throws Exception {
+		// Data preparation
+		Employee employee = getEmployee("Mohamed", "Ahmed", "00201235478915", "test1@test.com", "12345789",
+				"2006-01-01T00:00:00.000Z", "male", "EG", "Web Admin");
+		saveTestEmployee(employee);
+
+		AvailabilityCheck check = new AvailabilityCheck();
+		check.setEmails(Arrays.asList("test1@test.com", "free@test.com"));
+		check.setPhoneNumbers(Arrays.asList("00201235478999", "00201235478915"));
+
+		// Method call and Verification
+		mvc.perform(post(API_URL + "/availability")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(JsonUtil.toJson(check)))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.emails['test1@test.com']", is(false)))
+				.andExpect(jsonPath("$.emails['free@test.com']", is(true)))
+				.andExpect(jsonPath("$.phone_numbers['00201235478999']", is(true)))
+				.andExpect(jsonPath("$.phone_numbers['00201235478915']", is(false)));
+	}
+
 	/**
 	 * Verify Put valid Employee
 	 * 
@@ -310,6 +394,14 @@ public class EmployeeRestIntegrationTest {
 		return repository.saveAndFlush(employee);
 	}
 
+	private StateChange getStateChange(Long id, EmployeeEvent event) {
+
+		StateChange stateChange = new StateChange();
+		stateChange.setId(id);
+		stateChange.setEvent(event);
+		return stateChange;
+	}
+
 	private Employee getEmployee(String firstName, String lastName, String phoneNumber, String email, String password,
 			String birthDate, String gender, String countryCode, String position) {
 
@@ -0,0 +1,139 @@
+package com.sayedbaladoh.ems.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.service.EmployeeReadModel;
+import com.sayedbaladoh.ems.service.EmployeeService;
+import com.sayedbaladoh.ems.service.EmployeeSnapshotBootstrap;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Snapshot bootstrap end-to-end test against the embedded Kafka broker
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+		properties = { "ems.read-model.enabled=true", "ems.snapshot.enabled=true",
+				"kafka.topic.snapshot-name=ems-employee-snapshot-test" })
+@DirtiesContext
+@EmbeddedKafka(
+		partitions = 2,
+		topics = "${kafka.topic.name}",
+		bootstrapServersProperty = "kafka.bootstrap.servers")
+class EmployeeSnapshotBootstrapIntegrationTest {
+
+	@Autowired
+	private EmployeeService employeeService;
+
+	@Autowired
+	private EmployeeSnapshotBootstrap bootstrap;
+
+	@Autowired
+	private ConsumerFactory<String, byte[]> readModelConsumerFactory;
+
+	/**
+	 * Validate a node starting later loads the published employees from the
+	 * snapshot topic before starting the events listener
+	 */
+	@Test
+	public void givenPublishedSnapshots_whenBootstrap_thenReadModelLoaded() throws Exception {
+
+		// Data preparation
+		assertThat(bootstrap.health().getStatus()).isEqualTo(Status.UP);
+		Long id = employeeService.add(getEmployee()).getId();
+
+		EmployeeReadModel readModel = new EmployeeReadModel(new SimpleMeterRegistry());
+		MessageListenerContainer container = mock(MessageListenerContainer.class);
+		KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+		when(registry.getListenerContainer(anyString())).thenReturn(container);
+
+		// Method call
+		long deadline = System.currentTimeMillis() + 10_000;
+		EmployeeSnapshotBootstrap node;
+		do {
+			node = new EmployeeSnapshotBootstrap(readModel, readModelConsumerFactory, registry,
+					"ems-employee-snapshot-test", 2, 10_000, 60_000);
+			node.run(null);
+		} while (!readModel.exists(id) && System.currentTimeMillis() < deadline);
+
+		// Verification
+		assertThat(readModel.get(id)).map(Employee::getEmail).contains("snapshot@test.com");
+		assertThat(node.health().getStatus()).isEqualTo(Status.UP);
+		assertThat(node.health().getDetails()).containsEntry("progress", 100L);
+		verify(container, atLeastOnce()).start();
+	}
+
+	/**
+	 * Validate a deleted employee is not loaded back from the snapshot topic,
+	 * its tombstone follows its snapshot
+	 */
+	@Test
+	public void givenDeletedEmployee_whenBootstrap_thenNotLoaded() throws Exception {
+
+		// Data preparation, the kept employee is published after the tombstone
+		Employee deleted = employeeService.add(getEmployee("deleted-snapshot@test.com", "00201234567932"));
+		employeeService.delete(deleted);
+		Long keptId = employeeService.add(getEmployee("kept-snapshot@test.com", "00201234567933")).getId();
+
+		MessageListenerContainer container = mock(MessageListenerContainer.class);
+		KafkaListenerEndpointRegistry registry = mock(KafkaListenerEndpointRegistry.class);
+		when(registry.getListenerContainer(anyString())).thenReturn(container);
+
+		// Method call
+		long deadline = System.currentTimeMillis() + 10_000;
+		EmployeeReadModel readModel;
+		do {
+			readModel = new EmployeeReadModel(new SimpleMeterRegistry());
+			new EmployeeSnapshotBootstrap(readModel, readModelConsumerFactory, registry,
+					"ems-employee-snapshot-test", 2, 10_000, 60_000).run(null);
+		} while (!(readModel.exists(keptId) && !readModel.exists(deleted.getId()))
+				&& System.currentTimeMillis() < deadline);
+
+		// Verification
+		assertThat(readModel.exists(keptId)).isTrue();
+		assertThat(readModel.exists(deleted.getId())).isFalse();
+	}
+
+	private Employee getEmployee() {
+		return getEmployee("snapshot@test.com", "00201234567931");
+	}
+
+	private Employee getEmployee(String email, String phoneNumber) {
+
+		Employee employee = new Employee();
+		employee.setFirstName("Ahmed");
+		employee.setLastName("Muhammad Mahmoud");
+		employee.setEmail(email);
+		employee.setPhoneNumber(phoneNumber);
+		employee.setGender("male");
+		employee.setCountryCode("EG");
+		employee.setPosition("Technical Lead");
+		employee.setBirthDate(Date.from(Instant.parse("2001-01-01T00:00:00.000Z")));
+		employee.setPassword("12345");
+		return employee;
+	}
+}
@@ -0,0 +1,150 @@
+package com.sayedbaladoh.ems.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.CoreMatchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.util.Date;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeEvent;
+import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.model.StateEvent;
+import com.sayedbaladoh.ems.repository.EmployeeRepository;
+import com.sayedbaladoh.ems.service.EmployeeService;
+import com.sayedbaladoh.ems.util.JsonUtil;
+
+/**
+ * Asynchronous state change end-to-end test: 202 answer and status polling
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(
+		properties = { "ems.state-machine.async.enabled=true", "ems.state-machine.async.lanes=2" })
+@AutoConfigureMockMvc
+@DirtiesContext
+class EmployeeStateChangeLanesIntegrationTest {
+
+	private final String API_URL = "/api/employees";
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private EmployeeService employeeService;
+
+	@Autowired
+	private EmployeeRepository repository;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@AfterEach
+	public void cleanUp() {
+		repository.deleteAll();
+	}
+
+	/**
+	 * Validate a state change is accepted with 202 and its status location,
+	 * then polled until completed with the new state
+	 */
+	@Test
+	public void givenAsyncStateChange_whenPatchState_thenAcceptedAndPolledUntilCompleted() throws Exception {
+
+		// Data preparation
+		Long id = employeeService.add(getEmployee()).getId();
+		StateEvent stateEvent = new StateEvent();
+		stateEvent.setEvent(EmployeeEvent.CHECK);
+
+		// Method call
+		String accepted = mvc.perform(patch(API_URL + "/" + id + "/state")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(JsonUtil.toJson(stateEvent)))
+				.andExpect(status().isAccepted())
+				.andExpect(jsonPath("$.employee_id", is(id.intValue())))
+				.andExpect(jsonPath("$.event", is(EmployeeEvent.CHECK.name())))
+				.andReturn().getResponse().getContentAsString();
+		String taskId = objectMapper.readTree(accepted).get("id").asText();
+
+		JsonNode task = null;
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (System.currentTimeMillis() < deadline) {
+			task = objectMapper.readTree(mvc.perform(get(API_URL + "/state-changes/" + taskId))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString());
+			if ("COMPLETED".equals(task.get("status").asText()))
+				break;
+			Thread.sleep(50);
+		}
+
+		// Verification
+		assertThat(task.get("status").asText()).isEqualTo("COMPLETED");
+		assertThat(task.get("state").asText()).isEqualTo(EmployeeState.IN_CHECK.name());
+		assertThat(task.get("completed_at").isNull()).isFalse();
+		assertThat(repository.findById(id).get().getState()).isEqualTo(EmployeeState.IN_CHECK);
+	}
+
+	/**
+	 * Validate the 202 answer links to the state change, and unknown state
+	 * changes and employees are not found
+	 */
+	@Test
+	public void givenAsyncStateChange_whenPatchState_thenLocationPointsToStateChange() throws Exception {
+
+		// Data preparation
+		Long id = employeeService.add(getEmployee()).getId();
+		StateEvent stateEvent = new StateEvent();
+		stateEvent.setEvent(EmployeeEvent.CHECK);
+
+		// Method call
+		MockHttpServletResponse accepted = mvc.perform(patch(API_URL + "/" + id + "/state")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(JsonUtil.toJson(stateEvent)))
+				.andExpect(status().isAccepted())
+				.andReturn().getResponse();
+		String taskId = objectMapper.readTree(accepted.getContentAsString()).get("id").asText();
+
+		// Verification
+		assertThat(accepted.getHeader("Location")).endsWith("/api/employees/state-changes/" + taskId);
+		mvc.perform(get(API_URL + "/state-changes/unknown"))
+				.andExpect(status().isNotFound());
+		mvc.perform(patch(API_URL + "/-1/state")
+				.contentType(MediaType.APPLICATION_JSON)
+				.content(JsonUtil.toJson(stateEvent)))
+				.andExpect(status().isNotFound());
+	}
+
+	private Employee getEmployee() {
+		Employee employee = new Employee();
+		employee.setFirstName("Ahmed");
+		employee.setLastName("Muhammad Mahmoud");
+		employee.setEmail("async@test.com");
+		employee.setPhoneNumber("00201234567981");
+		employee.setPassword("12345678");
+		employee.setGender("male");
+		employee.setCountryCode("EG");
+		employee.setPosition("Technical Lead");
+		employee.setBirthDate(Date.from(Instant.parse("2001-01-01T00:00:00.000Z")));
+		return employee;
+	}
+}
@@ -4,6 +4,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.time.Instant;
 import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 import org.junit.jupiter.api.AfterEach;
@@ -17,12 +18,14 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import com.sayedbaladoh.ems.model.Employee;
 import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.model.EmployeeSummary;
 
 @ExtendWith(SpringExtension.class)
 @DataJpaTest
@@ -236,6 +239,67 @@ class EmployeeRepositoryTest {
 		});
 	}
 
+	/**
+	 * Validate the cursor listing pages in (created_at, id) order, ties broken by
+	 * Id
+	 */
+	@Test
+	public void givenSetOfEmployees_whenFindPageAfter_thenReturnNextEmployeesInCreationOrder() {
+
+		// Data preparation
+		Instant createdAt = Instant.parse("2020-06-01T10:00:00Z");
+		Employee employee1 = getEmployee();
+		Employee employee2 = getEmployee("Ahmed", "Mohamed", "00201235478912", "test2@test.com", "12345789",
+				"2005-01-01T00:00:00.000Z", "male", "EG", "Developer");
+		Employee employee3 = getEmployee("Sara", "Ahmed", "00201235478921", "test3@test.com", "12345789",
+				"2007-01-01T00:00:00.000Z", "female", "EG", "Tester");
+		employee1.setCreatedAt(createdAt.plusSeconds(60));
+		employee2.setCreatedAt(createdAt);
+		employee3.setCreatedAt(createdAt);
+
+		entityManager.persist(employee1);
+		entityManager.persist(employee2);
+		entityManager.persist(employee3);
+		entityManager.flush();
+
+		// Method call
+		List<Employee> first = employeeRepository.findByOrderByCreatedAtAscIdAsc(PageRequest.of(0, 2));
+		Employee last = first.get(first.size() - 1);
+		List<Employee> next = employeeRepository.findPageAfter(last.getCreatedAt(), last.getId(),
+				PageRequest.of(0, 2));
+
+		// Verification
+		assertThat(first).extracting(Employee::getEmail).containsExactly("test2@test.com", "test3@test.com");
+		assertThat(next).extracting(Employee::getEmail).containsExactly("ahmed@test.com");
+	}
+
+	/**
+	 * Validate the summaries carry the summary columns, in the requested order
+	 */
+	@Test
+	public void givenSetOfEmployees_whenFindSummaries_thenReturnPageOfSummaries() {
+
+		// Data preparation
+		Employee employee1 = getEmployee();
+		Employee employee2 = getEmployee("Sara", "Ahmed", "00201235478921", "test3@test.com", "12345789",
+				"2007-01-01T00:00:00.000Z", "female", "EG", "Tester");
+		entityManager.persist(employee1);
+		entityManager.persist(employee2);
+		entityManager.flush();
+
+		// Method call
+		Page<EmployeeSummary> summaries = employeeRepository
+				.findSummaries(PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "firstName")));
+		Optional<EmployeeSummary> summary = employeeRepository.findSummaryById(employee1.getId());
+
+		// Verification
+		assertThat(summaries.getTotalElements()).isEqualTo(2);
+		assertThat(summaries.getContent()).extracting(EmployeeSummary::getFirstName)
+				.containsExactly("Sara", "Ahmed");
+		assertThat(summary).map(EmployeeSummary::getEmail).contains(employee1.getEmail());
+		assertThat(summary).map(EmployeeSummary::getState).contains(EmployeeState.ADDED);
+	}
+
 	@AfterEach
 	public void cleanUp() {
 		employeeRepository.deleteAll();
@@ -0,0 +1,130 @@
+package com.sayedbaladoh.ems.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.persistence.Query;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeCursor;
+import com.sayedbaladoh.ems.model.EmployeeSearch;
+import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.repository.EmployeeSearchRepository.SearchSql;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+@Import(EmployeeSearchRepository.class)
+class EmployeeSearchRepositoryTest {
+
+	private final Instant NOW = Instant.parse("2021-03-10T12:00:00Z");
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EmployeeSearchRepository employeeSearchRepository;
+
+	/**
+	 * Validate the filters are combined and the results paged in creation order
+	 */
+	@Test
+	public void givenEmployees_whenSearch_thenReturnMatchingEmployeesInCreationOrder() {
+
+		// Data preparation
+		persist("de1@test.com", "00491234567801", EmployeeState.IN_CHECK, "DE", NOW.minus(2, ChronoUnit.DAYS));
+		persist("de2@test.com", "00491234567802", EmployeeState.IN_CHECK, "DE", NOW.minus(1, ChronoUnit.DAYS));
+		persist("de3@test.com", "00491234567803", EmployeeState.IN_CHECK, "DE", NOW.minus(30, ChronoUnit.DAYS));
+		persist("de4@test.com", "00491234567804", EmployeeState.ACTIVE, "DE", NOW.minus(1, ChronoUnit.DAYS));
+		persist("eg1@test.com", "00201234567805", EmployeeState.IN_CHECK, "EG", NOW.minus(1, ChronoUnit.DAYS));
+		entityManager.flush();
+
+		EmployeeSearch search = EmployeeSearch.builder()
+				.state(EmployeeState.IN_CHECK)
+				.countryCode("DE")
+				.createdFrom(NOW.minus(7, ChronoUnit.DAYS))
+				.build();
+
+		// Method call
+		List<Employee> first = employeeSearchRepository.search(search, null, 1);
+		List<Employee> next = employeeSearchRepository.search(search, EmployeeCursor.of(first.get(0)), 10);
+
+		// Verification
+		assertThat(first).extracting(Employee::getEmail).containsExactly("de1@test.com");
+		assertThat(next).extracting(Employee::getEmail).containsExactly("de2@test.com");
+	}
+
+	/**
+	 * Validate every filter combination, with and without a cursor, is answered
+	 * from an index rather than a table scan
+	 */
+	@Test
+	public void givenEveryFilterCombination_whenExplain_thenIndexIsUsed() {
+
+		List<Consumer<EmployeeSearch>> filters = new ArrayList<>();
+		filters.add(search -> search.setState(EmployeeState.IN_CHECK));
+		filters.add(search -> search.setCountryCode("DE"));
+		filters.add(search -> search.setPosition("Developer"));
+		filters.add(search -> search.setGender("female"));
+		filters.add(search -> search.setCreatedFrom(NOW.minus(7, ChronoUnit.DAYS)));
+		filters.add(search -> search.setCreatedTo(NOW));
+		filters.add(search -> search.setUpdatedFrom(NOW.minus(7, ChronoUnit.DAYS)));
+		filters.add(search -> search.setUpdatedTo(NOW));
+
+		for (int combination = 1; combination < 1 << filters.size(); combination++) {
+			EmployeeSearch search = new EmployeeSearch();
+			for (int i = 0; i < filters.size(); i++)
+				if ((combination & 1 << i) != 0)
+					filters.get(i).accept(search);
+
+			for (EmployeeCursor cursor : new EmployeeCursor[] { null, new EmployeeCursor(NOW, 1L) }) {
+				// Method call
+				SearchSql sql = EmployeeSearchRepository.toSql(search, cursor);
+				String plan = explain(sql);
+
+				// Verification
+				assertThat(plan).as(sql.getSql())
+						.doesNotContainIgnoringCase("tableScan")
+						.containsIgnoringCase("idx_employees_");
+			}
+		}
+	}
+
+	private String explain(SearchSql sql) {
+		Query query = entityManager.getEntityManager().createNativeQuery("EXPLAIN " + sql.getSql());
+		sql.getParameters().forEach(query::setParameter);
+		return String.valueOf(query.getSingleResult());
+	}
+
+	private void persist(String email, String phoneNumber, EmployeeState state, String countryCode,
+			Instant createdAt) {
+
+		Employee employee = new Employee();
+		employee.setFirstName("Ahmed");
+		employee.setLastName("Muhammad Mahmoud");
+		employee.setEmail(email);
+		employee.setPhoneNumber(phoneNumber);
+		employee.setGender("male");
+		employee.setCountryCode(countryCode);
+		employee.setPosition("Developer");
+		employee.setBirthDate(Date.from(Instant.parse("2001-01-01T00:00:00.000Z")));
+		employee.setPassword("$2a$10$abcdefghijklmnopqrstuv");
+		employee.setState(state);
+		employee.setCreatedAt(createdAt);
+		employee.setUpdatedAt(createdAt);
+		entityManager.persist(employee);
+	}
+}
@@ -0,0 +1,97 @@
+package com.sayedbaladoh.ems.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.sayedbaladoh.ems.model.EmployeeEvent;
+import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.model.EmployeeStateHistory;
+
+@ExtendWith(SpringExtension.class)
+@DataJpaTest
+class EmployeeStateHistoryRepositoryTest {
+
+	private final Long EMPLOYEE_ID = 1L;
+	private final Long OTHER_EMPLOYEE_ID = 2L;
+	private final Instant ADDED_AT = Instant.parse("2021-01-01T00:00:00Z");
+	private final Instant CHECKED_AT = Instant.parse("2021-01-02T00:00:00Z");
+	private final Instant APPROVED_AT = Instant.parse("2021-01-03T00:00:00Z");
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EmployeeStateHistoryRepository employeeStateHistoryRepository;
+
+	@BeforeEach
+	void setUp() {
+		// Data preparation
+		persist(EMPLOYEE_ID, null, EmployeeState.ADDED, null, ADDED_AT);
+		persist(OTHER_EMPLOYEE_ID, null, EmployeeState.ADDED, null, ADDED_AT);
+		persist(EMPLOYEE_ID, EmployeeState.ADDED, EmployeeState.IN_CHECK, EmployeeEvent.CHECK, CHECKED_AT);
+		persist(EMPLOYEE_ID, EmployeeState.IN_CHECK, EmployeeState.APPROVED, EmployeeEvent.APPROVE, APPROVED_AT);
+		entityManager.flush();
+	}
+
+	/**
+	 * Validate keyset paging walks the employee history in order
+	 */
+	@Test
+	public void givenStateHistory_whenFindAfterLastId_thenReturnNextPage() {
+
+		// Method call
+		List<EmployeeStateHistory> firstPage = employeeStateHistoryRepository
+				.findByEmployeeIdAndIdGreaterThanOrderByIdAsc(EMPLOYEE_ID, 0L, PageRequest.of(0, 2));
+		List<EmployeeStateHistory> secondPage = employeeStateHistoryRepository
+				.findByEmployeeIdAndIdGreaterThanOrderByIdAsc(EMPLOYEE_ID, firstPage.get(1).getId(),
+						PageRequest.of(0, 2));
+
+		// Verification
+		assertThat(firstPage)
+				.extracting(EmployeeStateHistory::getToState)
+				.containsExactly(EmployeeState.ADDED, EmployeeState.IN_CHECK);
+		assertThat(secondPage)
+				.extracting(EmployeeStateHistory::getToState)
+				.containsExactly(EmployeeState.APPROVED);
+	}
+
+	/**
+	 * Validate as-of lookup returns the state change in effect at the given date
+	 */
+	@Test
+	public void givenStateHistory_whenFindAsOfDate_thenReturnStateInEffect() {
+
+		// Method call
+		Optional<EmployeeStateHistory> beforeAdded = employeeStateHistoryRepository
+				.findFirstByEmployeeIdAndChangedAtLessThanEqualOrderByChangedAtDescIdDesc(EMPLOYEE_ID,
+						ADDED_AT.minusSeconds(1));
+		Optional<EmployeeStateHistory> inCheck = employeeStateHistoryRepository
+				.findFirstByEmployeeIdAndChangedAtLessThanEqualOrderByChangedAtDescIdDesc(EMPLOYEE_ID,
+						CHECKED_AT.plusSeconds(60));
+		Optional<EmployeeStateHistory> approved = employeeStateHistoryRepository
+				.findFirstByEmployeeIdAndChangedAtLessThanEqualOrderByChangedAtDescIdDesc(EMPLOYEE_ID,
+						APPROVED_AT);
+
+		// Verification
+		assertThat(beforeAdded).isEmpty();
+		assertThat(inCheck).map(EmployeeStateHistory::getToState).contains(EmployeeState.IN_CHECK);
+		assertThat(approved).map(EmployeeStateHistory::getToState).contains(EmployeeState.APPROVED);
+	}
+
+	private void persist(Long employeeId, EmployeeState fromState, EmployeeState toState, EmployeeEvent event,
+			Instant changedAt) {
+		entityManager.persist(new EmployeeStateHistory(null, employeeId, fromState, toState, event, changedAt));
+	}
+}
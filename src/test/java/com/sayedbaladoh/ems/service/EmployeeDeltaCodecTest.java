@@ -0,0 +1,125 @@
+package com.sayedbaladoh.ems.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeChangeType;
+import com.sayedbaladoh.ems.model.EmployeeDeltaEvent;
+import com.sayedbaladoh.ems.model.EmployeeField;
+import com.sayedbaladoh.ems.model.EmployeeState;
+
+/**
+ * Employee Delta Codec units' test
+ *
+ * @author Sayed Baladoh
+ *
+ */
+class EmployeeDeltaCodecTest {
+
+	/**
+	 * Validate an edit carries only the changed fields and survives a round trip
+	 */
+	@Test
+	public void givenEditedEmployee_whenEncodeAndDecode_thenOnlyChangedFieldsRoundTrip() {
+
+		// Data preparation
+		Employee employee = getEmployee();
+		Map<EmployeeField, String> before = EmployeeField.valuesOf(employee);
+		employee.setPosition("Engineering Manager");
+		employee.setLastName("Çağlar 😀");
+		employee.setContractInformation(null);
+		employee.setState(EmployeeState.UPDATED);
+
+		// Method call
+		EmployeeDeltaEvent decoded = EmployeeDeltaCodec.decode(
+				EmployeeDeltaCodec.encode(EmployeeDeltaEvent.of(employee, before)));
+
+		// Verification
+		assertThat(decoded.getEmployeeId()).isEqualTo(employee.getId());
+		assertThat(decoded.getType()).isEqualTo(EmployeeChangeType.UPDATED);
+		assertThat(decoded.getState()).isEqualTo(EmployeeState.UPDATED);
+		assertThat(decoded.getChanges())
+				.containsOnlyKeys(EmployeeField.POSITION, EmployeeField.LAST_NAME,
+						EmployeeField.CONTRACT_INFORMATION)
+				.containsEntry(EmployeeField.POSITION, "Engineering Manager")
+				.containsEntry(EmployeeField.LAST_NAME, "Çağlar 😀")
+				.containsEntry(EmployeeField.CONTRACT_INFORMATION, null);
+	}
+
+	/**
+	 * Validate an edit is sent in a fraction of the bytes of the employee JSON
+	 */
+	@Test
+	public void givenEditedEmployee_whenEncode_thenSmallerThanJson() {
+
+		// Data preparation
+		Employee employee = getEmployee();
+		Map<EmployeeField, String> before = EmployeeField.valuesOf(employee);
+		employee.setPosition("Engineering Manager");
+		employee.setState(EmployeeState.UPDATED);
+
+		// Method call
+		byte[] delta = EmployeeDeltaCodec.encode(EmployeeDeltaEvent.of(employee, before));
+		byte[] json = new JsonSerializer<Employee>().serialize("ems-employee", employee);
+
+		// Verification
+		assertThat(delta.length).isLessThan(json.length / 4);
+	}
+
+	/**
+	 * Validate a state change carries no fields
+	 */
+	@Test
+	public void givenStateChange_whenEncode_thenNoFieldsAreSent() {
+
+		// Data preparation
+		Employee employee = getEmployee();
+		employee.setState(EmployeeState.APPROVED);
+
+		// Method call
+		byte[] encoded = EmployeeDeltaCodec.encode(EmployeeDeltaEvent.of(employee, null));
+		EmployeeDeltaEvent decoded = EmployeeDeltaCodec.decode(encoded);
+
+		// Verification
+		assertThat(encoded.length).isLessThan(16);
+		assertThat(decoded.getType()).isEqualTo(EmployeeChangeType.STATE_CHANGED);
+		assertThat(decoded.getState()).isEqualTo(EmployeeState.APPROVED);
+		assertThat(decoded.getChanges()).isEmpty();
+	}
+
+	/**
+	 * Validate truncated data is rejected
+	 */
+	@Test
+	public void givenTruncatedEvent_whenDecode_thenThrowIllegalArgumentException() {
+
+		// Data preparation
+		Employee employee = getEmployee();
+		employee.setState(EmployeeState.ADDED);
+		byte[] encoded = EmployeeDeltaCodec.encode(EmployeeDeltaEvent.of(employee, null));
+
+		// Method call & Verification
+		assertThatThrownBy(() -> EmployeeDeltaCodec.decode(Arrays.copyOf(encoded, encoded.length / 2)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	private Employee getEmployee() {
+
+		Employee employee = new Employee();
+		employee.setId(300L);
+		employee.setFirstName("Ahmed");
+		employee.setLastName("Muhammad Mahmoud");
+		employee.setEmail("ahmed@test.com");
+		employee.setPhoneNumber("00201234567901");
+		employee.setPosition("Technical Lead");
+		employee.setContractInformation("Full time");
+		return employee;
+	}
+}
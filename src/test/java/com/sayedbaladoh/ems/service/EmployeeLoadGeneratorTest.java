@@ -0,0 +1,148 @@
+package com.sayedbaladoh.ems.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeEvent;
+import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.model.LoadReport;
+
+/**
+ * Employee Load Generator units' test
+ *
+ * @author Sayed Baladoh
+ *
+ */
+class EmployeeLoadGeneratorTest {
+
+	private final EmployeeService employeeService = mock(EmployeeService.class);
+	private EmployeeLoadGenerator loadGenerator;
+
+	@AfterEach
+	public void tearDown() {
+		if (loadGenerator != null)
+			loadGenerator.close();
+	}
+
+	/**
+	 * Validate employees are walked forward through the state machine
+	 */
+	@Test
+	public void givenState_whenNextEvent_thenEventMovesForward() {
+		assertThat(EmployeeLoadGenerator.nextEvent(EmployeeState.ADDED)).isEqualTo(EmployeeEvent.CHECK);
+		assertThat(EmployeeLoadGenerator.nextEvent(EmployeeState.UPDATED)).isEqualTo(EmployeeEvent.CHECK);
+		assertThat(EmployeeLoadGenerator.nextEvent(EmployeeState.IN_CHECK)).isEqualTo(EmployeeEvent.APPROVE);
+		assertThat(EmployeeLoadGenerator.nextEvent(EmployeeState.APPROVED)).isEqualTo(EmployeeEvent.ACTIVATE);
+		assertThat(EmployeeLoadGenerator.nextEvent(EmployeeState.ACTIVE)).isNull();
+	}
+
+	/**
+	 * Validate a mix without one weight per operation is rejected
+	 */
+	@Test
+	public void givenIncompleteMix_whenCreate_thenIllegalArgument() {
+		assertThatThrownBy(() -> new EmployeeLoadGenerator(employeeService, 200, 60, 4, new int[] { 50, 50 }))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	/**
+	 * Validate a run drives every operation and reports them once completed
+	 */
+	@Test
+	public void givenRun_whenCompleted_thenOperationsReported() throws InterruptedException {
+
+		// Data preparation
+		mockEmployeeService();
+		loadGenerator = new EmployeeLoadGenerator(employeeService, 200, 60, 4, new int[] { 20, 30, 50 });
+
+		// Method call
+		LoadReport started = loadGenerator.start(200, 1, 2);
+		LoadReport completed = awaitCompleted();
+
+		// Verification
+		assertThat(started.isRunning()).isTrue();
+		assertThat(started.getRate()).isEqualTo(200);
+		assertThat(started.getThreads()).isEqualTo(2);
+		assertThat(completed.isRunning()).isFalse();
+		assertThat(completed.getOperations()).containsOnlyKeys("add", "edit", "change_state");
+		assertThat(completed.getOperations().values()).allMatch(operation -> operation.getErrors() == 0);
+		assertThat(completed.getOperations().get("add").getCount()).isPositive();
+		assertThat(completed.getOperations().get("change_state").getCount()).isPositive();
+		assertThat(completed.getThroughput()).isPositive();
+		verify(employeeService, atLeastOnce()).add(any());
+		verify(employeeService, atLeastOnce()).changeState(anyLong(), any());
+	}
+
+	/**
+	 * Validate a run is stopped on demand and a new one can start
+	 */
+	@Test
+	public void givenRunningRun_whenStop_thenStopped() throws InterruptedException {
+
+		// Data preparation
+		mockEmployeeService();
+		loadGenerator = new EmployeeLoadGenerator(employeeService, 200, 60, 4, new int[] { 20, 30, 50 });
+		assertThat(loadGenerator.report()).isNull();
+		loadGenerator.start(null, null, null);
+
+		// Method call
+		loadGenerator.stop();
+		LoadReport stopped = awaitCompleted();
+
+		// Verification
+		assertThat(stopped.isRunning()).isFalse();
+		assertThat(stopped.getElapsedMillis()).isLessThan(60_000);
+		assertThat(loadGenerator.start(null, 1, 1).isRunning()).isTrue();
+	}
+
+	private void mockEmployeeService() {
+
+		AtomicLong ids = new AtomicLong();
+		when(employeeService.add(any())).thenAnswer(invocation -> {
+			Employee employee = invocation.getArgument(0);
+			Employee added = new Employee();
+			added.setId(ids.incrementAndGet());
+			added.setEmail(employee.getEmail());
+			added.setState(EmployeeState.ADDED);
+			return added;
+		});
+		when(employeeService.edit(any())).thenAnswer(invocation -> {
+			Employee employee = invocation.getArgument(0);
+			employee.setState(EmployeeState.UPDATED);
+			return employee;
+		});
+		when(employeeService.changeState(anyLong(), any())).thenAnswer(invocation -> {
+			switch ((EmployeeEvent) invocation.getArgument(1)) {
+			case CHECK:
+				return EmployeeState.IN_CHECK;
+			case APPROVE:
+				return EmployeeState.APPROVED;
+			default:
+				return EmployeeState.ACTIVE;
+			}
+		});
+	}
+
+	private LoadReport awaitCompleted() throws InterruptedException {
+
+		long deadline = System.currentTimeMillis() + 10_000;
+		LoadReport report = loadGenerator.report();
+		while (report.isRunning() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(50);
+			report = loadGenerator.report();
+		}
+		return report;
+	}
+}
@@ -0,0 +1,114 @@
+package com.sayedbaladoh.ems.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeState;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Employee Read Model units' test
+ *
+ * @author Sayed Baladoh
+ *
+ */
+class EmployeeReadModelTest {
+
+	private static final String TOPIC = "ems-employee";
+
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private final EmployeeReadModel readModel = new EmployeeReadModel(meterRegistry);
+	private final JsonSerializer<Employee> serializer = new JsonSerializer<>();
+
+	/**
+	 * Validate the creation time of a JSON event is kept, though the employee
+	 * JSON ignores it on read
+	 */
+	@Test
+	public void givenJsonEvent_whenApply_thenCreatedAtKept() throws IOException {
+
+		// Data preparation
+		Instant createdAt = Instant.parse("2021-01-01T10:15:30.123Z");
+
+		// Method call
+		readModel.apply(toRecord(getEmployee(1L, createdAt)));
+
+		// Verification
+		assertThat(readModel.get(1L)).map(Employee::getCreatedAt).contains(createdAt);
+	}
+
+	/**
+	 * Validate pages are served in Id order, following ones from the end of the
+	 * previous one, and stay correct once an employee is removed
+	 */
+	@Test
+	public void givenEmployees_whenGetAllPages_thenServedInOrderWithCountedTotal() throws IOException {
+
+		// Data preparation
+		for (long id = 1; id <= 5; id++)
+			readModel.apply(toRecord(getEmployee(id, Instant.now())));
+
+		// Method call
+		Page<Employee> first = readModel.getAll(PageRequest.of(0, 2));
+		Page<Employee> second = readModel.getAll(PageRequest.of(1, 2));
+		readModel.apply(toTombstone(2L));
+		readModel.apply(toTombstone(42L));
+		Page<Employee> afterRemoval = readModel.getAll(PageRequest.of(1, 2));
+		Page<Employee> descending = readModel.getAll(PageRequest.of(0, 2, Sort.by("id").descending()));
+		Page<Employee> last = readModel.getAll(PageRequest.of(1, 2, Sort.by("id").descending()));
+
+		// Verification
+		assertThat(ids(first)).containsExactly(1L, 2L);
+		assertThat(first.getTotalElements()).isEqualTo(5);
+		assertThat(ids(second)).containsExactly(3L, 4L);
+		assertThat(ids(afterRemoval)).containsExactly(4L, 5L);
+		assertThat(afterRemoval.getTotalElements()).isEqualTo(4);
+		assertThat(ids(descending)).containsExactly(5L, 4L);
+		assertThat(ids(last)).containsExactly(3L, 1L);
+		assertThat(meterRegistry.get("ems.read-model.size").gauge().value()).isEqualTo(4);
+	}
+
+	private static List<Long> ids(Page<Employee> page) {
+		return page.getContent().stream().map(Employee::getId).collect(Collectors.toList());
+	}
+
+	private ConsumerRecord<String, byte[]> toRecord(Employee employee) {
+
+		RecordHeaders headers = new RecordHeaders();
+		byte[] value = serializer.serialize(TOPIC, headers, employee);
+		return new ConsumerRecord<>(TOPIC, 0, 0, System.currentTimeMillis(), TimestampType.CREATE_TIME, null, 0,
+				value.length, employee.getId().toString(), value, headers);
+	}
+
+	private static ConsumerRecord<String, byte[]> toTombstone(Long id) {
+		return new ConsumerRecord<>(TOPIC, 0, 0, id.toString(), null);
+	}
+
+	private static Employee getEmployee(Long id, Instant createdAt) {
+
+		Employee employee = new Employee();
+		employee.setId(id);
+		employee.setFirstName("Ahmed");
+		employee.setLastName("Muhammad Mahmoud");
+		employee.setEmail("employee" + id + "@test.com");
+		employee.setState(EmployeeState.ADDED);
+		employee.setCreatedAt(createdAt);
+		return employee;
+	}
+}
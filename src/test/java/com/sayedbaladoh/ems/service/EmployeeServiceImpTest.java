@@ -4,8 +4,10 @@
 package com.sayedbaladoh.ems.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Date;
@@ -28,10 +30,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.statemachine.StateMachine;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import com.sayedbaladoh.ems.errorhandler.ConflictException;
 import com.sayedbaladoh.ems.model.Employee;
 import com.sayedbaladoh.ems.model.EmployeeEvent;
 import com.sayedbaladoh.ems.model.EmployeeState;
@@ -65,6 +68,9 @@ class EmployeeServiceImpTest {
 	@MockBean
 	private PasswordEncoder crypt;
 
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
 	private final Long INVALID_ID = -1L;
 	private final Long FIRST_EMPLOYEE_ID = 1L;
 	private Employee employee1;
@@ -253,21 +259,76 @@ class EmployeeServiceImpTest {
 		assertThat(savedEmployee.getState())
 				.isEqualTo(EmployeeState.ADDED);
 
-		StateMachine<EmployeeState, EmployeeEvent> checkedSM = employeeService.changeState(savedEmployee.getId(),
+		EmployeeState checkedState = employeeService.changeState(savedEmployee.getId(),
 				EmployeeEvent.CHECK);
-		assertThat(checkedSM.getState().getId())
+		assertThat(checkedState)
 				.isEqualTo(EmployeeState.IN_CHECK);
 
 		Employee checkedEmployee = employeeRepository.getOne(savedEmployee.getId());
 		assertThat(checkedEmployee.getState())
 				.isEqualTo(EmployeeState.IN_CHECK);
 
-		StateMachine<EmployeeState, EmployeeEvent> approvedSM = employeeService.changeState(savedEmployee.getId(),
+		EmployeeState approvedState = employeeService.changeState(savedEmployee.getId(),
 				EmployeeEvent.APPROVE);
-		assertThat(approvedSM.getState().getId())
+		assertThat(approvedState)
 				.isEqualTo(EmployeeState.APPROVED);
 	}
 
+	/**
+	 * Validate compare and set state does not apply an event accepted against a
+	 * stale state: another transaction changes the state between the read and
+	 * the update
+	 */
+	@Test
+	void whenStateChangedConcurrently_thenCompareAndSetStateThrowsConflict() {
+		// Data preparation
+		Long employeeId = 1001L;
+		Timestamp now = Timestamp.from(Instant.now());
+		jdbcTemplate.update("INSERT INTO employees (id, first_name, last_name, phone_number, phone_canonical, "
+				+ "email, password, country_code, state, created_at, updated_at) "
+				+ "VALUES (?, 'Mohamed', 'Ahmed', '00201235478931', '+201235478931', 'cas@test.com', '12345789', "
+				+ "'EG', 'ADDED', ?, ?)", employeeId, now, now);
+		Employee employee = getEmployee("Mohamed", "Ahmed", "00201235478931", "cas@test.com", "12345789",
+				"2006-01-01T00:00:00.000Z", "male", "EG", "Web Admin");
+		employee.setId(employeeId);
+		employee.setState(EmployeeState.ADDED);
+		Mockito.when(employeeRepository.findById(employeeId)).thenAnswer(invocation -> {
+			Thread concurrentChange = new Thread(() -> jdbcTemplate.update(
+					"UPDATE employees SET state = 'IN_CHECK' WHERE id = ?", employeeId));
+			concurrentChange.start();
+			concurrentChange.join();
+			return Optional.of(employee);
+		});
+
+		try {
+			// Method call and Verification
+			assertThatThrownBy(() -> employeeService.compareAndSetState(employeeId, EmployeeEvent.CHECK))
+					.isInstanceOf(ConflictException.class);
+			assertThat(jdbcTemplate.queryForObject("SELECT state FROM employees WHERE id = ?", String.class,
+					employeeId)).isEqualTo(EmployeeState.IN_CHECK.name());
+		} finally {
+			jdbcTemplate.update("DELETE FROM employees WHERE id = ?", employeeId);
+		}
+	}
+
+	/**
+	 * Validate compare and set state ignores an event not accepted in the current
+	 * state
+	 */
+	@Test
+	void whenInvalidEvent_thenCompareAndSetStateReturnsUnchangedEmployee() {
+		// Data preparation
+		employee1.setState(EmployeeState.ADDED);
+
+		// Method call
+		Optional<Employee> employee = employeeService.compareAndSetState(FIRST_EMPLOYEE_ID, EmployeeEvent.APPROVE);
+
+		// Verification
+		assertThat(employee).isNotEmpty();
+		assertThat(employee.get().getState())
+				.isEqualTo(EmployeeState.ADDED);
+	}
+
 	/**
 	 * Verify FindById is called once
 	 */
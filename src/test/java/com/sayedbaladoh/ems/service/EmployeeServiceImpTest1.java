@@ -10,7 +10,6 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.statemachine.StateMachine;
 
 import com.sayedbaladoh.ems.model.Employee;
 import com.sayedbaladoh.ems.model.EmployeeEvent;
@@ -77,18 +76,17 @@ class EmployeeServiceImpTest1 {
 		Employee savedEmployee = employeeService.add(employee);
 		log.info("Should be ADDED, State: " + savedEmployee.getState());
 
-		StateMachine<EmployeeState, EmployeeEvent> sm = employeeService.changeState(savedEmployee.getId(),
+		EmployeeState checkedState = employeeService.changeState(savedEmployee.getId(),
 				EmployeeEvent.CHECK);
-		// log.info("State after Check Event: " + sm.getState().toString());
-		log.info("State Id after CHECKED Event: " + sm.getState().getId());
+		log.info("State Id after CHECKED Event: " + checkedState);
 
 		Employee checkedEmployee = employeeRepository.getOne(savedEmployee.getId());
 		log.info("Should be CHECKED, State: " + savedEmployee.getState());
 		log.info("Checked Employee: " + checkedEmployee);
 
-		StateMachine<EmployeeState, EmployeeEvent> approvedSM = employeeService.changeState(savedEmployee.getId(),
+		EmployeeState approvedState = employeeService.changeState(savedEmployee.getId(),
 				EmployeeEvent.APPROVE);
-		log.info("State Id after APPROVE Event: " + approvedSM.getState().getId());
+		log.info("State Id after APPROVE Event: " + approvedState);
 		log.info("Approved Employee: " + employeeRepository.getOne(savedEmployee.getId()));
 	}
 
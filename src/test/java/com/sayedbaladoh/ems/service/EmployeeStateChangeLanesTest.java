@@ -0,0 +1,194 @@
+package com.sayedbaladoh.ems.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.sayedbaladoh.ems.model.EmployeeEvent;
+import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.model.StateChangeTask;
+import com.sayedbaladoh.ems.model.StateChangeTask.Status;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Employee State Change Lanes units' test
+ *
+ * @author Sayed Baladoh
+ *
+ */
+class EmployeeStateChangeLanesTest {
+
+	private final EmployeeService employeeService = mock(EmployeeService.class);
+	private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private EmployeeStateChangeLanes lanes;
+
+	@AfterEach
+	public void tearDown() {
+		if (lanes != null)
+			lanes.shutdown();
+	}
+
+	/**
+	 * Validate the events of one employee are applied in submission order, by
+	 * one thread
+	 */
+	@Test
+	public void givenEventsOfOneEmployee_whenSubmit_thenAppliedInOrder() throws InterruptedException {
+
+		// Data preparation
+		List<EmployeeEvent> applied = Collections.synchronizedList(new ArrayList<>());
+		Set<String> threads = ConcurrentHashMap.newKeySet();
+		when(employeeService.changeState(any(), any())).thenAnswer(invocation -> {
+			threads.add(Thread.currentThread().getName());
+			applied.add(invocation.getArgument(1));
+			return EmployeeState.IN_CHECK;
+		});
+		lanes = new EmployeeStateChangeLanes(employeeService, meterRegistry, 4, 1000, 300000, false);
+		EmployeeEvent[] events = EmployeeEvent.values();
+		List<EmployeeEvent> submitted = new ArrayList<>();
+		List<StateChangeTask> tasks = new ArrayList<>();
+
+		// Method call
+		for (int i = 0; i < 200; i++) {
+			EmployeeEvent event = events[i % events.length];
+			submitted.add(event);
+			tasks.add(lanes.submit(7L, event));
+		}
+		awaitCompleted(tasks);
+
+		// Verification
+		assertThat(applied).containsExactlyElementsOf(submitted);
+		assertThat(threads).hasSize(1);
+		assertThat(lanes.get(tasks.get(0).getId())).containsSame(tasks.get(0));
+		assertThat(tasks).allMatch(task -> task.getStatus() == Status.COMPLETED
+				&& task.getState() == EmployeeState.IN_CHECK);
+	}
+
+	/**
+	 * Validate the events of employees on different lanes are applied in
+	 * parallel: each change waits for the other one to start
+	 */
+	@Test
+	public void givenEventsOfTwoEmployees_whenSubmit_thenAppliedInParallel() throws InterruptedException {
+
+		// Data preparation
+		CountDownLatch bothStarted = new CountDownLatch(2);
+		AtomicBoolean timedOut = new AtomicBoolean();
+		when(employeeService.changeState(anyLong(), any())).thenAnswer(invocation -> {
+			bothStarted.countDown();
+			if (!bothStarted.await(5, TimeUnit.SECONDS))
+				timedOut.set(true);
+			return EmployeeState.IN_CHECK;
+		});
+		lanes = new EmployeeStateChangeLanes(employeeService, meterRegistry, 2, 1000, 300000, false);
+
+		// Method call, Ids 0 and 1 hash onto lanes 0 and 1
+		List<StateChangeTask> tasks = List.of(lanes.submit(0L, EmployeeEvent.CHECK),
+				lanes.submit(1L, EmployeeEvent.CHECK));
+		awaitCompleted(tasks);
+
+		// Verification
+		assertThat(timedOut).isFalse();
+		assertThat(tasks).allMatch(task -> task.getStatus() == Status.COMPLETED);
+	}
+
+	/**
+	 * Validate completed state changes are evicted once the retention passes,
+	 * and a failed change is reported
+	 */
+	@Test
+	public void givenRetentionPassed_whenNextChangeCompletes_thenEarlierTaskEvicted() throws InterruptedException {
+
+		// Data preparation
+		when(employeeService.changeState(1L, EmployeeEvent.CHECK)).thenReturn(EmployeeState.IN_CHECK);
+		when(employeeService.changeState(2L, EmployeeEvent.CHECK)).thenThrow(new IllegalStateException("failed"));
+		lanes = new EmployeeStateChangeLanes(employeeService, meterRegistry, 1, 1000, 0, false);
+
+		// Method call
+		StateChangeTask first = lanes.submit(1L, EmployeeEvent.CHECK);
+		awaitCompleted(List.of(first));
+		Thread.sleep(5);
+		StateChangeTask second = lanes.submit(2L, EmployeeEvent.CHECK);
+		awaitCompleted(List.of(second));
+		boolean evicted = await(() -> lanes.get(first.getId()).isEmpty());
+
+		// Verification
+		assertThat(first.getStatus()).isEqualTo(Status.COMPLETED);
+		assertThat(second.getStatus()).isEqualTo(Status.FAILED);
+		assertThat(second.getError()).isEqualTo("failed");
+		assertThat(evicted).isTrue();
+	}
+
+	/**
+	 * Validate the queue depth of each lane and the latency of each state
+	 * change are measured
+	 */
+	@Test
+	public void givenStateChanges_whenCompleted_thenQueueAndLatencyMeasured() throws InterruptedException {
+
+		// Data preparation
+		CountDownLatch release = new CountDownLatch(1);
+		when(employeeService.changeState(anyLong(), any())).thenAnswer(invocation -> {
+			release.await(5, TimeUnit.SECONDS);
+			return EmployeeState.IN_CHECK;
+		});
+		lanes = new EmployeeStateChangeLanes(employeeService, meterRegistry, 2, 1000, 300000, false);
+
+		// Method call, the first change blocks lane 0, the next two wait on it
+		List<StateChangeTask> tasks = new ArrayList<>();
+		for (long id = 0; id < 6; id += 2)
+			tasks.add(lanes.submit(id, EmployeeEvent.CHECK));
+		boolean queued = await(() -> queueDepth("0") == 2);
+		release.countDown();
+		awaitCompleted(tasks);
+		boolean measured = await(() -> meterRegistry.get("ems.statemachine.lane.latency").timer().count() == 3);
+
+		// Verification
+		assertThat(queued).isTrue();
+		assertThat(measured).isTrue();
+		assertThat(queueDepth("0")).isZero();
+		assertThat(queueDepth("1")).isZero();
+		assertThat(meterRegistry.get("ems.statemachine.lane.latency").timer().totalTime(TimeUnit.MILLISECONDS))
+				.isPositive();
+	}
+
+	private double queueDepth(String lane) {
+		return meterRegistry.get("ems.statemachine.lane.queue").tag("lane", lane).gauge().value();
+	}
+
+	private static boolean await(BooleanSupplier condition) throws InterruptedException {
+
+		long deadline = System.currentTimeMillis() + 5_000;
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > deadline)
+				return false;
+			Thread.sleep(10);
+		}
+		return true;
+	}
+
+	private static void awaitCompleted(List<StateChangeTask> tasks) throws InterruptedException {
+
+		long deadline = System.currentTimeMillis() + 10_000;
+		for (StateChangeTask task : tasks)
+			while (task.getCompletedAt() == null && System.currentTimeMillis() < deadline)
+				Thread.sleep(10);
+	}
+}
@@ -0,0 +1,120 @@
+package com.sayedbaladoh.ems.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeEvent;
+import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.repository.EmployeeRepository;
+
+/**
+ * Parity test of the table state engine against the Spring Statemachine engine
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+class EmployeeStateEngineParityTest {
+
+	private final Long EMPLOYEE_ID = 1L;
+
+	@Autowired
+	private EmployeeStateEngine springEngine;
+
+	@Autowired
+	private EmployeeStateTransitionTable transitionTable;
+
+	@Autowired
+	private EmployeeStateChangeInterceptor employeeStateChangeInterceptor;
+
+	@MockBean
+	private EmployeeRepository employeeRepository;
+
+	@MockBean
+	private KafkaProducerService kafkaSender;
+
+	private EmployeeStateEngine tableEngine;
+
+	@BeforeEach
+	void setUp() {
+		tableEngine = new TableStateMachineEngine(transitionTable, employeeStateChangeInterceptor);
+	}
+
+	/**
+	 * Validate both engines give the same state, persisted state and Kafka sends
+	 * for every state and event
+	 */
+	@Test
+	public void givenEveryStateAndEvent_whenSendEvent_thenTableEngineMatchesSpringEngine() {
+
+		assertThat(springEngine).isInstanceOf(SpringStateMachineEngine.class);
+
+		for (EmployeeState state : EmployeeState.values()) {
+			for (EmployeeEvent event : EmployeeEvent.values()) {
+				String transition = state + " + " + event;
+
+				// Spring Statemachine engine
+				Employee viaSpring = getEmployee(state);
+				Mockito.when(employeeRepository.getOne(EMPLOYEE_ID)).thenReturn(viaSpring);
+				EmployeeState springState = springEngine.sendEvent(EMPLOYEE_ID, state, event);
+				int springSaves = Mockito.mockingDetails(employeeRepository).getInvocations().size();
+				int springSends = Mockito.mockingDetails(kafkaSender).getInvocations().size();
+				Mockito.reset(employeeRepository, kafkaSender);
+
+				// Table engine
+				Employee viaTable = getEmployee(state);
+				Mockito.when(employeeRepository.getOne(EMPLOYEE_ID)).thenReturn(viaTable);
+				EmployeeState tableState = tableEngine.sendEvent(EMPLOYEE_ID, state, event);
+				int tableSaves = Mockito.mockingDetails(employeeRepository).getInvocations().size();
+				int tableSends = Mockito.mockingDetails(kafkaSender).getInvocations().size();
+				Mockito.reset(employeeRepository, kafkaSender);
+
+				// Verification
+				assertThat(tableState).as(transition).isEqualTo(springState);
+				assertThat(viaTable.getState()).as(transition).isEqualTo(viaSpring.getState());
+				assertThat(tableSaves).as(transition).isEqualTo(springSaves);
+				assertThat(tableSends).as(transition).isEqualTo(springSends);
+			}
+		}
+	}
+
+	/**
+	 * Validate the compiled table resolves the configured transitions
+	 */
+	@Test
+	public void givenConfiguredTransitions_whenResolveTarget_thenReturnTargetState() {
+
+		assertThat(transitionTable.target(EmployeeState.ADDED, EmployeeEvent.CHECK))
+				.contains(EmployeeState.IN_CHECK);
+		assertThat(transitionTable.target(EmployeeState.UPDATED, EmployeeEvent.CHECK))
+				.contains(EmployeeState.IN_CHECK);
+		assertThat(transitionTable.target(EmployeeState.IN_CHECK, EmployeeEvent.APPROVE))
+				.contains(EmployeeState.APPROVED);
+		assertThat(transitionTable.target(EmployeeState.APPROVED, EmployeeEvent.ACTIVATE))
+				.contains(EmployeeState.ACTIVE);
+		assertThat(transitionTable.target(EmployeeState.ADDED, EmployeeEvent.APPROVE))
+				.isEmpty();
+		assertThat(transitionTable.target(EmployeeState.ACTIVE, EmployeeEvent.DEACTIVATE))
+				.isEmpty();
+	}
+
+	private Employee getEmployee(EmployeeState state) {
+
+		Employee employee = new Employee();
+		employee.setId(EMPLOYEE_ID);
+		employee.setFirstName("Mohamed");
+		employee.setLastName("Ahmed");
+		employee.setState(state);
+		return employee;
+	}
+}
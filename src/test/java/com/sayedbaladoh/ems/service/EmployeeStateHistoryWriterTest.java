@@ -0,0 +1,108 @@
+package com.sayedbaladoh.ems.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.sayedbaladoh.ems.model.EmployeeEvent;
+import com.sayedbaladoh.ems.model.EmployeeState;
+import com.sayedbaladoh.ems.model.EmployeeStateHistory;
+import com.sayedbaladoh.ems.repository.EmployeeStateJdbcRepository;
+
+/**
+ * Employee State History Writer units' test
+ *
+ * @author Sayed Baladoh
+ *
+ */
+class EmployeeStateHistoryWriterTest {
+
+	private final EmployeeStateJdbcRepository repository = mock(EmployeeStateJdbcRepository.class);
+
+	@AfterEach
+	public void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive())
+			TransactionSynchronizationManager.clearSynchronization();
+		TransactionSynchronizationManager.setActualTransactionActive(false);
+	}
+
+	/**
+	 * Validate a batch that fails to append is kept and retried after the retry
+	 * delay, not dropped
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void givenAppendFails_whenFlush_thenBatchRetriedAfterDelay() throws InterruptedException {
+
+		// Data preparation
+		doThrow(new DataAccessResourceFailureException("database down")).doNothing()
+				.when(repository).appendHistory(anyList());
+		EmployeeStateHistoryWriter writer = new EmployeeStateHistoryWriter(repository, 500, 100, 50, 1000);
+		writer.record(1L, EmployeeState.ADDED, EmployeeState.IN_CHECK, EmployeeEvent.CHECK);
+		writer.record(2L, EmployeeState.IN_CHECK, EmployeeState.APPROVED, EmployeeEvent.APPROVE);
+
+		// Method call
+		writer.flush();
+		writer.flush();
+		verify(repository, times(1)).appendHistory(anyList());
+		Thread.sleep(60);
+		writer.flush();
+		writer.flush();
+
+		// Verification
+		ArgumentCaptor<List<EmployeeStateHistory>> batches = ArgumentCaptor.forClass(List.class);
+		verify(repository, times(2)).appendHistory(batches.capture());
+		assertThat(batches.getAllValues().get(1).stream()
+				.map(EmployeeStateHistory::getEmployeeId)
+				.collect(Collectors.toList())).containsExactly(1L, 2L);
+	}
+
+	/**
+	 * Validate changes recorded in a transaction are appended in batches just
+	 * before it commits, and a failure fails the commit
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void givenTransaction_whenCommit_thenChangesAppendedInTransaction() {
+
+		// Data preparation
+		doNothing().doThrow(new DataAccessResourceFailureException("database down"))
+				.when(repository).appendHistory(anyList());
+		EmployeeStateHistoryWriter writer = new EmployeeStateHistoryWriter(repository, 2, 100, 50, 1000);
+		TransactionSynchronizationManager.initSynchronization();
+		TransactionSynchronizationManager.setActualTransactionActive(true);
+
+		// Method call
+		for (long id = 1; id <= 3; id++)
+			writer.record(id, null, EmployeeState.ADDED, null);
+		verifyNoInteractions(repository);
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+		// Verification
+		assertThat(synchronizations).hasSize(1);
+		assertThatThrownBy(() -> synchronizations.get(0).beforeCommit(false))
+				.isInstanceOf(DataAccessResourceFailureException.class);
+		ArgumentCaptor<List<EmployeeStateHistory>> batches = ArgumentCaptor.forClass(List.class);
+		verify(repository, times(2)).appendHistory(batches.capture());
+		assertThat(batches.getAllValues().get(0)).hasSize(2);
+		assertThat(batches.getAllValues().get(1)).hasSize(1);
+		synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+		assertThat(TransactionSynchronizationManager.getResource(writer)).isNull();
+	}
+}
@@ -0,0 +1,67 @@
+package com.sayedbaladoh.ems.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.access.StateMachineAccessor;
+import org.springframework.statemachine.config.StateMachineFactory;
+
+import com.sayedbaladoh.ems.model.EmployeeEvent;
+import com.sayedbaladoh.ems.model.EmployeeState;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Employee State Machine Pool units' test
+ *
+ * @author Sayed Baladoh
+ *
+ */
+class EmployeeStateMachinePoolTest {
+
+	/**
+	 * Validate a machine failing to reset is replaced, so the pool keeps its
+	 * size
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void givenMachineFailingToStart_whenAcquire_thenMachineReplaced() {
+
+		// Data preparation
+		StateMachineFactory<EmployeeState, EmployeeEvent> factory = mock(StateMachineFactory.class);
+		StateMachine<EmployeeState, EmployeeEvent> failing = getStateMachine();
+		StateMachine<EmployeeState, EmployeeEvent> replacement = getStateMachine();
+		doThrow(new IllegalStateException("start failed")).when(failing).start();
+		when(factory.getStateMachine(anyString())).thenReturn(failing, replacement);
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		EmployeeStateMachinePool pool = new EmployeeStateMachinePool(factory,
+				mock(EmployeeStateChangeInterceptor.class), meterRegistry, 1, 100);
+
+		// Method call
+		assertThatThrownBy(() -> pool.acquire(EmployeeState.ADDED)).isInstanceOf(IllegalStateException.class)
+				.hasMessage("start failed");
+		StateMachine<EmployeeState, EmployeeEvent> acquired = pool.acquire(EmployeeState.ADDED);
+		pool.release(acquired);
+
+		// Verification
+		assertThat(acquired).isSameAs(replacement);
+		verify(factory, times(2)).getStateMachine(anyString());
+		assertThat(meterRegistry.get("ems.statemachine.pool.idle").gauge().value()).isEqualTo(1);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static StateMachine<EmployeeState, EmployeeEvent> getStateMachine() {
+		StateMachine<EmployeeState, EmployeeEvent> sm = mock(StateMachine.class);
+		when(sm.getStateMachineAccessor()).thenReturn(mock(StateMachineAccessor.class));
+		return sm;
+	}
+}
@@ -0,0 +1,79 @@
+package com.sayedbaladoh.ems.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.sayedbaladoh.ems.model.EmployeeSuggestion;
+
+/**
+ * Employee Term Index units' test
+ *
+ * @author Sayed Baladoh
+ *
+ */
+class EmployeeTermIndexTest {
+
+	/**
+	 * Validate term prefix matches come before term substring matches and every
+	 * query term must match
+	 */
+	@Test
+	public void givenEmployees_whenSearch_thenPrefixMatchesFirstAndAllTermsMatched() {
+
+		// Data preparation
+		EmployeeTermIndex index = new EmployeeTermIndex();
+		index.put(new EmployeeSuggestion(1L, "Mohamed", "Mahmoud", "mohamed@test.com", "Developer"));
+		index.put(new EmployeeSuggestion(2L, "Ahmed", "Hassan", "ahmed@test.com", "Manager"));
+		index.put(new EmployeeSuggestion(3L, "Ahmed", "Muhammad", "ahmed.m@test.com", "Senior Developer"));
+
+		// Method call & Verification
+		assertThat(index.search("ahm", 10, 1000)).extracting(EmployeeSuggestion::getId).containsExactly(2L, 3L,
+				1L);
+		assertThat(index.search("med", 10, 1000)).extracting(EmployeeSuggestion::getId).containsExactly(1L, 2L,
+				3L);
+		assertThat(index.search("Ahmed dev", 10, 1000)).extracting(EmployeeSuggestion::getId).containsExactly(3L);
+		assertThat(index.search("ahmed", 1, 1000)).extracting(EmployeeSuggestion::getId).containsExactly(2L);
+		assertThat(index.search("xyz", 10, 1000)).isEmpty();
+		assertThat(index.search(" ", 10, 1000)).isEmpty();
+	}
+
+	/**
+	 * Validate edits replace the indexed values and removals drop them
+	 */
+	@Test
+	public void givenEditedAndRemovedEmployees_whenSearch_thenCurrentValuesMatched() {
+
+		// Data preparation
+		EmployeeTermIndex index = new EmployeeTermIndex();
+		index.put(new EmployeeSuggestion(1L, "Sara", "Salem", "sara@test.com", "Designer"));
+		index.put(new EmployeeSuggestion(2L, "Mona", "Salem", "mona@test.com", "Designer"));
+
+		// Method call
+		index.put(new EmployeeSuggestion(1L, "Sara", "Farouk", "sara@test.com", "Designer"));
+		index.remove(2L);
+
+		// Verification
+		assertThat(index.size()).isEqualTo(1);
+		assertThat(index.search("salem", 10, 1000)).isEmpty();
+		assertThat(index.search("aro", 10, 1000)).extracting(EmployeeSuggestion::getLastName)
+				.containsExactly("Farouk");
+		assertThat(index.search("mona", 10, 1000)).isEmpty();
+	}
+
+	/**
+	 * Validate a query stops after examining the maximum number of candidates
+	 */
+	@Test
+	public void givenManyCandidates_whenSearch_thenExaminedCandidatesBounded() {
+
+		// Data preparation
+		EmployeeTermIndex index = new EmployeeTermIndex();
+		for (long id = 1; id <= 100; id++)
+			index.put(new EmployeeSuggestion(id, "Ali", "Nasser" + id, "ali" + id + "@test.com", "Accountant"));
+
+		// Method call & Verification
+		assertThat(index.search("ali 99", 10, 1000)).extracting(EmployeeSuggestion::getId).containsExactly(99L);
+		assertThat(index.search("ali 99", 10, 50)).isEmpty();
+	}
+}
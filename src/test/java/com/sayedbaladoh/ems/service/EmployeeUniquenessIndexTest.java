@@ -0,0 +1,102 @@
+package com.sayedbaladoh.ems.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeIdentity;
+import com.sayedbaladoh.ems.repository.EmployeeRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Employee Uniqueness Index and Bloom Filter units' test
+ *
+ * @author Sayed Baladoh
+ *
+ */
+class EmployeeUniquenessIndexTest {
+
+	/**
+	 * Validate added values are always found and the false positive rate stays
+	 * near its target
+	 */
+	@Test
+	public void givenBloomFilter_whenMightContain_thenNoFalseNegativesAndFewFalsePositives() {
+
+		// Data preparation
+		BloomFilter filter = new BloomFilter(10000, 0.01);
+		for (int i = 0; i < 10000; i++)
+			filter.put("employee" + i + "@test.com");
+
+		// Method call
+		int falsePositives = 0;
+		for (int i = 10000; i < 110000; i++)
+			if (filter.mightContain("employee" + i + "@test.com"))
+				falsePositives++;
+
+		// Verification
+		for (int i = 0; i < 10000; i++)
+			assertThat(filter.mightContain("employee" + i + "@test.com")).isTrue();
+		assertThat(falsePositives / 100000.0).isLessThan(0.02);
+		assertThat(filter.getExpectedFalsePositiveProbability()).isBetween(0.005, 0.015);
+		assertThat(filter.getHashes()).isEqualTo(7);
+	}
+
+	/**
+	 * Validate loaded and added values fall through to the database, other
+	 * values are answered from memory, and the checks are counted
+	 */
+	@Test
+	public void givenLoadedIndex_whenCheckValues_thenOnlyPossibleMatchesQueried() {
+
+		// Data preparation
+		EmployeeRepository employeeRepository = mock(EmployeeRepository.class);
+		when(employeeRepository.count()).thenReturn(1L);
+		when(employeeRepository.findIdentitiesAfter(eq(0L), any(Pageable.class))).thenReturn(
+				Collections.singletonList(new EmployeeIdentity(1L, "Loaded@Test.com", "+201234567001")));
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		EmployeeUniquenessIndex index = new EmployeeUniquenessIndex(employeeRepository, meterRegistry, 1000, 0.01,
+				100);
+		Set<String> taken = Set.of("Loaded@Test.com", "added@test.com", "00201234567002");
+		AtomicInteger queries = new AtomicInteger();
+
+		// Method call
+		assertThat(index.isLoaded()).isFalse();
+		index.rebuild();
+		Employee added = new Employee();
+		added.setEmail("added@test.com");
+		added.setPhoneNumber("00201234567002");
+		index.put(added);
+
+		// Verification
+		assertThat(index.isLoaded()).isTrue();
+		for (String email : Arrays.asList("loaded@test.com", "added@test.com", "free@test.com"))
+			index.isEmailTaken(email, value -> {
+				queries.incrementAndGet();
+				return taken.contains(value);
+			});
+		assertThat(queries.get()).isEqualTo(2);
+		assertThat(index.isPhoneNumberTaken("002012345670 01", value -> true)).isTrue();
+		assertThat(index.isPhoneNumberTaken("00201234567999", value -> true)).isFalse();
+		assertThat(meterRegistry.get("ems.uniqueness.checks").tag("field", "email").tag("result", "absent")
+				.counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("ems.uniqueness.checks").tag("field", "email")
+				.tag("result", "false_positive").counter().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("ems.uniqueness.false-positive-rate").tag("field", "email").gauge().value())
+				.isEqualTo(0.5);
+		assertThat(meterRegistry.get("ems.uniqueness.memory").gauge().value()).isPositive();
+	}
+}
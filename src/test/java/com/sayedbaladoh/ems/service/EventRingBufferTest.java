@@ -0,0 +1,90 @@
+package com.sayedbaladoh.ems.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Event Ring Buffer units' test
+ *
+ * @author Sayed Baladoh
+ *
+ */
+class EventRingBufferTest {
+
+	/**
+	 * Validate a full buffer rejects offers until the consumer frees a slot
+	 */
+	@Test
+	public void givenFullBuffer_whenOffer_thenRejectedUntilPolled() {
+
+		// Data preparation
+		EventRingBuffer<Integer> buffer = new EventRingBuffer<>(3);
+		for (int i = 0; i < buffer.capacity(); i++)
+			assertThat(buffer.offer(i)).isTrue();
+
+		// Method call & Verification
+		assertThat(buffer.capacity()).isEqualTo(4);
+		assertThat(buffer.offer(4)).isFalse();
+		assertThat(buffer.poll()).isEqualTo(0);
+		assertThat(buffer.offer(4)).isTrue();
+		assertThat(buffer.size()).isEqualTo(4);
+		for (int expected = 1; expected <= 4; expected++)
+			assertThat(buffer.poll()).isEqualTo(expected);
+		assertThat(buffer.poll()).isNull();
+	}
+
+	/**
+	 * Validate concurrent producers lose and duplicate nothing, and each
+	 * producer's events stay in order
+	 */
+	@Test
+	public void givenConcurrentProducers_whenPoll_thenEveryEventReceivedInProducerOrder() throws Exception {
+
+		// Data preparation
+		int producers = 4;
+		int perProducer = 50_000;
+		EventRingBuffer<long[]> buffer = new EventRingBuffer<>(1024);
+		ExecutorService executor = Executors.newFixedThreadPool(producers);
+		CountDownLatch start = new CountDownLatch(1);
+		for (int p = 0; p < producers; p++) {
+			long producer = p;
+			executor.execute(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				for (long i = 0; i < perProducer; i++)
+					while (!buffer.offer(new long[] { producer, i }))
+						Thread.onSpinWait();
+			});
+		}
+
+		// Method call
+		start.countDown();
+		List<long[]> received = new ArrayList<>(producers * perProducer);
+		long deadline = System.currentTimeMillis() + 30_000;
+		while (received.size() < producers * perProducer && System.currentTimeMillis() < deadline) {
+			long[] event = buffer.poll();
+			if (event != null)
+				received.add(event);
+		}
+		executor.shutdown();
+		executor.awaitTermination(5, TimeUnit.SECONDS);
+
+		// Verification
+		assertThat(received).hasSize(producers * perProducer);
+		long[] next = new long[producers];
+		for (long[] event : received)
+			assertThat(event[1]).isEqualTo(next[(int) event[0]]++);
+		assertThat(buffer.poll()).isNull();
+	}
+}
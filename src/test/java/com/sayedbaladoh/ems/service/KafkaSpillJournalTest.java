@@ -0,0 +1,103 @@
+package com.sayedbaladoh.ems.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.sayedbaladoh.ems.model.EmployeeChangeType;
+import com.sayedbaladoh.ems.service.KafkaSpillJournal.SpilledEvent;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Kafka Spill Journal units' test
+ *
+ * @author Sayed Baladoh
+ *
+ */
+class KafkaSpillJournalTest {
+
+	private static final String TOPIC = "ems-employee-test";
+	private static final int SEGMENT_SIZE = 256;
+
+	@TempDir
+	Path directory;
+
+	/**
+	 * Validate spilled events are read back in order and removed once replayed
+	 */
+	@Test
+	public void givenSpilledEvents_whenPeekAndAcknowledge_thenEventsReplayedInOrder() throws IOException {
+
+		// Data preparation
+		KafkaSpillJournal journal = newJournal();
+		for (long id = 1; id <= 10; id++)
+			journal.append(TOPIC, id, EmployeeChangeType.STATE_CHANGED, false, payload(id));
+
+		// Method call
+		List<SpilledEvent> first = journal.peek(4);
+		journal.acknowledge(first);
+		List<SpilledEvent> rest = journal.peek(100);
+
+		// Verification
+		assertThat(first).extracting(SpilledEvent::getEmployeeId).containsExactly(1L, 2L, 3L, 4L);
+		assertThat(rest).extracting(SpilledEvent::getEmployeeId).containsExactly(5L, 6L, 7L, 8L, 9L, 10L);
+		assertThat(new String(rest.get(0).getPayload(), StandardCharsets.UTF_8)).isEqualTo("employee-5");
+		assertThat(journal.getPendingCount()).isEqualTo(6);
+
+		journal.acknowledge(rest);
+		assertThat(journal.hasPending()).isFalse();
+		assertThat(segments()).hasSize(1);
+		journal.close();
+	}
+
+	/**
+	 * Validate pending events survive a restart and replayed ones do not
+	 */
+	@Test
+	public void givenPartlyReplayedJournal_whenReopen_thenOnlyPendingEventsRecovered() throws IOException {
+
+		// Data preparation
+		KafkaSpillJournal journal = newJournal();
+		journal.append(TOPIC, 1L, EmployeeChangeType.ADDED, true, payload(1));
+		journal.append(TOPIC, null, EmployeeChangeType.ADDED, true, payload(2));
+		journal.append(TOPIC, 3L, null, false, payload(3));
+		journal.acknowledge(journal.peek(1));
+		journal.close();
+
+		// Method call
+		KafkaSpillJournal reopened = newJournal();
+		List<SpilledEvent> pending = reopened.peek(100);
+		reopened.append(TOPIC, 4L, EmployeeChangeType.UPDATED, true, payload(4));
+
+		// Verification
+		assertThat(pending).extracting(SpilledEvent::getEmployeeId).containsExactly(null, 3L);
+		assertThat(pending.get(0).isJson()).isTrue();
+		assertThat(pending.get(1).getType()).isNull();
+		assertThat(reopened.peek(100)).extracting(SpilledEvent::getEmployeeId).containsExactly(null, 3L, 4L);
+		reopened.close();
+	}
+
+	private KafkaSpillJournal newJournal() throws IOException {
+		return new KafkaSpillJournal(new SimpleMeterRegistry(), directory.toString(), SEGMENT_SIZE);
+	}
+
+	private byte[] payload(long id) {
+		return ("employee-" + id).getBytes(StandardCharsets.UTF_8);
+	}
+
+	private List<Path> segments() throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.collect(Collectors.toList());
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package com.sayedbaladoh.ems.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.model.EmployeeChangeType;
+import com.sayedbaladoh.ems.repository.OutboxEventRepository;
+
+/**
+ * Outbox Relay Test against the embedded Kafka broker
+ *
+ * @author Sayed Baladoh
+ *
+ */
+@SpringBootTest(
+		properties = { "ems.outbox.enabled=true", "ems.outbox.poll-interval=100" })
+@DirtiesContext
+@EmbeddedKafka(
+		partitions = 1,
+		topics = "${kafka.topic.name}",
+		bootstrapServersProperty = "kafka.bootstrap.servers")
+@ExtendWith(SpringExtension.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class OutboxRelayTest {
+
+	@Value("${kafka.topic.name}")
+	private String topicName;
+
+	@Autowired
+	private EmbeddedKafkaBroker embeddedKafkaBroker;
+
+	@Autowired
+	private EmployeeService employeeService;
+
+	@Autowired
+	private OutboxEventRepository outboxEventRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private KafkaMessageListenerContainer<String, Employee> container;
+
+	private BlockingQueue<ConsumerRecord<String, Employee>> consumerRecords;
+
+	@BeforeAll
+	void setUp() {
+		Map<String, Object> configs = new HashMap<>(
+				KafkaTestUtils.consumerProps("outbox-consumer", "false", embeddedKafkaBroker));
+		DefaultKafkaConsumerFactory<String, Employee> consumerFactory = new DefaultKafkaConsumerFactory<>(configs,
+				new StringDeserializer(), new JsonDeserializer<>(Employee.class));
+		ContainerProperties containerProperties = new ContainerProperties(topicName);
+		container = new KafkaMessageListenerContainer<>(consumerFactory, containerProperties);
+		consumerRecords = new LinkedBlockingQueue<>();
+		container.setupMessageListener((MessageListener<String, Employee>) consumerRecords::add);
+		container.start();
+		ContainerTestUtils.waitForAssignment(container, embeddedKafkaBroker.getPartitionsPerTopic());
+	}
+
+	@AfterAll
+	void tearDown() {
+		container.stop();
+	}
+
+	/**
+	 * Validate a committed employee is relayed from the outbox to Kafka
+	 */
+	@Test
+	public void givenOutboxEnabled_whenAddEmployee_thenEmployeeIsRelayedToKafka() throws InterruptedException {
+
+		// Data preparation
+		Employee employee = getEmployee("relayed@test.com", "00201234567911");
+
+		// Method call
+		Employee savedEmployee = employeeService.add(employee);
+
+		// Verification
+		ConsumerRecord<String, Employee> received = consumerRecords.poll(10, TimeUnit.SECONDS);
+		assertThat(received).isNotNull();
+		assertThat(received.key()).isEqualTo(savedEmployee.getId().toString());
+		assertThat(new String(received.headers().lastHeader(KafkaProducerService.EVENT_TYPE_HEADER).value(),
+				StandardCharsets.US_ASCII)).isEqualTo(EmployeeChangeType.ADDED.name());
+		assertThat(received.value().getId()).isEqualTo(savedEmployee.getId());
+		assertThat(received.value().getFirstName()).isEqualTo(employee.getFirstName());
+
+		// The relay deletes the rows once the sends are acknowledged
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (outboxEventRepository.count() > 0 && System.currentTimeMillis() < deadline)
+			Thread.sleep(100);
+		assertThat(outboxEventRepository.count()).isZero();
+	}
+
+	/**
+	 * Validate a rolled back employee is never written to the outbox
+	 */
+	@Test
+	public void givenOutboxEnabled_whenAddIsRolledBack_thenNothingIsRelayed() throws InterruptedException {
+
+		// Data preparation
+		Employee employee = getEmployee("rolledback@test.com", "00201234567912");
+
+		// Method call
+		transactionTemplate.executeWithoutResult(status -> {
+			employeeService.add(employee);
+			status.setRollbackOnly();
+		});
+
+		// Verification
+		assertThat(outboxEventRepository.count()).isZero();
+		assertThat(consumerRecords.poll(1, TimeUnit.SECONDS)).isNull();
+	}
+
+	private Employee getEmployee(String email, String phoneNumber) {
+
+		Employee employee = new Employee();
+		employee.setFirstName("Ahmed");
+		employee.setLastName("Muhammad Mahmoud");
+		employee.setEmail(email);
+		employee.setPhoneNumber(phoneNumber);
+		employee.setGender("male");
+		employee.setCountryCode("EG");
+		employee.setPosition("Technical Lead");
+		employee.setBirthDate(Date.from(Instant.parse("2001-01-01T00:00:00.000Z")));
+		employee.setPassword("12345");
+
+		return employee;
+	}
+}
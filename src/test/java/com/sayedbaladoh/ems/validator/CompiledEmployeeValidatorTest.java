@@ -0,0 +1,174 @@
+package com.sayedbaladoh.ems.validator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import com.sayedbaladoh.ems.config.MessageSourceConfig;
+import com.sayedbaladoh.ems.model.Employee;
+import com.sayedbaladoh.ems.service.EmployeeService;
+
+/**
+ * Compiled Employee Validator units' test
+ *
+ * @author Sayed Baladoh
+ *
+ */
+class CompiledEmployeeValidatorTest {
+
+	private LocalValidatorFactoryBean validatorFactory;
+
+	@BeforeEach
+	public void setUp() {
+		validatorFactory = new MessageSourceConfig().getValidator();
+		validatorFactory.afterPropertiesSet();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		LocaleContextHolder.resetLocaleContext();
+		validatorFactory.close();
+	}
+
+	/**
+	 * Validate the compiled validator reports the same fields and messages as
+	 * Hibernate Validator, in every locale
+	 */
+	@Test
+	public void givenEmployees_whenValidate_thenSameErrorsAsHibernateValidator() {
+
+		// Data preparation
+		CompiledEmployeeValidator compiled = new CompiledEmployeeValidator(validatorFactory, null, 1);
+		Employee invalid = new Employee();
+		invalid.setFirstName("Al");
+		invalid.setLastName(" ");
+		invalid.setPhoneNumber("+20 12ab");
+		invalid.setEmail("not-an-email");
+		invalid.setPassword("123");
+		invalid.setBirthDate(Date.from(Instant.now().plusSeconds(86400)));
+		invalid.setGender("other");
+		invalid.setCountryCode("XX");
+		char[] position = new char[256];
+		Arrays.fill(position, 'a');
+		invalid.setPosition(new String(position));
+		List<Employee> employees = Arrays.asList(getEmployee(), new Employee(), invalid);
+
+		try {
+			for (Locale locale : Arrays.asList(Locale.ENGLISH, Locale.GERMAN, new Locale("ar"))) {
+				LocaleContextHolder.setLocale(locale);
+				for (Employee employee : employees) {
+
+					// Method call
+					Set<String> expected = validate(validatorFactory, employee);
+					Set<String> actual = validate(compiled, employee);
+
+					// Verification
+					assertThat(actual).isEqualTo(expected);
+				}
+			}
+			assertThat(validate(compiled, getEmployee())).isEmpty();
+			assertThat(validate(compiled, invalid)).hasSize(12);
+		} finally {
+			compiled.close();
+		}
+	}
+
+	/**
+	 * Validate uniqueness is checked only when the other constraints pass,
+	 * with the taken message
+	 */
+	@Test
+	public void givenTakenEmail_whenValidate_thenTakenOnlyAfterOtherConstraintsPass() {
+
+		// Data preparation
+		EmployeeService employeeService = mock(EmployeeService.class);
+		when(employeeService.existsByEmail("ahmed@test.com")).thenReturn(true);
+		CompiledEmployeeValidator compiled = new CompiledEmployeeValidator(validatorFactory, employeeService, 1);
+		Employee invalid = getEmployee();
+		invalid.setGender("other");
+
+		try {
+			// Method call
+			Set<String> invalidErrors = validate(compiled, invalid);
+			verifyNoInteractions(employeeService);
+			Set<String> validErrors = validate(compiled, getEmployee());
+
+			// Verification
+			assertThat(invalidErrors).containsExactly("gender: inclusion! must be male or female.");
+			assertThat(validErrors).containsExactly("email: taken! must be unique.");
+		} finally {
+			compiled.close();
+		}
+	}
+
+	/**
+	 * Validate the constraints of an updated employee are checked without the
+	 * uniqueness checks
+	 */
+	@Test
+	public void givenTakenEmail_whenValidateConstraints_thenTakenNotChecked() {
+
+		// Data preparation
+		EmployeeService employeeService = mock(EmployeeService.class);
+		CompiledEmployeeValidator compiled = new CompiledEmployeeValidator(validatorFactory, employeeService, 1);
+		Employee invalid = getEmployee();
+		invalid.setEmail("not-an-email");
+		BindingResult validErrors = new BeanPropertyBindingResult(getEmployee(), "employee");
+		BindingResult invalidErrors = new BeanPropertyBindingResult(invalid, "employee");
+
+		try {
+			// Method call
+			boolean valid = compiled.validateConstraints(getEmployee(), validErrors);
+			boolean invalidValid = compiled.validateConstraints(invalid, invalidErrors);
+
+			// Verification
+			assertThat(valid).isTrue();
+			assertThat(validErrors.hasErrors()).isFalse();
+			assertThat(invalidValid).isFalse();
+			assertThat(invalidErrors.getFieldErrors()).extracting("field").containsExactly("email");
+			verifyNoInteractions(employeeService);
+		} finally {
+			compiled.close();
+		}
+	}
+
+	private static Set<String> validate(Validator validator, Employee employee) {
+		BindingResult errors = new BeanPropertyBindingResult(employee, "employee");
+		validator.validate(employee, errors);
+		return errors.getFieldErrors().stream()
+				.map(error -> error.getField() + ": " + error.getDefaultMessage())
+				.collect(Collectors.toSet());
+	}
+
+	private static Employee getEmployee() {
+		Employee employee = new Employee();
+		employee.setFirstName("Ahmed");
+		employee.setLastName("Muhammad Mahmoud");
+		employee.setEmail("ahmed@test.com");
+		employee.setPhoneNumber("00201234567901");
+		employee.setPassword("12345678");
+		employee.setGender("male");
+		employee.setCountryCode("EG");
+		employee.setPosition("Technical Lead");
+		employee.setBirthDate(Date.from(Instant.parse("2001-01-01T00:00:00.000Z")));
+		return employee;
+	}
+}
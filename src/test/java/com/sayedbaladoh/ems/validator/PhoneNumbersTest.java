@@ -0,0 +1,58 @@
+package com.sayedbaladoh.ems.validator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Phone Numbers parser units' test
+ *
+ * @author Sayed Baladoh
+ *
+ */
+class PhoneNumbersTest {
+
+	/**
+	 * Validate phone numbers are accepted with single blanks between digits,
+	 * as the former phone number pattern, and rejected otherwise
+	 */
+	@Test
+	public void givenPhoneNumbers_whenIsValid_thenOnlyWellFormedAccepted() {
+
+		// Method call & Verification
+		assertThat(PhoneNumbers.isValid("+201234567001")).isTrue();
+		assertThat(PhoneNumbers.isValid("00201234567001")).isTrue();
+		assertThat(PhoneNumbers.isValid("+20 123 456 7001")).isTrue();
+		assertThat(PhoneNumbers.isValid("1234567")).isTrue();
+		assertThat(PhoneNumbers.isValid("123456")).isFalse();
+		assertThat(PhoneNumbers.isValid("+1234567890123456")).isFalse();
+		assertThat(PhoneNumbers.isValid("+20 123-456 7001")).isFalse();
+		assertThat(PhoneNumbers.isValid("+20  1234567001")).isFalse();
+		assertThat(PhoneNumbers.isValid(" +201234567001")).isFalse();
+		assertThat(PhoneNumbers.isValid("+201234567001-")).isFalse();
+		assertThat(PhoneNumbers.isValid("+20(123)4567001")).isFalse();
+		assertThat(PhoneNumbers.isValid("++201234567001")).isFalse();
+		assertThat(PhoneNumbers.isValid("")).isFalse();
+		assertThat(PhoneNumbers.isValid(null)).isFalse();
+	}
+
+	/**
+	 * Validate spellings of the same number share one canonical form, and
+	 * canonical numbers are returned as is
+	 */
+	@Test
+	public void givenPhoneNumbers_whenCanonicalize_thenSameNumberSameForm() {
+
+		// Data preparation
+		String canonical = "+201234567001";
+
+		// Method call & Verification
+		assertThat(PhoneNumbers.canonicalize(canonical)).isSameAs(canonical);
+		assertThat(PhoneNumbers.canonicalize("00201234567001")).isEqualTo(canonical);
+		assertThat(PhoneNumbers.canonicalize("0020 123 456 7001")).isEqualTo(canonical);
+		assertThat(PhoneNumbers.canonicalize("+20 123 456 7001")).isEqualTo(canonical);
+		assertThat(PhoneNumbers.canonicalize("01234 567 001")).isEqualTo("01234567001");
+		assertThat(PhoneNumbers.canonicalize("+20-1234567001")).isNull();
+		assertThat(PhoneNumbers.canonicalize(null)).isNull();
+	}
+}